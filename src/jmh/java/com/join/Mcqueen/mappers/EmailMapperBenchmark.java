@@ -0,0 +1,81 @@
+package com.join.Mcqueen.mappers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.EmailData;
+import com.join.Mcqueen.domain.models.SendStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão para a entidade de auditoria (nomes dos arquivos, estatísticas em JSON e tamanhos)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailMapperBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int fileCount;
+
+    private EmailMapper emailMapper;
+    private EmailData emailData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emailMapper = new EmailMapper(new ObjectMapper(), null);
+
+        List<MultipartFile> files = new ArrayList<>(fileCount);
+        List<CsvFileStatsDTO> stats = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            String name = "exportacao-servidores-" + i + ".csv";
+            files.add(new MockMultipartFile("files", name, "text/csv", new byte[1024]));
+            stats.add(CsvFileStatsDTO.builder()
+                    .fileName(name)
+                    .encoding("UTF-8")
+                    .delimiter(";")
+                    .rowCount(15_000L)
+                    .columnCount(12)
+                    .sizeBytes(1024L)
+                    .build());
+        }
+
+        emailData = EmailData.builder()
+                .recipient("destino@orgao.gov.br")
+                .emailSubject("Formulário: Dados de pessoal - Órgão: Secretaria")
+                .organizationName("Secretaria de Administração")
+                .responsibleContact("responsavel@orgao.gov.br")
+                .subject("Dados de pessoal")
+                .referencePeriod("2024")
+                .dataDescription("Base consolidada de servidores")
+                .lgpdCompliance(true)
+                .files(files)
+                .fileStats(stats)
+                .build();
+    }
+
+    @Benchmark
+    public EmailAudit toEmailAudit() {
+        return emailMapper.toEmailAudit(emailData, SendStatus.SUCCESS);
+    }
+}
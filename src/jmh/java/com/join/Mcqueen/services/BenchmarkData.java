@@ -0,0 +1,69 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Dados sintéticos compartilhados pelos benchmarks
+ */
+final class BenchmarkData {
+
+    private static final byte[] HEADER = "data;orgao;matricula;cargo;valor\n".getBytes(StandardCharsets.US_ASCII);
+
+    private BenchmarkData() {
+    }
+
+    static EmailFormDTO form() {
+        return new EmailFormDTO("Secretaria de Administração", "responsavel@orgao.gov.br",
+                "Dados de pessoal <ativos & inativos>", "Janeiro a Dezembro de 2024",
+                "Base consolidada de servidores ativos e inativos, com lotação, cargo e remuneração. ".repeat(10),
+                true);
+    }
+
+    /**
+     * Templates de email do classpath, como carregados na aplicação
+     */
+    static EmailTemplateService templates() throws IOException {
+        EmailTemplateService templates = new EmailTemplateService(new DefaultResourceLoader(),
+                "classpath:templates/email/", false);
+        templates.load();
+        return templates;
+    }
+
+    /**
+     * CSV com cabeçalho e linhas de 5 colunas, com aproximadamente o tamanho pedido
+     */
+    static byte[] csv(int size) {
+        StringBuilder csv = new StringBuilder(size + 64).append(new String(HEADER, StandardCharsets.US_ASCII));
+        for (int i = 0; csv.length() < size; i++) {
+            csv.append("2024-01-").append(1 + i % 28).append(";Secretaria ").append(i % 40)
+                    .append(';').append(100000 + i).append(";Analista;").append(1000 + i % 9000).append(".50\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Grava em disco um CSV do tamanho pedido, para anexos lidos por streaming
+     */
+    static Path csvFile(Path path, long size) throws IOException {
+        byte[] block = csv(64 * 1024);
+        int rowsStart = HEADER.length;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            out.write(HEADER);
+            long written = HEADER.length;
+            while (written < size) {
+                int len = (int) Math.min(block.length - rowsStart, size - written);
+                out.write(block, rowsStart, len);
+                written += len;
+            }
+        }
+        return path;
+    }
+}
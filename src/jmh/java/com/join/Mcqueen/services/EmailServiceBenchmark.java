@@ -0,0 +1,75 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação estrutural dos CSVs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Csv {
+
+        /** Tamanho de cada CSV validado, em bytes */
+        @Param({ "10240", "1048576" })
+        public int csvBytes;
+
+        @Param({ "1", "10" })
+        public int fileCount;
+
+        EmailService emailService;
+        ThreadPoolTaskExecutor executor;
+        List<MultipartFile> files;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(Runtime.getRuntime().availableProcessors());
+            executor.setThreadNamePrefix("csv-scan-");
+            executor.initialize();
+            emailService = new EmailService(null, null, null, null, null, new CsvValidationService(executor), null,
+                    null, null, null, null);
+
+            byte[] csv = BenchmarkData.csv(csvBytes);
+            files = new ArrayList<>(fileCount);
+            for (int i = 0; i < fileCount; i++) {
+                files.add(new MockMultipartFile("files", "dados-" + i + ".csv", "text/csv", csv));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<CsvFileStatsDTO> validateCsvFiles(Csv state) {
+        return state.emailService.validateCsvFiles(state.files);
+    }
+}
@@ -0,0 +1,70 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import com.join.Mcqueen.templates.RenderedEmail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderização do corpo do email: templates compilados (HTML + texto, com
+ * escape) contra a montagem anterior com StringBuilder sem escape, mantida aqui
+ * como referência
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private EmailTemplateService templates;
+    private EmailFormDTO form;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        templates = BenchmarkData.templates();
+        form = BenchmarkData.form();
+    }
+
+    @Benchmark
+    public RenderedEmail compiledTemplates() {
+        return templates.render(EmailTemplateService.FORM_TEMPLATE, form);
+    }
+
+    @Benchmark
+    public String legacyStringBuilderHtml() {
+        StringBuilder corpo = new StringBuilder();
+        corpo.append("<!DOCTYPE html>");
+        corpo.append("<html><head><meta charset='UTF-8'><title>Dados do Formulário</title></head><body>");
+        corpo.append("<h2>Dados do Formulário Enviado</h2>");
+        corpo.append("<p><strong>Nome do Órgão:</strong> ").append(form.getOrganizationName()).append("</p>");
+        corpo.append("<p><strong>Contato do Responsável:</strong> ").append(form.getResponsibleContact())
+                .append("</p>");
+        corpo.append("<p><strong>Tema:</strong> ").append(form.getSubject()).append("</p>");
+        corpo.append("<p><strong>Período de Referência:</strong> ").append(form.getReferencePeriod())
+                .append("</p>");
+        corpo.append("<h3>Descrição dos Dados:</h3>");
+        corpo.append("<p>").append(form.getDataDescription().replace("\n", "<br>")).append("</p>");
+        if (Boolean.TRUE.equals(form.getLgpdCompliance())) {
+            corpo.append("<p><strong>LGPD:</strong> Dados em conformidade com a LGPD ✓</p>");
+        }
+        corpo.append("<p><em>Os arquivos CSV estão anexados a este email.</em></p>");
+        corpo.append("<hr>");
+        corpo.append("<p><small>Email enviado automaticamente pelo Sistema Mcqueen</small></p>");
+        corpo.append("</body></html>");
+        return corpo.toString();
+    }
+}
@@ -0,0 +1,121 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.EmailData;
+import com.join.Mcqueen.storage.SpooledMultipartFile;
+import com.join.Mcqueen.templates.RenderedEmail;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Montagem e serialização da MimeMessage com anexos lidos do disco, como no
+ * envio real: o tempo inclui a leitura e a codificação de todos os anexos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class MimeAssemblyBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int attachments;
+
+    /** Tamanho de cada anexo: 10KB, 1MB e 10MB */
+    @Param({ "10240", "1048576", "10485760" })
+    public long attachmentBytes;
+
+    private Path dir;
+    private MimeMessageAssembler assembler;
+    private EmailData emailData;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jmh-mime-");
+        // Um único arquivo em disco referenciado por todos os anexos
+        Path csv = BenchmarkData.csvFile(dir.resolve("dados.csv"), attachmentBytes);
+
+        List<MultipartFile> files = new ArrayList<>(attachments);
+        for (int i = 0; i < attachments; i++) {
+            files.add(new SpooledMultipartFile(csv, "dados-" + i + ".csv", "text/csv"));
+        }
+
+        assembler = new MimeMessageAssembler(new JavaMailSenderImpl());
+        RenderedEmail body = BenchmarkData.templates().render(EmailTemplateService.FORM_TEMPLATE,
+                BenchmarkData.form());
+        emailData = EmailData.builder()
+                .recipient("destino@orgao.gov.br")
+                .emailSubject("Envio de Dados - Dados de pessoal - Secretaria")
+                .message(body.html())
+                .textMessage(body.text())
+                .files(files)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : paths.toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long assembleAndWrite(Blackhole blackhole) throws Exception {
+        MimeMessage message = assembler.assemble(emailData);
+        message.saveChanges();
+        CountingOutputStream out = new CountingOutputStream(blackhole);
+        message.writeTo(out);
+        return out.count;
+    }
+
+    /**
+     * Descarta a saída (como o socket SMTP faria), contando os bytes
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+        private long count;
+
+        CountingOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.join.Mcqueen.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuração do envio assíncrono: pool limitado de workers que drena a outbox
+ */
+@Configuration
+@EnableScheduling
+public class AsyncEmailConfig {
+
+    @Value("${app.email.async.worker-threads:4}")
+    private int workerThreads;
+
+    @Bean
+    public AsyncTaskExecutor outboxExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Uma virtual thread por job; o limite de jobs simultâneos fica com o semáforo do worker
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("outbox-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        // O worker só reivindica jobs quando há slot livre, então a fila nunca passa do tamanho do pool
+        executor.setQueueCapacity(workerThreads);
+        executor.setThreadNamePrefix("outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.join.Mcqueen.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pools dedicados ao processamento de arquivos fora das threads do Tomcat
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${app.csv.validation.threads:0}")
+    private int csvValidationThreads;
+
+    @Value("${app.email.attachments.encoding-threads:0}")
+    private int attachmentEncodingThreads;
+
+    @Bean
+    public ThreadPoolTaskExecutor csvValidationExecutor() {
+        int threads = csvValidationThreads > 0 ? csvValidationThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        // Com a fila cheia a própria thread da requisição valida o arquivo
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("csv-scan-");
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor attachmentEncodingExecutor() {
+        int threads = attachmentEncodingThreads > 0 ? attachmentEncodingThreads
+                : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("att-encode-");
+        return executor;
+    }
+}
@@ -0,0 +1,80 @@
+package com.join.Mcqueen.config;
+
+import com.join.Mcqueen.mail.PooledJavaMailSender;
+import com.join.Mcqueen.mail.SmtpConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuração do JavaMailSender com pool de conexões SMTP reutilizáveis.
+ * Com app.mail.pool.enabled=false volta a valer o JavaMailSender padrão do Spring Boot.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+@ConditionalOnProperty(name = "app.mail.pool.enabled", havingValue = "true", matchIfMissing = true)
+public class MailConfig {
+
+    @Value("${app.mail.pool.max-size:8}")
+    private int maxSize;
+
+    @Value("${app.mail.pool.max-idle-ms:60000}")
+    private long maxIdleMillis;
+
+    @Value("${app.mail.pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.pool.max-wait-ms:10000}")
+    private long maxWaitMillis;
+
+    @Value("${app.mail.pool.validation-interval-ms:5000}")
+    private long validationIntervalMillis;
+
+    @Bean
+    public SmtpConnectionPool smtpConnectionPool(Environment environment) {
+        ExecutorService ioExecutor = null;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Requisições em virtual threads: a E/S do Transport roda em threads de plataforma,
+            // uma por conexão do pool, para não prender as threads portadoras
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("smtp-io-");
+            threadFactory.setDaemon(true);
+            ioExecutor = Executors.newFixedThreadPool(maxSize, threadFactory);
+            log.info("Virtual threads ativas: E/S SMTP isolada em {} threads de plataforma", maxSize);
+        }
+        return new SmtpConnectionPool(maxSize, maxIdleMillis, maxMessagesPerConnection, maxWaitMillis,
+                validationIntervalMillis, ioExecutor);
+    }
+
+    @Bean
+    public PooledJavaMailSender mailSender(MailProperties properties, SmtpConnectionPool smtpConnectionPool) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(smtpConnectionPool);
+        sender.setHost(properties.getHost());
+        if (properties.getPort() != null) {
+            sender.setPort(properties.getPort());
+        }
+        sender.setUsername(properties.getUsername());
+        sender.setPassword(properties.getPassword());
+        sender.setProtocol(properties.getProtocol());
+        if (properties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+        }
+        if (!properties.getProperties().isEmpty()) {
+            Properties javaMailProperties = new Properties();
+            javaMailProperties.putAll(properties.getProperties());
+            sender.setJavaMailProperties(javaMailProperties);
+        }
+        return sender;
+    }
+}
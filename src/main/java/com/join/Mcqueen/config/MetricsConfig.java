@@ -0,0 +1,65 @@
+package com.join.Mcqueen.config;
+
+import com.join.Mcqueen.mail.SmtpConnectionPool;
+import com.join.Mcqueen.metrics.EmailMetrics;
+import com.join.Mcqueen.metrics.TimedMultipartResolver;
+import com.join.Mcqueen.services.EmailAuditWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Instrumentação que não cabe nos próprios componentes: leitura do upload,
+ * ocupação do pool SMTP e do buffer da auditoria
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Substitui o resolver multipart do Spring Boot (mesmo nome de bean)
+     */
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public TimedMultipartResolver multipartResolver(EmailMetrics emailMetrics, MultipartProperties multipartProperties) {
+        TimedMultipartResolver resolver = new TimedMultipartResolver(emailMetrics);
+        resolver.setResolveLazily(multipartProperties.isResolveLazily());
+        return resolver;
+    }
+
+    @Bean
+    public MeterBinder smtpPoolMetrics(ObjectProvider<SmtpConnectionPool> smtpConnectionPool) {
+        return registry -> smtpConnectionPool.ifAvailable(pool -> {
+            Gauge.builder("mcqueen.smtp.pool.active", pool, p -> p.getStats().getActive())
+                    .description("Conexões SMTP emprestadas")
+                    .register(registry);
+            Gauge.builder("mcqueen.smtp.pool.idle", pool, p -> p.getStats().getIdle())
+                    .description("Conexões SMTP ociosas")
+                    .register(registry);
+            FunctionCounter.builder("mcqueen.smtp.pool.hits", pool, p -> p.getStats().getHits())
+                    .description("Empréstimos atendidos por conexão reaproveitada")
+                    .register(registry);
+            FunctionCounter.builder("mcqueen.smtp.pool.misses", pool, p -> p.getStats().getMisses())
+                    .description("Empréstimos que abriram conexão nova")
+                    .register(registry);
+            FunctionCounter.builder("mcqueen.smtp.pool.timeouts", pool, p -> p.getStats().getTimeouts())
+                    .description("Esperas por conexão que excederam o limite")
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder auditWriterMetrics(EmailAuditWriter emailAuditWriter) {
+        return registry -> {
+            Gauge.builder("mcqueen.audit.pending", emailAuditWriter, EmailAuditWriter::getPendingCount)
+                    .description("Registros de auditoria aguardando gravação")
+                    .register(registry);
+            FunctionCounter.builder("mcqueen.audit.failed", emailAuditWriter, EmailAuditWriter::getFailedCount)
+                    .description("Registros de auditoria que não puderam ser gravados")
+                    .register(registry);
+        };
+    }
+}
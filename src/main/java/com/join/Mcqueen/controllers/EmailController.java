@@ -1,11 +1,31 @@
 package com.join.Mcqueen.controllers;
 
+import com.join.Mcqueen.domain.dtos.AttachmentReportDTO;
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.domain.dtos.CursorPageDTO;
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.dtos.EmailBatchRequestDTO;
+import com.join.Mcqueen.domain.dtos.EmailBatchResponseDTO;
 import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import com.join.Mcqueen.domain.dtos.EmailJobDTO;
 import com.join.Mcqueen.domain.dtos.EmailResponseDTO;
+import com.join.Mcqueen.domain.dtos.EmailSearchFilterDTO;
+import com.join.Mcqueen.domain.dtos.EmailStatsDTO;
+import com.join.Mcqueen.domain.dtos.HealthStatusDTO;
+import com.join.Mcqueen.domain.dtos.SmtpPoolStatsDTO;
 import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.mail.SmtpConnectionPool;
+import com.join.Mcqueen.services.AuditExportService;
+import com.join.Mcqueen.services.EmailAuditService;
+import com.join.Mcqueen.services.EmailOutboxService;
 import com.join.Mcqueen.services.EmailService;
+import com.join.Mcqueen.services.EmailStatsService;
+import com.join.Mcqueen.services.IdempotencyService;
+import com.join.Mcqueen.services.RecentEmailsCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,15 +34,32 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller responsável pelos endpoints de email
@@ -34,7 +71,22 @@ import java.util.List;
 @Tag(name = "Email Controller", description = "Endpoints para envio de emails com formulários e anexos CSV")
 public class EmailController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    /** Indica que a resposta veio de um pedido anterior com a mesma Idempotency-Key */
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    /** Grupo de health (management.endpoint.health.group.liveness) que decide o status de /health */
+    private static final String LIVENESS_HEALTH_GROUP = "liveness";
+
     private final EmailService emailService;
+    private final EmailAuditService emailAuditService;
+    private final AuditExportService auditExportService;
+    private final EmailStatsService emailStatsService;
+    private final EmailOutboxService emailOutboxService;
+    private final IdempotencyService idempotencyService;
+    private final RecentEmailsCache recentEmailsCache;
+    private final ObjectProvider<SmtpConnectionPool> smtpConnectionPool;
+    private final HealthEndpoint healthEndpoint;
 
     /**
      * Endpoint principal para envio de email com formulário e arquivos CSV
@@ -42,13 +94,19 @@ public class EmailController {
     @PostMapping(value = "/send", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Enviar email com formulário e anexos CSV", description = "Envia um email contendo os dados do formulário e arquivos CSV como anexos. "
             +
-            "Todos os campos do formulário são obrigatórios e pelo menos um arquivo CSV deve ser anexado.")
+            "Todos os campos do formulário são obrigatórios e pelo menos um arquivo CSV deve ser anexado. " +
+            "Com async=true o pedido é apenas validado e enfileirado, e o envio ocorre em segundo plano. " +
+            "Com o cabeçalho Idempotency-Key, repetições do mesmo pedido não reenviam o email.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Email enviado com sucesso", content = @Content(schema = @Schema(implementation = EmailResponseDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Envio enfileirado (modo assíncrono)", content = @Content(schema = @Schema(implementation = EmailJobDTO.class))),
             @ApiResponse(responseCode = "400", description = "Dados inválidos no formulário ou arquivos"),
-            @ApiResponse(responseCode = "500", description = "Erro interno no servidor ao enviar email")
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key reutilizada com outro conteúdo ou pedido original ainda em processamento"),
+            @ApiResponse(responseCode = "429", description = "Limite de envios excedido; ver cabeçalho Retry-After"),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor ao enviar email"),
+            @ApiResponse(responseCode = "503", description = "Servidor SMTP indisponível (disjuntor aberto); ver cabeçalho Retry-After")
     })
-    public ResponseEntity<EmailResponseDTO> sendEmail(
+    public ResponseEntity<?> sendEmail(
             @Parameter(description = "Nome do órgão responsável", required = true) @RequestParam("organizationName") String organizationName,
 
             @Parameter(description = "Email de contato do responsável", required = true) @RequestParam("responsibleContact") String responsibleContact,
@@ -63,17 +121,18 @@ public class EmailController {
 
             @Parameter(description = "Arquivos CSV a serem anexados (um ou mais)", required = true) @RequestParam("files") List<MultipartFile> files,
 
-            @Parameter(description = "Email de destino (opcional, usa padrão se não informado)") @RequestParam(value = "recipient", required = false) String recipient) {
+            @Parameter(description = "Email de destino (opcional, usa padrão se não informado)") @RequestParam(value = "recipient", required = false) String recipient,
+
+            @Parameter(description = "Enfileira o envio e responde imediatamente com 202") @RequestParam(value = "async", defaultValue = "${app.email.async.enabled:false}") Boolean async,
+
+            @Parameter(description = "Chave única do pedido: repetições com a mesma chave não reenviam o email e recebem a resposta original") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Recebida solicitação de envio de email de: {}", responsibleContact);
 
         EmailFormDTO emailFormDTO = new EmailFormDTO(
                 organizationName, responsibleContact, subject, referencePeriod,
                 dataDescription, lgpdCompliance);
 
-        EmailResponseDTO response = emailService.sendFormEmail(emailFormDTO, files, recipient);
-
-        log.info("Email enviado com sucesso para: {}", response.getRecipient());
-        return ResponseEntity.ok(response);
+        return send(emailFormDTO, files, recipient, async, idempotencyKey);
     }
 
     /**
@@ -83,65 +142,431 @@ public class EmailController {
     @Operation(summary = "Enviar email usando JSON para dados do formulário", description = "Alternativa para envio usando JSON para os dados do formulário e multipart para arquivos")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Email enviado com sucesso", content = @Content(schema = @Schema(implementation = EmailResponseDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Envio enfileirado (modo assíncrono)", content = @Content(schema = @Schema(implementation = EmailJobDTO.class))),
             @ApiResponse(responseCode = "400", description = "Dados inválidos no formulário ou arquivos"),
-            @ApiResponse(responseCode = "500", description = "Erro interno no servidor ao enviar email")
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key reutilizada com outro conteúdo ou pedido original ainda em processamento"),
+            @ApiResponse(responseCode = "429", description = "Limite de envios excedido; ver cabeçalho Retry-After"),
+            @ApiResponse(responseCode = "500", description = "Erro interno no servidor ao enviar email"),
+            @ApiResponse(responseCode = "503", description = "Servidor SMTP indisponível (disjuntor aberto); ver cabeçalho Retry-After")
     })
-    public ResponseEntity<EmailResponseDTO> sendEmailJson(
+    public ResponseEntity<?> sendEmailJson(
             @Parameter(description = "Dados do formulário em formato JSON", required = true) @RequestPart("formData") @Valid EmailFormDTO emailFormDTO,
 
             @Parameter(description = "Arquivos CSV a serem anexados", required = true) @RequestPart("files") List<MultipartFile> files,
 
-            @Parameter(description = "Email de destino (opcional)") @RequestParam(value = "recipient", required = false) String recipient) {
+            @Parameter(description = "Email de destino (opcional)") @RequestParam(value = "recipient", required = false) String recipient,
+
+            @Parameter(description = "Enfileira o envio e responde imediatamente com 202") @RequestParam(value = "async", defaultValue = "${app.email.async.enabled:false}") Boolean async,
+
+            @Parameter(description = "Chave única do pedido: repetições com a mesma chave não reenviam o email e recebem a resposta original") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("Recebida solicitação de envio de email JSON de: {}", emailFormDTO.getResponsibleContact());
 
-        EmailResponseDTO response = emailService.sendFormEmail(emailFormDTO, files, recipient);
+        return send(emailFormDTO, files, recipient, async, idempotencyKey);
+    }
 
-        log.info("Email JSON enviado com sucesso para: {}", response.getRecipient());
-        return ResponseEntity.ok(response);
+    /**
+     * Endpoint para envio em lote com anexos compartilhados
+     */
+    @PostMapping(value = "/send-batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Enviar lote de emails com os mesmos anexos CSV", description = "Envia um email para cada item do lote, todos com os mesmos arquivos anexados. "
+            + "Os arquivos são enviados, validados e codificados uma única vez. "
+            + "A resposta traz o resultado de cada item; falhas individuais não interrompem os demais envios.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Todos os emails enviados com sucesso", content = @Content(schema = @Schema(implementation = EmailBatchResponseDTO.class))),
+            @ApiResponse(responseCode = "207", description = "Lote processado com falhas em parte dos envios", content = @Content(schema = @Schema(implementation = EmailBatchResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vazio, acima do limite ou arquivos inválidos"),
+            @ApiResponse(responseCode = "429", description = "Limite de envios excedido; ver cabeçalho Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Servidor SMTP indisponível (disjuntor aberto); ver cabeçalho Retry-After")
+    })
+    public ResponseEntity<EmailBatchResponseDTO> sendBatch(
+            @Parameter(description = "Itens do lote em formato JSON", required = true) @RequestPart("batch") @Valid EmailBatchRequestDTO batch,
+
+            @Parameter(description = "Arquivos CSV anexados a todos os emails do lote", required = true) @RequestPart("files") List<MultipartFile> files) {
+        log.info("Recebida solicitação de envio em lote com {} emails", batch.getItems().size());
+
+        EmailBatchResponseDTO response = emailService.sendBatch(batch.getItems(), files);
+
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /**
+     * Endpoint para consultar o status de um envio assíncrono
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Consultar status de envio assíncrono", description = "Retorna o estado atual de um job criado com async=true")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status recuperado com sucesso", content = @Content(schema = @Schema(implementation = EmailJobDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    })
+    public ResponseEntity<EmailJobDTO> getJobStatus(
+            @Parameter(description = "Identificador do job", required = true) @PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(emailOutboxService.getJob(jobId));
     }
 
     /**
-     * Endpoint para consultar histórico de emails enviados
+     * Endpoint para consultar histórico de emails enviados, paginado por cursor
      */
-    @GetMapping("/history")
-    @Operation(summary = "Consultar histórico de emails enviados", description = "Retorna o histórico de emails enviados, opcionalmente filtrado por período")
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Consultar histórico de emails enviados", description = "Retorna uma página do histórico de emails enviados, do mais recente para o mais antigo, "
+            + "opcionalmente filtrado por período, com o resumo de cada envio (detalhes em /emails/audit/{id}). Para a próxima página, envie o nextCursor da resposta no parâmetro cursor. "
+            + "Com Accept: application/x-ndjson o histórico completo do período é transmitido em streaming, um registro por linha.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Histórico recuperado com sucesso", content = @Content(schema = @Schema(implementation = EmailAudit.class)))
+            @ApiResponse(responseCode = "200", description = "Histórico recuperado com sucesso", content = @Content(schema = @Schema(implementation = CursorPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido")
     })
-    public ResponseEntity<List<EmailAudit>> getHistory(
+    public ResponseEntity<CursorPageDTO<EmailAuditSummaryDTO>> getHistory(
             @Parameter(description = "Data de início do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "startDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime startDate,
 
-            @Parameter(description = "Data de fim do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endDate) {
+            @Parameter(description = "Data de fim do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endDate,
+
+            @Parameter(description = "Cursor retornado na página anterior (nextCursor)") @RequestParam(value = "cursor", required = false) String cursor,
+
+            @Parameter(description = "Quantidade de registros por página") @RequestParam(value = "size", required = false) Integer size) {
         log.info("Consultando histórico de emails - Período: {} até {}", startDate, endDate);
 
-        List<EmailAudit> history = emailService.getEmailHistory(startDate, endDate);
+        CursorPageDTO<EmailAuditSummaryDTO> page = emailAuditService.getEmailHistory(startDate, endDate, cursor, size);
+
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Variante em streaming do histórico (NDJSON), sem carregar o período inteiro em memória
+     */
+    @GetMapping(value = "/history", produces = NDJSON_VALUE)
+    @Operation(summary = "Exportar histórico de emails em NDJSON", description = "Transmite todos os registros do período, um objeto JSON por linha")
+    @ApiResponse(responseCode = "200", description = "Histórico transmitido com sucesso")
+    public ResponseEntity<StreamingResponseBody> streamHistory(
+            @Parameter(description = "Data de início do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "startDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime startDate,
+
+            @Parameter(description = "Data de fim do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endDate) {
+        log.info("Exportando histórico de emails em NDJSON - Período: {} até {}", startDate, endDate);
+
+        StreamingResponseBody body = outputStream -> emailAuditService.streamEmailHistory(startDate, endDate,
+                outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Exportação completa da auditoria em CSV ou NDJSON, em streaming a partir do
+     * cursor do banco
+     */
+    @GetMapping("/audit/export")
+    @Operation(summary = "Exportar a auditoria em CSV ou NDJSON", description = "Transmite todos os registros de [startDate, endDate), do mais antigo para o mais recente, "
+            + "lidos direto do cursor do banco com memória constante. Com Accept-Encoding: gzip a resposta é compactada (Content-Encoding: gzip).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Auditoria transmitida com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Formato ou período inválido")
+    })
+    public ResponseEntity<StreamingResponseBody> exportAudit(
+            @Parameter(description = "Formato: csv ou ndjson") @RequestParam(value = "format", defaultValue = "csv") String format,
+
+            @Parameter(description = "Início do período, inclusive (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "startDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime startDate,
+
+            @Parameter(description = "Fim do período, exclusive (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endDate,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AuditExportService.Format exportFormat = AuditExportService.Format.parse(format);
+        if (startDate != null && endDate != null && !startDate.isBefore(endDate)) {
+            throw new IllegalArgumentException("startDate deve ser anterior a endDate");
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        log.info("Exportando auditoria em {} - Período: {} até {}{}", exportFormat, startDate, endDate,
+                gzip ? " (gzip)" : "");
+
+        StreamingResponseBody body = outputStream -> {
+            if (!gzip) {
+                auditExportService.export(exportFormat, startDate, endDate, outputStream);
+                return;
+            }
+            // syncFlush: cada flush da exportação envia ao cliente o que já foi compactado
+            GZIPOutputStream compressed = new GZIPOutputStream(outputStream, 64 * 1024, true);
+            auditExportService.export(exportFormat, startDate, endDate, compressed);
+            compressed.finish();
+        };
+
+        String fileName = "email_audit" + (startDate != null ? "-" + startDate.toLocalDate() : "")
+                + (endDate != null ? "-" + endDate.toLocalDate() : "") + "." + exportFormat.getExtension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Endpoint de busca na auditoria com filtros combinados e paginação por cursor
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Buscar emails na auditoria", description = "Combina filtros por prefixo de destinatário e órgão (sem diferenciar maiúsculas), "
+            + "hash SHA-256 ou nome de anexo, status e período. Resultados do mais recente para o mais antigo, paginados por cursor como o histórico.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Busca realizada com sucesso", content = @Content(schema = @Schema(implementation = CursorPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Status, cursor ou tamanho de página inválido")
+    })
+    public ResponseEntity<CursorPageDTO<EmailAuditSummaryDTO>> searchEmails(
+            @Parameter(description = "Início do email do destinatário") @RequestParam(value = "recipient", required = false) String recipient,
+
+            @Parameter(description = "Início do nome do órgão") @RequestParam(value = "organization", required = false) String organization,
+
+            @Parameter(description = "SHA-256 de um dos anexos (localiza reenvios do mesmo arquivo)") @RequestParam(value = "fileHash", required = false) String fileHash,
+
+            @Parameter(description = "Nome exato de um dos anexos") @RequestParam(value = "fileName", required = false) String fileName,
+
+            @Parameter(description = "Status de envio (SUCCESS ou ERROR)") @RequestParam(value = "status", required = false) String status,
 
-        return ResponseEntity.ok(history);
+            @Parameter(description = "Data de início do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "startDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime startDate,
+
+            @Parameter(description = "Data de fim do filtro (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endDate,
+
+            @Parameter(description = "Cursor retornado na página anterior (nextCursor)") @RequestParam(value = "cursor", required = false) String cursor,
+
+            @Parameter(description = "Quantidade de registros por página") @RequestParam(value = "size", required = false) Integer size) {
+        log.info("Buscando emails - destinatário: {}, órgão: {}, status: {}", recipient, organization, status);
+
+        EmailSearchFilterDTO filter = EmailSearchFilterDTO.builder()
+                .recipient(recipient)
+                .organization(organization)
+                .fileHash(fileHash)
+                .fileName(fileName)
+                .status(status)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+
+        return ResponseEntity.ok(emailAuditService.searchEmails(filter, cursor, size));
+    }
+
+    /**
+     * Endpoint de totais de anexos enviados por órgão
+     */
+    @GetMapping("/attachments/report")
+    @Operation(summary = "Totais de anexos por órgão", description = "Soma, por órgão, os envios com sucesso de [startDate, endDate), "
+            + "a quantidade de anexos, os bytes originais e enviados e os registros dos CSVs. Ordenado pelo total de bytes.")
+    @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AttachmentReportDTO.class))))
+    public ResponseEntity<List<AttachmentReportDTO>> getAttachmentReport(
+            @Parameter(description = "Início do período, inclusive (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "startDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime startDate,
+
+            @Parameter(description = "Fim do período, exclusive (formato: yyyy-MM-ddTHH:mm:ss)") @RequestParam(value = "endDate", required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime endDate) {
+        log.info("Gerando totais de anexos por órgão - Período: {} até {}", startDate, endDate);
+
+        return ResponseEntity.ok(emailAuditService.getAttachmentReport(startDate, endDate));
+    }
+
+    /**
+     * Endpoint para consultar o registro completo de um envio na auditoria
+     */
+    @GetMapping("/audit/{id}")
+    @Operation(summary = "Consultar detalhes de um envio", description = "Retorna o registro completo da auditoria, incluindo descrição dos dados, "
+            + "detalhes da falha e a lista attachments (nome, tipo, tamanhos, hash e registros de cada anexo), que as listagens não trazem")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Registro recuperado com sucesso", content = @Content(schema = @Schema(implementation = EmailAudit.class))),
+            @ApiResponse(responseCode = "404", description = "Registro não encontrado")
+    })
+    public ResponseEntity<EmailAudit> getEmail(
+            @Parameter(description = "Identificador do registro", required = true) @PathVariable("id") Long id) {
+        return ResponseEntity.ok(emailAuditService.getEmail(id));
     }
 
     /**
      * Endpoint para consultar emails enviados recentemente (últimas 24h)
      */
     @GetMapping("/recent")
-    @Operation(summary = "Consultar emails enviados nas últimas 24 horas", description = "Retorna os emails enviados nas últimas 24 horas")
-    @ApiResponse(responseCode = "200", description = "Emails recentes recuperados com sucesso")
-    public ResponseEntity<List<EmailAudit>> getRecentEmails() {
-        log.info("Consultando emails enviados nas últimas 24 horas");
+    @Operation(summary = "Consultar emails enviados nas últimas 24 horas", description = "Retorna os emails enviados nas últimas 24 horas, servidos de uma janela em memória. "
+            + "A resposta traz um ETag; com If-None-Match igual ao ETag atual a resposta é 304 sem corpo.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Emails recentes recuperados com sucesso",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = EmailAuditSummaryDTO.class)))),
+            @ApiResponse(responseCode = "304", description = "Lista inalterada desde o ETag informado")
+    })
+    public ResponseEntity<byte[]> getRecentEmails(WebRequest request) {
+        log.debug("Consultando emails enviados nas últimas 24 horas");
+
+        RecentEmailsCache.Snapshot recentEmails = recentEmailsCache.get();
+        // Define o status 304 e o ETag na resposta quando o cliente já tem esta versão
+        if (request.checkNotModified(recentEmails.etag())) {
+            return null;
+        }
 
-        List<EmailAudit> recentEmails = emailService.getRecentEmails();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(recentEmails.etag())
+                .body(recentEmails.body());
+    }
 
-        return ResponseEntity.ok(recentEmails);
+    /**
+     * Endpoint com os totais de envio, respondido pelos contadores em memória
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Consultar totais de envio", description = "Retorna o total de tentativas de envio por status e por código de erro, "
+            + "a partir de contadores em memória (sem consultar o banco), recarregados do banco periodicamente")
+    @ApiResponse(responseCode = "200", description = "Totais recuperados com sucesso", content = @Content(schema = @Schema(implementation = EmailStatsDTO.class)))
+    public ResponseEntity<EmailStatsDTO> getStats() {
+        return ResponseEntity.ok(emailStatsService.getStats());
     }
 
     /**
-     * Endpoint de health check
+     * Endpoint de health check: consulta os indicadores do Actuator (banco, SMTP e
+     * disco). O status vem do grupo de liveness, sem o SMTP: com o servidor de email
+     * fora do ar o container não deve ser reiniciado, e o SMTP aparece só nos componentes.
      */
     @GetMapping("/health")
-    @Operation(summary = "Verificar status do serviço de email", description = "Endpoint de health check para verificar se o serviço está funcionando")
-    @ApiResponse(responseCode = "200", description = "Serviço funcionando normalmente")
-    public ResponseEntity<String> healthCheck() {
-        return ResponseEntity.ok("Serviço de email funcionando normalmente");
+    @Operation(summary = "Verificar status do serviço de email", description = "Verifica a conexão com o banco de dados e o espaço em disco; "
+            + "o estado do servidor SMTP é informado nos componentes, sem alterar o status")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Serviço e dependências funcionando normalmente", content = @Content(schema = @Schema(implementation = HealthStatusDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Banco de dados ou disco indisponível", content = @Content(schema = @Schema(implementation = HealthStatusDTO.class)))
+    })
+    public ResponseEntity<HealthStatusDTO> healthCheck() {
+        HealthComponent health = healthEndpoint.health();
+        HealthComponent liveness = healthEndpoint.healthForPath(LIVENESS_HEALTH_GROUP);
+        Status status = liveness != null ? liveness.getStatus() : health.getStatus();
+
+        Map<String, String> components = new LinkedHashMap<>();
+        if (health instanceof CompositeHealth composite) {
+            composite.getComponents().forEach((name, component) -> components.put(name,
+                    component.getStatus().getCode()));
+        }
+        HealthStatusDTO body = HealthStatusDTO.builder()
+                .status(status.getCode())
+                .components(components)
+                .build();
+
+        if (!Status.UP.equals(status)) {
+            log.warn("Health check com falha: {}", components);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+        return ResponseEntity.ok(body);
     }
 
+    /**
+     * Endpoint com as estatísticas do pool de conexões SMTP
+     */
+    @GetMapping("/smtp-pool")
+    @Operation(summary = "Consultar estatísticas do pool SMTP", description = "Retorna acertos, faltas, tempos de espera e ocupação do pool de conexões SMTP")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estatísticas recuperadas com sucesso", content = @Content(schema = @Schema(implementation = SmtpPoolStatsDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Pool de conexões desabilitado")
+    })
+    public ResponseEntity<SmtpPoolStatsDTO> getSmtpPoolStats() {
+        SmtpConnectionPool pool = smtpConnectionPool.getIfAvailable();
+        if (pool == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pool.getStats());
+    }
+
+    /**
+     * Envia (ou enfileira) o pedido; com Idempotency-Key, repetições recebem a resposta do pedido original
+     */
+    private ResponseEntity<?> send(EmailFormDTO emailFormDTO, List<MultipartFile> files, String recipient,
+            Boolean async, String idempotencyKey) {
+        boolean queued = Boolean.TRUE.equals(async);
+        if (idempotencyKey == null) {
+            return queued ? enqueue(emailFormDTO, files, recipient, null)
+                    : sendNow(emailFormDTO, files, recipient, null);
+        }
+
+        // Repetições são reconhecidas pelo formulário e pelo nome e tamanho dos arquivos, sem reler os uploads
+        String fingerprint = IdempotencyService.fingerprint(Arrays.asList(queued, recipient,
+                emailFormDTO.getOrganizationName(), emailFormDTO.getResponsibleContact(), emailFormDTO.getSubject(),
+                emailFormDTO.getReferencePeriod(), emailFormDTO.getDataDescription(),
+                emailFormDTO.getLgpdCompliance(),
+                files.stream().map(file -> file.getOriginalFilename() + ":" + file.getSize()).toList()));
+
+        // Só com a chave nova os arquivos são validados, uma única vez: o SHA-256 calculado na validação fica
+        // no registro da chave e o envio reaproveita as estatísticas
+        AtomicReference<List<CsvFileStatsDTO>> fileStats = new AtomicReference<>();
+        Supplier<String> contentHash = () -> {
+            fileStats.set(validateForContentHash(files));
+            return fileStats.get() != null ? IdempotencyService.fingerprint(fileStats.get().stream()
+                    .map(stats -> stats.getFileName() + ":" + stats.getSha256()).toList()) : null;
+        };
+
+        if (queued) {
+            IdempotencyService.Result<EmailJobDTO> result = idempotencyService.execute(idempotencyKey, fingerprint,
+                    contentHash, EmailJobDTO.class,
+                    () -> enqueue(emailFormDTO, files, recipient, fileStats.get()).getBody());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("Location", result.value().getStatusUrl())
+                    .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                    .body(result.value());
+        }
+
+        IdempotencyService.Result<EmailResponseDTO> result = idempotencyService.execute(idempotencyKey, fingerprint,
+                contentHash, EmailResponseDTO.class,
+                () -> sendNow(emailFormDTO, files, recipient, fileStats.get()).getBody());
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.value());
+    }
+
+    /**
+     * Verdadeiro quando o Accept-Encoding aceita gzip (q diferente de zero)
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(tokens[0].trim()) && !"x-gzip".equalsIgnoreCase(tokens[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estatísticas dos arquivos, com o SHA-256 de cada um, ou nulo se forem
+     * inválidos: nesse caso o envio valida de novo e registra a falha na
+     * auditoria, como nos pedidos sem Idempotency-Key
+     */
+    private List<CsvFileStatsDTO> validateForContentHash(List<MultipartFile> files) {
+        try {
+            return emailService.validateCsvFiles(files);
+        } catch (FileProcessingException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<EmailResponseDTO> sendNow(EmailFormDTO emailFormDTO, List<MultipartFile> files,
+            String recipient, List<CsvFileStatsDTO> fileStats) {
+        EmailResponseDTO response = emailService.sendFormEmail(emailFormDTO, files, recipient, fileStats);
+
+        log.info("Email enviado com sucesso para: {}", response.getRecipient());
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<EmailJobDTO> enqueue(EmailFormDTO emailFormDTO, List<MultipartFile> files, String recipient,
+            List<CsvFileStatsDTO> fileStats) {
+        EmailJobDTO job = emailOutboxService.enqueue(emailFormDTO, files, recipient, fileStats);
+
+        log.info("Envio enfileirado no job: {}", job.getJobId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("Location", job.getStatusUrl())
+                .body(job);
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais dos anexos enviados com sucesso por um órgão no período
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Totais de anexos enviados por órgão")
+public class AttachmentReportDTO {
+
+    @Schema(description = "Nome do órgão", example = "Secretaria de Administração")
+    private String organizationName;
+
+    @Schema(description = "Envios com anexos", example = "42")
+    private long sendCount;
+
+    @Schema(description = "Anexos enviados", example = "63")
+    private long attachmentCount;
+
+    @Schema(description = "Soma do tamanho original dos anexos, em bytes", example = "73400320")
+    private Long totalBytes;
+
+    @Schema(description = "Soma do tamanho dos anexos como enviados (após compressão), em bytes", example = "12582912")
+    private Long totalStoredBytes;
+
+    @Schema(description = "Soma dos registros dos CSVs, incluindo cabeçalhos", example = "250000")
+    private Long totalRows;
+}
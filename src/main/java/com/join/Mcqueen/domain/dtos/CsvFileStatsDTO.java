@@ -0,0 +1,39 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com as estatísticas estruturais de um arquivo CSV validado
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Estatísticas de um arquivo CSV")
+public class CsvFileStatsDTO {
+
+    @Schema(description = "Nome do arquivo", example = "dados.csv")
+    private String fileName;
+
+    @Schema(description = "Codificação detectada", example = "UTF-8")
+    private String encoding;
+
+    @Schema(description = "Delimitador detectado", example = ";")
+    private String delimiter;
+
+    @Schema(description = "Quantidade de registros, incluindo o cabeçalho", example = "1201")
+    private Long rowCount;
+
+    @Schema(description = "Quantidade de colunas por registro", example = "8")
+    private Integer columnCount;
+
+    @Schema(description = "Tamanho do arquivo em bytes", example = "524288")
+    private Long sizeBytes;
+
+    @Schema(description = "Hash SHA-256 do conteúdo, em hexadecimal", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String sha256;
+}
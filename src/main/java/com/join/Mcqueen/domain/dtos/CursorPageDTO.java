@@ -0,0 +1,32 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de página com paginação por cursor (keyset)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Página de resultados com cursor para a próxima página")
+public class CursorPageDTO<T> {
+
+    @Schema(description = "Itens da página")
+    private List<T> items;
+
+    @Schema(description = "Quantidade de itens na página", example = "50")
+    private int size;
+
+    @Schema(description = "Indica se há mais resultados após esta página", example = "true")
+    private boolean hasMore;
+
+    @Schema(description = "Cursor a ser enviado para obter a próxima página; nulo na última página")
+    private String nextCursor;
+}
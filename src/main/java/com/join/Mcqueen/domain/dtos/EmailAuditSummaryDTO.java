@@ -0,0 +1,48 @@
+package com.join.Mcqueen.domain.dtos;
+
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendErrorCode;
+import com.join.Mcqueen.domain.models.SendStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumo de um registro da auditoria para as listagens. As consultas selecionam
+ * apenas estas colunas (construtor na projeção), sem as colunas TEXT de
+ * descrição, anexos e detalhes; o registro completo fica em /emails/audit/{id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Resumo de um envio registrado na auditoria")
+public class EmailAuditSummaryDTO {
+
+    @Schema(description = "Identificador do registro (use em /emails/audit/{id} para os detalhes)", example = "1024")
+    private Long id;
+
+    @Schema(description = "Data e hora do envio")
+    private LocalDateTime sendDate;
+
+    @Schema(description = "Email do destinatário", example = "destino@exemplo.com")
+    private String recipient;
+
+    @Schema(description = "Nome do órgão", example = "Secretaria de Administração")
+    private String organizationName;
+
+    @Schema(description = "Status do envio", example = "SUCCESS")
+    private SendStatus sendStatus;
+
+    @Schema(description = "Categoria da falha; nulo quando o envio teve sucesso", example = "SMTP_CONNECTION")
+    private SendErrorCode errorCode;
+
+    public static EmailAuditSummaryDTO from(EmailAudit audit) {
+        return new EmailAuditSummaryDTO(audit.getId(), audit.getSendDate(), audit.getRecipient(),
+                audit.getOrganizationName(), audit.getSendStatus(), audit.getErrorCode());
+    }
+}
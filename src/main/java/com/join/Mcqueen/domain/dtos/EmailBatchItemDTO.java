@@ -0,0 +1,28 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Um envio do lote: dados do formulário e destinatário
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Item do envio em lote")
+public class EmailBatchItemDTO {
+
+    @Valid
+    @NotNull(message = "Dados do formulário são obrigatórios")
+    @Schema(description = "Dados do formulário deste envio")
+    private EmailFormDTO formData;
+
+    @Email(message = "Destinatário deve ser um email válido")
+    @Schema(description = "Email de destino (opcional, usa padrão se não informado)", example = "destinatario@exemplo.com")
+    private String recipient;
+}
@@ -0,0 +1,25 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para receber os envios de um lote que compartilham os mesmos anexos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Envio em lote com anexos compartilhados")
+public class EmailBatchRequestDTO {
+
+    @Valid
+    @NotEmpty(message = "O lote deve ter pelo menos um envio")
+    @Schema(description = "Envios do lote, cada um com seu formulário e destinatário")
+    private List<EmailBatchItemDTO> items;
+}
@@ -0,0 +1,32 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de resposta do envio em lote, com o resultado de cada item na ordem do pedido
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Resposta do envio em lote")
+public class EmailBatchResponseDTO {
+
+    @Schema(description = "Quantidade de envios no lote", example = "10")
+    private int total;
+
+    @Schema(description = "Envios concluídos com sucesso", example = "9")
+    private int succeeded;
+
+    @Schema(description = "Envios com falha", example = "1")
+    private int failed;
+
+    @Schema(description = "Resultado de cada envio, na ordem do pedido")
+    private List<EmailResponseDTO> results;
+}
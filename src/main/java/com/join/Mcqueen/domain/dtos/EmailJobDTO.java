@@ -0,0 +1,54 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO de status de um envio assíncrono
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Status de um envio assíncrono")
+public class EmailJobDTO {
+
+    @Schema(description = "Identificador do job", example = "3f2b8c1e-6a0d-4f4e-9a57-0b3c1f7e2d11")
+    private String jobId;
+
+    @Schema(description = "Estado do job", example = "PENDING")
+    private String status;
+
+    @Schema(description = "Email de destino", example = "destinatario@exemplo.com")
+    private String recipient;
+
+    @Schema(description = "Quantidade de arquivos anexados", example = "3")
+    private Integer fileCount;
+
+    @Schema(description = "Lista de nomes dos arquivos anexados")
+    private List<String> fileNames;
+
+    @Schema(description = "Quantidade de tentativas de envio já realizadas", example = "0")
+    private Integer attempts;
+
+    @Schema(description = "Último erro registrado, se houver")
+    private String lastError;
+
+    @Schema(description = "Data de criação do job")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Data da última atualização do job")
+    private LocalDateTime updatedAt;
+
+    @Schema(description = "Data do envio efetivo")
+    private LocalDateTime sentAt;
+
+    @Schema(description = "URL para consulta do status", example = "/emails/jobs/3f2b8c1e-6a0d-4f4e-9a57-0b3c1f7e2d11")
+    private String statusUrl;
+}
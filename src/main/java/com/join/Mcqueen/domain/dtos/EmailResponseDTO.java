@@ -36,4 +36,7 @@ public class EmailResponseDTO {
 
     @Schema(description = "Lista de nomes dos arquivos anexados")
     private List<String> fileNames;
+
+    @Schema(description = "Estatísticas estruturais de cada arquivo CSV")
+    private List<CsvFileStatsDTO> fileStats;
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.join.Mcqueen.domain.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros da busca na auditoria de emails; campos nulos são ignorados
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailSearchFilterDTO {
+
+    /** Prefixo do destinatário, sem diferenciar maiúsculas */
+    private String recipient;
+
+    /** Prefixo do nome do órgão, sem diferenciar maiúsculas */
+    private String organization;
+
+    /** SHA-256 de um dos anexos, para localizar reenvios do mesmo arquivo */
+    private String fileHash;
+
+    /** Nome exato de um dos anexos */
+    private String fileName;
+
+    /** Status de envio (SUCCESS ou ERROR) */
+    private String status;
+
+    private LocalDateTime startDate;
+
+    private LocalDateTime endDate;
+}
@@ -0,0 +1,33 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO com os totais de envio por status e por código de erro
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Totais de envios registrados na auditoria")
+public class EmailStatsDTO {
+
+    @Schema(description = "Total de tentativas de envio", example = "1520")
+    private long total;
+
+    @Schema(description = "Totais por status de envio", example = "{\"SUCCESS\": 1500, \"ERROR\": 20}")
+    private Map<String, Long> byStatus;
+
+    @Schema(description = "Totais de falhas por código de erro", example = "{\"SMTP_CONNECTION\": 12, \"INVALID_FILE\": 8}")
+    private Map<String, Long> byErrorCode;
+
+    @Schema(description = "Momento em que os contadores foram carregados do banco")
+    private LocalDateTime since;
+}
@@ -0,0 +1,26 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO com o estado do serviço e de cada dependência verificada
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Estado do serviço de email e de suas dependências")
+public class HealthStatusDTO {
+
+    @Schema(description = "Estado geral", example = "UP")
+    private String status;
+
+    @Schema(description = "Estado de cada verificação (banco, SMTP, disco)", example = "{\"db\": \"UP\", \"mail\": \"UP\", \"diskSpace\": \"UP\"}")
+    private Map<String, String> components;
+}
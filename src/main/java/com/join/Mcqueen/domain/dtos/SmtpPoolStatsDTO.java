@@ -0,0 +1,51 @@
+package com.join.Mcqueen.domain.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com as estatísticas do pool de conexões SMTP
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Estatísticas do pool de conexões SMTP")
+public class SmtpPoolStatsDTO {
+
+    @Schema(description = "Tamanho máximo do pool", example = "8")
+    private int maxSize;
+
+    @Schema(description = "Conexões abertas (ociosas + em uso)", example = "3")
+    private int open;
+
+    @Schema(description = "Conexões ociosas disponíveis para reuso", example = "2")
+    private int idle;
+
+    @Schema(description = "Conexões emprestadas no momento", example = "1")
+    private int active;
+
+    @Schema(description = "Empréstimos atendidos por conexão reaproveitada", example = "120")
+    private long hits;
+
+    @Schema(description = "Empréstimos que precisaram abrir nova conexão", example = "4")
+    private long misses;
+
+    @Schema(description = "Conexões descartadas por falha na verificação antes do reuso", example = "0")
+    private long validationFailures;
+
+    @Schema(description = "Conexões fechadas por ociosidade", example = "1")
+    private long evictions;
+
+    @Schema(description = "Empréstimos que expiraram aguardando conexão livre", example = "0")
+    private long timeouts;
+
+    @Schema(description = "Tempo médio de espera por uma conexão (ms)", example = "0.2")
+    private double averageWaitMillis;
+
+    @Schema(description = "Maior tempo de espera por uma conexão (ms)", example = "35.0")
+    private double maxWaitMillis;
+}
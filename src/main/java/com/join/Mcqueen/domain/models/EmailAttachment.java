@@ -0,0 +1,64 @@
+package com.join.Mcqueen.domain.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Anexo de um envio registrado na auditoria, uma linha por arquivo. Permite
+ * consultar envios por hash ou nome de arquivo e somar volumes por órgão com
+ * consultas indexadas, sem interpretar as colunas de texto de email_audit.
+ */
+@Entity
+@Table(name = "email_attachment")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailAttachment {
+
+    /** Sequência com alocação em blocos de 50, como a auditoria: gravado no mesmo lote JDBC do envio */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_attachment_seq")
+    @SequenceGenerator(name = "email_attachment_seq", sequenceName = "email_attachment_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "email_audit_id", nullable = false)
+    private EmailAudit emailAudit;
+
+    /** Posição do arquivo no envio, a partir de 0 (mesma ordem de file_names) */
+    @Column(name = "position", nullable = false)
+    private Integer position;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    /** Content-Type do anexo como enviado; nulo quando inferido pelo nome */
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    /** Tamanho do arquivo original em bytes */
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    /** Tamanho do anexo como enviado (após compressão, antes do base64) */
+    @Column(name = "stored_bytes")
+    private Long storedBytes;
+
+    /** SHA-256 do conteúdo original, em hexadecimal; nulo se o arquivo não foi validado */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    /** Registros do CSV, incluindo o cabeçalho; nulo se o arquivo não foi validado */
+    @Column(name = "row_count")
+    private Long rowCount;
+}
@@ -1,12 +1,17 @@
 package com.join.Mcqueen.domain.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Entidade para auditoria de emails enviados
@@ -19,19 +24,31 @@ import java.time.LocalDateTime;
 @Builder
 public class EmailAudit {
 
+    /** Sequência com alocação em blocos de 50, compatível com inserts em lote (ver V2__email_audit_sequence.sql) */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_audit_seq")
+    @SequenceGenerator(name = "email_audit_seq", sequenceName = "email_audit_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "recipient", nullable = false)
     private String recipient;
 
+    /** Destinatário em minúsculas, indexado para busca por prefixo */
+    @JsonIgnore
+    @Column(name = "recipient_normalized", nullable = false)
+    private String recipientNormalized;
+
     @Column(name = "email_subject", nullable = false)
     private String emailSubject;
 
     @Column(name = "organization_name", nullable = false)
     private String organizationName;
 
+    /** Órgão em minúsculas, indexado para busca por prefixo */
+    @JsonIgnore
+    @Column(name = "organization_normalized", nullable = false)
+    private String organizationNormalized;
+
     @Column(name = "responsible_contact", nullable = false)
     private String responsibleContact;
 
@@ -50,8 +67,35 @@ public class EmailAudit {
     @Column(name = "file_names", columnDefinition = "TEXT")
     private String fileNames;
 
-    @Column(name = "send_status", nullable = false)
-    private String sendStatus;
+    @Column(name = "file_stats", columnDefinition = "TEXT")
+    private String fileStats;
+
+    /** SHA-256 de cada anexo, na ordem de file_names, separados por vírgula */
+    @Column(name = "file_hashes", columnDefinition = "TEXT")
+    private String fileHashes;
+
+    @Column(name = "original_bytes")
+    private Long originalBytes;
+
+    @Column(name = "compressed_bytes")
+    private Long compressedBytes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "send_status", nullable = false, length = 20)
+    private SendStatus sendStatus;
+
+    /** Categoria da falha; nulo quando o envio teve sucesso */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "error_code", length = 40)
+    private SendErrorCode errorCode;
+
+    /** Mensagem original da falha */
+    @Column(name = "error_detail", columnDefinition = "TEXT")
+    private String errorDetail;
+
+    /** Tentativas de entrega SMTP; nulo nos registros anteriores à política de retentativas */
+    @Column(name = "attempt_count")
+    private Integer attemptCount;
 
     @Column(name = "send_date", nullable = false)
     private LocalDateTime sendDate;
@@ -59,8 +103,41 @@ public class EmailAudit {
     @Column(name = "lgpd_compliance")
     private Boolean lgpdCompliance;
 
+    /**
+     * Anexos do envio (email_attachment), gravados em cascata no mesmo lote.
+     * Incluídos no JSON do detalhe, das exportações e dos arquivos de retenção; as
+     * leituras em streaming os carregam por bloco (AuditAttachmentLoader), e não
+     * registro a registro.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "emailAudit", cascade = CascadeType.PERSIST)
+    @OrderBy("position")
+    private List<EmailAttachment> attachments;
+
     @PrePersist
     protected void onCreate() {
-        sendDate = LocalDateTime.now();
+        // Preserva a data do envio: com a gravação em segundo plano o persist ocorre depois
+        if (sendDate == null) {
+            sendDate = LocalDateTime.now();
+        }
+        normalizeSearchColumns();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        normalizeSearchColumns();
+    }
+
+    private void normalizeSearchColumns() {
+        recipientNormalized = normalize(recipient);
+        organizationNormalized = normalize(organizationName);
+    }
+
+    /**
+     * Forma usada nas colunas de busca: sem espaços nas pontas e em minúsculas
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.join.Mcqueen.domain.models;
 
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,8 @@ public class EmailData {
     private String recipient;
     private String emailSubject;
     private String message;
+    /** Variante em texto puro do corpo, enviada como alternativa ao HTML */
+    private String textMessage;
     private List<MultipartFile> files;
     private String organizationName;
     private String responsibleContact;
@@ -27,4 +30,8 @@ public class EmailData {
     private String referencePeriod;
     private String dataDescription;
     private Boolean lgpdCompliance;
+    private List<CsvFileStatsDTO> fileStats;
+    private List<PreparedAttachment> preparedAttachments;
+    /** Tentativas de entrega SMTP feitas; 0 se o envio falhou antes */
+    private Integer attemptCount;
 }
\ No newline at end of file
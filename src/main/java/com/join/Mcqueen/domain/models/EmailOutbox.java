@@ -0,0 +1,93 @@
+package com.join.Mcqueen.domain.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidade da outbox de envios assíncronos
+ */
+@Entity
+@Table(name = "email_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "organization_name", nullable = false)
+    private String organizationName;
+
+    @Column(name = "responsible_contact", nullable = false)
+    private String responsibleContact;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "reference_period", nullable = false)
+    private String referencePeriod;
+
+    @Column(name = "data_description", columnDefinition = "TEXT")
+    private String dataDescription;
+
+    @Column(name = "lgpd_compliance")
+    private Boolean lgpdCompliance;
+
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "email_outbox_file", joinColumns = @JoinColumn(name = "outbox_id"))
+    @OrderColumn(name = "position")
+    private List<OutboxFile> files = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    /** Instância que reivindicou o job por último */
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    /** Token da última reivindicação, usado para reler os jobs que ela efetivamente pegou */
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    /** Fim do lease enquanto em processamento; depois disso outra instância pode assumir o job */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    /** Incrementada a cada reivindicação: quem perdeu o lease não consegue gravar o resultado */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
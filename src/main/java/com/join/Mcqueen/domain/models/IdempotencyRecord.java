@@ -0,0 +1,58 @@
+package com.join.Mcqueen.domain.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de uma chave de idempotência e da resposta do pedido original
+ */
+@Entity
+@Table(name = "email_idempotency")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    /**
+     * Hash do pedido (campos e nome e tamanho dos arquivos), para recusar a mesma
+     * chave com outro conteúdo sem reler os arquivos
+     */
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    /** Hash dos arquivos (nome e SHA-256 de cada um), calculado só na primeira execução da chave */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    /** Resposta serializada em JSON, quando concluído */
+    @Column(name = "response", columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Versão nula identifica o registro como novo: o save faz INSERT e falha se
+     * outra instância já registrou a chave, em vez de sobrescrevê-la
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
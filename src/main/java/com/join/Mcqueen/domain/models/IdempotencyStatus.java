@@ -0,0 +1,9 @@
+package com.join.Mcqueen.domain.models;
+
+/**
+ * Estados de uma chave de idempotência
+ */
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,11 @@
+package com.join.Mcqueen.domain.models;
+
+/**
+ * Estados de um job de envio assíncrono na outbox
+ */
+public enum OutboxStatus {
+    PENDING,
+    PROCESSING,
+    SENT,
+    FAILED
+}
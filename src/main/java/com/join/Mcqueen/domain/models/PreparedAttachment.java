@@ -0,0 +1,49 @@
+package com.join.Mcqueen.domain.models;
+
+import com.join.Mcqueen.storage.AttachmentStore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+/**
+ * Anexo processado pelo pipeline: ou o conteúdo comprimido e codificado em
+ * base64 em arquivo temporário, ou o upload original repassado sem alteração
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PreparedAttachment {
+
+    /** Nome original do arquivo enviado */
+    private String originalFileName;
+
+    /** Nome do anexo na mensagem (ex.: dados.csv.gz quando comprimido) */
+    private String fileName;
+
+    /** Content-Type do anexo; nulo para inferir pelo nome */
+    private String contentType;
+
+    private boolean compressed;
+
+    private long originalBytes;
+
+    /** Bytes do anexo antes da codificação base64 (iguais aos originais quando não comprimido) */
+    private long storedBytes;
+
+    /** Arquivo com o conteúdo já codificado em base64 (linhas de 76 caracteres, CRLF); nulo quando repassado */
+    private Path encodedFile;
+
+    /** Upload original, para anexos abaixo do limite de compressão */
+    private MultipartFile source;
+
+    /** SHA-256 do conteúdo original, quando conhecido */
+    private String contentHash;
+
+    /** Referência no repositório de anexos; nesse caso encodedFile é compartilhado e não é removido no release */
+    private AttachmentStore.Entry storeEntry;
+}
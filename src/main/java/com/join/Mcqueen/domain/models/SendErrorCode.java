@@ -0,0 +1,81 @@
+package com.join.Mcqueen.domain.models;
+
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.exceptions.SmtpUnavailableException;
+import jakarta.mail.MessagingException;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+/**
+ * Categoria de falha de envio. Conjunto fechado, para que a auditoria e os
+ * contadores tenham cardinalidade fixa; a mensagem original vai em error_detail.
+ */
+public enum SendErrorCode {
+    /** Arquivo ausente, vazio ou CSV inválido */
+    INVALID_FILE,
+    /** Credenciais SMTP recusadas */
+    SMTP_AUTH,
+    /** Servidor SMTP inacessível, sem resposta, conexão interrompida ou disjuntor aberto */
+    SMTP_CONNECTION,
+    /** Servidor SMTP recusou a mensagem ou algum destinatário */
+    SMTP_REJECTED,
+    /** Falha ao montar a mensagem ou ler os anexos */
+    MESSAGE_BUILD,
+    UNKNOWN;
+
+    /**
+     * Classifica a exceção que interrompeu o envio
+     */
+    public static SendErrorCode classify(Throwable error) {
+        if (error instanceof FileProcessingException) {
+            return INVALID_FILE;
+        }
+        if (error instanceof MailAuthenticationException) {
+            return SMTP_AUTH;
+        }
+        if (error instanceof MailParseException || error instanceof MailPreparationException) {
+            return MESSAGE_BUILD;
+        }
+        if (error instanceof SmtpUnavailableException
+                || hasCause(error, SocketException.class) || hasCause(error, SocketTimeoutException.class)
+                || hasCause(error, UnknownHostException.class)) {
+            return SMTP_CONNECTION;
+        }
+        if (error instanceof MailSendException) {
+            return SMTP_REJECTED;
+        }
+        if (error instanceof MessagingException || error instanceof IOException) {
+            return MESSAGE_BUILD;
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (type.isInstance(current)) {
+                return true;
+            }
+            if (current instanceof MailSendException mailSendException) {
+                for (Exception failed : mailSendException.getFailedMessages().values()) {
+                    if (hasCause(failed, type)) {
+                        return true;
+                    }
+                }
+            }
+            if (current instanceof MessagingException messagingException
+                    && messagingException.getNextException() != null
+                    && messagingException.getNextException() != current.getCause()
+                    && hasCause(messagingException.getNextException(), type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
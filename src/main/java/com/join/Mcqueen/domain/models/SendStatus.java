@@ -0,0 +1,22 @@
+package com.join.Mcqueen.domain.models;
+
+import java.util.Locale;
+
+/**
+ * Resultado de uma tentativa de envio registrada na auditoria
+ */
+public enum SendStatus {
+    SUCCESS,
+    ERROR;
+
+    /**
+     * Converte o valor informado em filtros, sem diferenciar maiúsculas
+     */
+    public static SendStatus parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Status de envio inválido: " + value + " (use SUCCESS ou ERROR)");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.join.Mcqueen.exceptions;
+
+/**
+ * Exceção lançada quando um registro da auditoria não é encontrado
+ */
+public class EmailAuditNotFoundException extends RuntimeException {
+
+    public EmailAuditNotFoundException(String message) {
+        super(message);
+    }
+}
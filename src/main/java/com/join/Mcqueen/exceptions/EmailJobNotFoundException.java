@@ -0,0 +1,11 @@
+package com.join.Mcqueen.exceptions;
+
+/**
+ * Exceção lançada quando um job de envio assíncrono não é encontrado
+ */
+public class EmailJobNotFoundException extends RuntimeException {
+
+    public EmailJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.join.Mcqueen.exceptions;
+
+/**
+ * Exceção lançada quando uma Idempotency-Key é reutilizada com outro conteúdo ou
+ * o pedido original ainda não terminou dentro do tempo de espera
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
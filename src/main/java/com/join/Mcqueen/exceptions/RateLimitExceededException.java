@@ -0,0 +1,20 @@
+package com.join.Mcqueen.exceptions;
+
+/**
+ * Exceção lançada quando o envio é recusado pelo controle de admissão (limite de
+ * taxa ou de envios simultâneos do órgão)
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    /** Segundos sugeridos até uma nova tentativa (cabeçalho Retry-After) */
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
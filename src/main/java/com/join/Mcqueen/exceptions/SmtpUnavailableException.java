@@ -0,0 +1,20 @@
+package com.join.Mcqueen.exceptions;
+
+/**
+ * Exceção lançada sem tentar o envio quando o disjuntor do SMTP está aberto,
+ * isto é, o servidor falhou seguidamente e ainda não se recuperou
+ */
+public class SmtpUnavailableException extends RuntimeException {
+
+    /** Segundos até a próxima sonda ao servidor (cabeçalho Retry-After) */
+    private final long retryAfterSeconds;
+
+    public SmtpUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
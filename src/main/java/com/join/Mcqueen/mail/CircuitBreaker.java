@@ -0,0 +1,90 @@
+package com.join.Mcqueen.mail;
+
+/**
+ * Disjuntor de três estados. Fechado, deixa passar todas as chamadas e conta as
+ * falhas seguidas; ao atingir failureThreshold, abre e recusa as chamadas por
+ * openDurationNanos. Depois disso fica meio-aberto: uma única chamada de sonda
+ * passa, e o resultado dela fecha o disjuntor ou o reabre.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openDurationNanos) {
+        if (failureThreshold < 1 || openDurationNanos <= 0) {
+            throw new IllegalArgumentException("Disjuntor exige limite de falhas >= 1 e tempo aberto > 0");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+    }
+
+    /**
+     * Autoriza uma chamada. No estado meio-aberto só a sonda é autorizada, e quem
+     * a recebe deve informar o resultado com {@link #onSuccess()} ou {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            state = State.HALF_OPEN;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Indica, sem reservar a sonda, se uma chamada agora seria recusada
+     */
+    public synchronized boolean isRejecting() {
+        return switch (state) {
+            case CLOSED -> false;
+            case OPEN -> System.nanoTime() - openedAtNanos < openDurationNanos;
+            case HALF_OPEN -> probeInFlight;
+        };
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * @return true se esta falha abriu (ou reabriu) o disjuntor
+     */
+    public synchronized boolean onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            return true;
+        }
+        return false;
+    }
+
+    /** Nanossegundos até a próxima sonda; 0 se o disjuntor não está aberto */
+    public synchronized long remainingOpenNanos() {
+        return state == State.OPEN ? Math.max(0, openDurationNanos - (System.nanoTime() - openedAtNanos)) : 0;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
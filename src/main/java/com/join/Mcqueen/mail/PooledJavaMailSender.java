@@ -0,0 +1,27 @@
+package com.join.Mcqueen.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * JavaMailSender que obtém os Transports de um pool de conexões SMTP em vez de
+ * abrir e fechar uma conexão a cada envio
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl {
+
+    private final SmtpConnectionPool pool;
+
+    public PooledJavaMailSender(SmtpConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    protected Transport connectTransport() throws MessagingException {
+        return pool.borrow(getSession(), super::connectTransport);
+    }
+
+    public SmtpConnectionPool getPool() {
+        return pool;
+    }
+}
@@ -0,0 +1,61 @@
+package com.join.Mcqueen.mail;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+
+/**
+ * Transport emprestado do pool. Delega o envio para a conexão física e, ao ser
+ * fechado, devolve a conexão ao pool em vez de encerrá-la.
+ */
+class PooledTransport extends Transport {
+
+    private final SmtpConnectionPool pool;
+    private final SmtpConnectionPool.PooledConnection connection;
+    private boolean broken;
+    private boolean released;
+
+    PooledTransport(Session session, SmtpConnectionPool pool, SmtpConnectionPool.PooledConnection connection) {
+        super(session, connection.getTransport().getURLName());
+        this.pool = pool;
+        this.connection = connection;
+    }
+
+    @Override
+    public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+        try {
+            pool.runIo(() -> {
+                connection.getTransport().sendMessage(message, addresses);
+                return null;
+            });
+            connection.messageSent();
+        } catch (SendFailedException e) {
+            // Recusa de destinatário não invalida a sessão SMTP
+            connection.messageSent();
+            throw e;
+        } catch (MessagingException | RuntimeException e) {
+            broken = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Informa ao JavaMailSender que a conexão precisa ser trocada quando atingir
+     * o limite de mensagens, sem custo de NOOP a cada mensagem do lote
+     */
+    @Override
+    public boolean isConnected() {
+        return !released && !broken && pool.hasCapacityFor(connection);
+    }
+
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            pool.release(connection, broken);
+        }
+    }
+}
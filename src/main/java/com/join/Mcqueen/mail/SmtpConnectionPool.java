@@ -0,0 +1,328 @@
+package com.join.Mcqueen.mail;
+
+import com.join.Mcqueen.domain.dtos.SmtpPoolStatsDTO;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexões SMTP autenticadas. Mantém os Transports abertos entre envios
+ * para evitar o custo de TCP + STARTTLS + AUTH a cada mensagem.
+ *
+ * Com um ioExecutor, toda operação de rede do Transport (conexão, envio, NOOP e
+ * fechamento) roda nas threads desse executor. O SMTPTransport faz E/S dentro de
+ * métodos synchronized, o que prenderia a thread portadora de uma virtual thread;
+ * assim quem chama apenas espera o resultado e a virtual thread é desmontada.
+ */
+@Slf4j
+public class SmtpConnectionPool implements AutoCloseable {
+
+    /**
+     * Abre um Transport já conectado e autenticado
+     */
+    @FunctionalInterface
+    public interface TransportFactory {
+        Transport connect() throws MessagingException;
+    }
+
+    /**
+     * Operação de rede sobre um Transport
+     */
+    @FunctionalInterface
+    interface IoCall<T> {
+        T call() throws MessagingException;
+    }
+
+    private final int maxSize;
+    private final long maxIdleMillis;
+    private final int maxMessagesPerConnection;
+    private final long maxWaitMillis;
+    private final long validationIntervalMillis;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private final ExecutorService ioExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+
+    private volatile boolean closed;
+
+    public SmtpConnectionPool(int maxSize, long maxIdleMillis, int maxMessagesPerConnection, long maxWaitMillis,
+            long validationIntervalMillis) {
+        this(maxSize, maxIdleMillis, maxMessagesPerConnection, maxWaitMillis, validationIntervalMillis, null);
+    }
+
+    /**
+     * @param ioExecutor executor de plataforma para a E/S do Transport, encerrado junto
+     *                   com o pool; nulo para executar na thread de quem chama
+     */
+    public SmtpConnectionPool(int maxSize, long maxIdleMillis, int maxMessagesPerConnection, long maxWaitMillis,
+            long validationIntervalMillis, ExecutorService ioExecutor) {
+        this.ioExecutor = ioExecutor;
+        this.maxSize = maxSize;
+        this.maxIdleMillis = maxIdleMillis;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.permits = new Semaphore(maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "smtp-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, maxIdleMillis / 2);
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Obtém uma conexão do pool, reaproveitando uma ociosa saudável ou abrindo uma nova
+     */
+    public Transport borrow(Session session, TransportFactory factory) throws MessagingException {
+        if (closed) {
+            throw new MessagingException("Pool de conexões SMTP encerrado");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new MessagingException(
+                        "Tempo esgotado aguardando conexão SMTP livre no pool (" + maxWaitMillis + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrompido aguardando conexão SMTP do pool", e);
+        }
+        long waited = System.nanoTime() - start;
+        borrows.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                boolean reusable;
+                try {
+                    reusable = isReusable(connection);
+                } catch (MessagingException | RuntimeException e) {
+                    // NOOP sem resposta (timeout) ou interrompido: a conexão já saiu da fila e é descartada
+                    validationFailures.increment();
+                    destroy(connection);
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    log.debug("Falha ao validar conexão SMTP ociosa: {}", e.getMessage());
+                    continue;
+                }
+                if (reusable) {
+                    hits.increment();
+                    return new PooledTransport(session, this, connection);
+                }
+                destroy(connection);
+            }
+
+            misses.increment();
+            connection = new PooledConnection(runIo(factory::connect));
+            open.incrementAndGet();
+            return new PooledTransport(session, this, connection);
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devolve uma conexão ao pool; conexões com falha ou no limite de mensagens são descartadas
+     */
+    void release(PooledConnection connection, boolean broken) {
+        try {
+            if (closed || broken || connection.getMessageCount() >= maxMessagesPerConnection) {
+                destroy(connection);
+            } else {
+                connection.touch();
+                // LIFO: a conexão mais recente é reutilizada primeiro e as antigas expiram por ociosidade
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    boolean hasCapacityFor(PooledConnection connection) {
+        return connection.getMessageCount() < maxMessagesPerConnection;
+    }
+
+    /**
+     * Executa a operação no ioExecutor, se houver, aguardando o resultado
+     */
+    <T> T runIo(IoCall<T> call) throws MessagingException {
+        if (ioExecutor == null) {
+            return call.call();
+        }
+        FutureTask<T> task = new FutureTask<>(call::call);
+        try {
+            ioExecutor.execute(task);
+            return task.get();
+        } catch (RejectedExecutionException e) {
+            // Pool sendo encerrado
+            return call.call();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrompido aguardando operação SMTP", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MessagingException messagingException) {
+                throw messagingException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new MessagingException(cause.getMessage(), (Exception) cause);
+        }
+    }
+
+    private boolean isReusable(PooledConnection connection) throws MessagingException {
+        long idleFor = System.currentTimeMillis() - connection.getLastUsedAt();
+        if (idleFor > maxIdleMillis || connection.getMessageCount() >= maxMessagesPerConnection) {
+            return false;
+        }
+        // Conexões usadas há pouco dispensam o NOOP; as demais são verificadas antes do reuso
+        if (idleFor <= validationIntervalMillis) {
+            return true;
+        }
+        if (runIo(connection.getTransport()::isConnected)) {
+            return true;
+        }
+        validationFailures.increment();
+        return false;
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledConnection connection = iterator.next();
+            if (now - connection.getLastUsedAt() > maxIdleMillis && idle.remove(connection)) {
+                evictions.increment();
+                destroy(connection);
+            }
+        }
+    }
+
+    private void destroy(PooledConnection connection) {
+        open.decrementAndGet();
+        if (ioExecutor != null) {
+            // O QUIT não precisa ser esperado por quem devolveu a conexão
+            try {
+                ioExecutor.execute(() -> closeTransport(connection));
+                return;
+            } catch (RejectedExecutionException e) {
+                // Pool sendo encerrado: fecha na thread atual
+            }
+        }
+        closeTransport(connection);
+    }
+
+    private static void closeTransport(PooledConnection connection) {
+        try {
+            connection.getTransport().close();
+        } catch (MessagingException e) {
+            log.debug("Erro ao fechar conexão SMTP: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Estatísticas de uso do pool
+     */
+    public SmtpPoolStatsDTO getStats() {
+        long borrowCount = borrows.sum();
+        return SmtpPoolStatsDTO.builder()
+                .maxSize(maxSize)
+                .open(open.get())
+                .idle(idle.size())
+                .active(maxSize - permits.availablePermits())
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .validationFailures(validationFailures.sum())
+                .evictions(evictions.sum())
+                .timeouts(timeouts.sum())
+                .averageWaitMillis(borrowCount == 0 ? 0 : totalWaitNanos.sum() / borrowCount / 1_000_000.0)
+                .maxWaitMillis(maxWaitNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            destroy(connection);
+        }
+        if (ioExecutor != null) {
+            ioExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Conexão física mantida pelo pool
+     */
+    static final class PooledConnection {
+
+        private final Transport transport;
+        private volatile int messageCount;
+        private volatile long lastUsedAt;
+
+        PooledConnection(Transport transport) {
+            this.transport = transport;
+            this.lastUsedAt = System.currentTimeMillis();
+        }
+
+        Transport getTransport() {
+            return transport;
+        }
+
+        int getMessageCount() {
+            return messageCount;
+        }
+
+        long getLastUsedAt() {
+            return lastUsedAt;
+        }
+
+        void messageSent() {
+            messageCount++;
+        }
+
+        void touch() {
+            lastUsedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.join.Mcqueen.mail;
+
+import com.join.Mcqueen.domain.models.SendErrorCode;
+import com.join.Mcqueen.exceptions.SmtpUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Política de entrega SMTP. Falhas transitórias (servidor inacessível, timeout
+ * ou resposta 4xx) são repetidas com espera exponencial e jitter; falhas
+ * permanentes (5xx, autenticação, mensagem inválida) são lançadas na hora.
+ * <p>
+ * Um disjuntor conta as falhas transitórias seguidas: aberto, recusa os envios
+ * com SmtpUnavailableException sem tocar a rede, em vez de cada pedido esperar
+ * os timeouts do servidor fora do ar. Passado open-duration, uma única sonda é
+ * liberada e o resultado dela fecha ou reabre o disjuntor.
+ */
+@Slf4j
+@Component
+public class SmtpDeliveryPolicy {
+
+    /**
+     * Natureza da falha de um envio
+     */
+    public enum FailureKind {
+        /** Pode dar certo em uma nova tentativa */
+        TRANSIENT,
+        /** Repetir não adianta */
+        PERMANENT
+    }
+
+    @Value("${app.mail.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.mail.retry.initial-backoff-ms:500}")
+    private long initialBackoffMillis;
+
+    @Value("${app.mail.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${app.mail.retry.max-backoff-ms:5000}")
+    private long maxBackoffMillis;
+
+    @Value("${app.mail.circuit-breaker.enabled:true}")
+    private boolean breakerEnabled;
+
+    @Value("${app.mail.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.mail.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMillis;
+
+    private final MeterRegistry meterRegistry;
+    private CircuitBreaker breaker;
+    private Counter retries;
+    private Counter rejections;
+
+    public SmtpDeliveryPolicy(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        breaker = new CircuitBreaker(failureThreshold, TimeUnit.MILLISECONDS.toNanos(openDurationMillis));
+        retries = Counter.builder("mcqueen.smtp.retries")
+                .description("Novas tentativas de envio após falha transitória")
+                .register(meterRegistry);
+        rejections = Counter.builder("mcqueen.smtp.circuit.rejections")
+                .description("Envios recusados com o disjuntor SMTP aberto")
+                .register(meterRegistry);
+        Gauge.builder("mcqueen.smtp.circuit.state", () -> breaker.state().ordinal())
+                .description("Estado do disjuntor SMTP: 0 fechado, 1 aberto, 2 meio-aberto")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recusa de imediato se o disjuntor estiver aberto, antes de qualquer
+     * trabalho do pedido; não reserva a sonda
+     */
+    public void checkAvailable() {
+        if (breakerEnabled && breaker.isRejecting()) {
+            throw unavailable();
+        }
+    }
+
+    /**
+     * Executa o envio, repetindo as falhas transitórias
+     *
+     * @param onAttempt recebe o número de cada tentativa antes de ela começar
+     */
+    public void send(Runnable call, IntConsumer onAttempt) {
+        RuntimeException lastError = null;
+        for (int attempt = 1; ; attempt++) {
+            if (!acquire()) {
+                // Disjuntor abriu entre as tentativas: a última falha real é mais útil na auditoria
+                throw lastError != null ? lastError : unavailable();
+            }
+            onAttempt.accept(attempt);
+            RuntimeException error = attempt(call);
+            if (error == null) {
+                return;
+            }
+            if (classify(error) == FailureKind.PERMANENT || attempt >= maxAttempts) {
+                throw error;
+            }
+
+            long delay = backoffMillis(attempt);
+            log.warn("Falha transitória no envio SMTP (tentativa {} de {}), nova tentativa em {} ms: {}",
+                    attempt, maxAttempts, delay, error.getMessage());
+            retries.increment();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw error;
+            }
+            lastError = error;
+        }
+    }
+
+    /**
+     * Executa o envio uma única vez, protegido pelo disjuntor. Usado no envio em
+     * lote, em que repetir a chamada reenviaria as mensagens já aceitas.
+     */
+    public void sendOnce(Runnable call) {
+        if (!acquire()) {
+            throw unavailable();
+        }
+        RuntimeException error = attempt(call);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Classifica a falha pelo código de resposta SMTP, quando houver, ou pela
+     * categoria do erro
+     */
+    public static FailureKind classify(Throwable error) {
+        List<Integer> replyCodes = new ArrayList<>();
+        collectReplyCodes(error, replyCodes, Collections.newSetFromMap(new IdentityHashMap<>()));
+        if (!replyCodes.isEmpty()) {
+            return replyCodes.stream().allMatch(code -> code >= 400 && code < 500)
+                    ? FailureKind.TRANSIENT : FailureKind.PERMANENT;
+        }
+        return SendErrorCode.classify(error) == SendErrorCode.SMTP_CONNECTION
+                ? FailureKind.TRANSIENT : FailureKind.PERMANENT;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return breaker.state();
+    }
+
+    private boolean acquire() {
+        if (!breakerEnabled || breaker.tryAcquire()) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    /**
+     * Executa uma tentativa e informa o resultado ao disjuntor
+     *
+     * @return a falha, ou null em caso de sucesso
+     */
+    private RuntimeException attempt(Runnable call) {
+        boolean recorded = false;
+        try {
+            call.run();
+            recordSuccess();
+            recorded = true;
+            return null;
+        } catch (RuntimeException e) {
+            // Falha permanente mostra que o servidor está respondendo
+            if (classify(e) == FailureKind.TRANSIENT) {
+                recordFailure(e);
+            } else {
+                recordSuccess();
+            }
+            recorded = true;
+            return e;
+        } finally {
+            if (!recorded) {
+                recordFailure(null);
+            }
+        }
+    }
+
+    private void recordSuccess() {
+        if (!breakerEnabled) {
+            return;
+        }
+        CircuitBreaker.State previous = breaker.state();
+        breaker.onSuccess();
+        if (previous != CircuitBreaker.State.CLOSED) {
+            log.info("Servidor SMTP respondeu; disjuntor fechado");
+        }
+    }
+
+    private void recordFailure(RuntimeException error) {
+        if (breakerEnabled && breaker.onFailure()) {
+            log.error("Disjuntor SMTP aberto por {} ms após falhas seguidas: {}", openDurationMillis,
+                    error != null ? error.getMessage() : "erro inesperado");
+        }
+    }
+
+    /**
+     * Espera exponencial com jitter: metade fixa e metade aleatória, para que
+     * pedidos que falharam juntos não tentem de novo ao mesmo tempo
+     */
+    private long backoffMillis(int attempt) {
+        double exponential = initialBackoffMillis * Math.pow(multiplier, attempt - 1);
+        long ceiling = (long) Math.min(maxBackoffMillis, exponential);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    private SmtpUnavailableException unavailable() {
+        long retryAfterSeconds = Math.max(1,
+                TimeUnit.NANOSECONDS.toSeconds(breaker.remainingOpenNanos() + 999_999_999L));
+        return new SmtpUnavailableException(
+                "Servidor SMTP indisponível. Tente novamente em " + retryAfterSeconds + " segundos",
+                retryAfterSeconds);
+    }
+
+    /**
+     * Códigos de resposta SMTP de toda a cadeia de causas, incluindo as falhas
+     * por mensagem do MailSendException e as exceções encadeadas do JavaMail
+     */
+    private static void collectReplyCodes(Throwable error, List<Integer> codes, Set<Throwable> seen) {
+        if (error == null || !seen.add(error)) {
+            return;
+        }
+        if (error instanceof SMTPSendFailedException e) {
+            codes.add(e.getReturnCode());
+        } else if (error instanceof SMTPAddressFailedException e) {
+            codes.add(e.getReturnCode());
+        } else if (error instanceof SMTPSenderFailedException e) {
+            codes.add(e.getReturnCode());
+        }
+        if (error instanceof MailSendException mailSendException) {
+            mailSendException.getFailedMessages().values()
+                    .forEach(failed -> collectReplyCodes(failed, codes, seen));
+        }
+        if (error instanceof MessagingException messagingException) {
+            collectReplyCodes(messagingException.getNextException(), codes, seen);
+        }
+        collectReplyCodes(error.getCause(), codes, seen);
+    }
+}
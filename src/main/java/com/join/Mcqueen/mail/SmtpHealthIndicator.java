@@ -0,0 +1,107 @@
+package com.join.Mcqueen.mail;
+
+import com.join.Mcqueen.domain.dtos.SmtpPoolStatsDTO;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+
+/**
+ * Health do SMTP (componente "mail", no lugar do indicador do Spring Boot). O
+ * indicador padrão chama testConnection(), que com o pool ativo disputa uma
+ * conexão com os envios: com o pool cheio a sonda espera max-wait-ms e reporta
+ * DOWN, e uma conexão usada há pouco volta sem NOOP.
+ * <p>
+ * Aqui a sonda abre uma conexão própria, fora do pool, com timeouts curtos
+ * (app.mail.health.timeout-ms) e envia NOOP. O resultado fica guardado por
+ * app.mail.health.cache-ms, e com o disjuntor aberto nem chega a tocar a rede.
+ */
+@Slf4j
+@Component("mailHealthIndicator")
+public class SmtpHealthIndicator implements HealthIndicator {
+
+    private final ObjectProvider<JavaMailSenderImpl> mailSender;
+    private final ObjectProvider<SmtpConnectionPool> smtpConnectionPool;
+    private final SmtpDeliveryPolicy smtpDeliveryPolicy;
+
+    @Value("${app.mail.health.timeout-ms:3000}")
+    private long timeoutMillis;
+
+    @Value("${app.mail.health.cache-ms:30000}")
+    private long cacheMillis;
+
+    private String lastError;
+    private long probedAtNanos;
+    private boolean probed;
+
+    public SmtpHealthIndicator(ObjectProvider<JavaMailSenderImpl> mailSender,
+            ObjectProvider<SmtpConnectionPool> smtpConnectionPool, SmtpDeliveryPolicy smtpDeliveryPolicy) {
+        this.mailSender = mailSender;
+        this.smtpConnectionPool = smtpConnectionPool;
+        this.smtpDeliveryPolicy = smtpDeliveryPolicy;
+    }
+
+    @Override
+    public Health health() {
+        JavaMailSenderImpl sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            return Health.unknown().withDetail("reason", "JavaMailSender não configurado").build();
+        }
+
+        CircuitBreaker.State circuitState = smtpDeliveryPolicy.circuitState();
+        String error = circuitState == CircuitBreaker.State.OPEN ? "Disjuntor SMTP aberto" : probe(sender);
+        Health.Builder builder = error == null ? Health.up() : Health.down().withDetail("error", error);
+        builder.withDetail("location", sender.getHost() + ":" + sender.getPort())
+                .withDetail("circuitBreaker", circuitState.name());
+        SmtpConnectionPool pool = smtpConnectionPool.getIfAvailable();
+        if (pool != null) {
+            SmtpPoolStatsDTO stats = pool.getStats();
+            builder.withDetail("poolActive", stats.getActive())
+                    .withDetail("poolIdle", stats.getIdle())
+                    .withDetail("poolMaxSize", stats.getMaxSize());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Resultado da última sonda, refeita quando tem mais de cache-ms
+     *
+     * @return a falha, ou null se o servidor respondeu
+     */
+    private synchronized String probe(JavaMailSenderImpl sender) {
+        if (probed && System.nanoTime() - probedAtNanos < cacheMillis * 1_000_000) {
+            return lastError;
+        }
+        lastError = connect(sender);
+        probedAtNanos = System.nanoTime();
+        probed = true;
+        return lastError;
+    }
+
+    private String connect(JavaMailSenderImpl sender) {
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+        Properties properties = new Properties();
+        properties.putAll(sender.getJavaMailProperties());
+        String timeout = String.valueOf(timeoutMillis);
+        properties.setProperty("mail." + protocol + ".connectiontimeout", timeout);
+        properties.setProperty("mail." + protocol + ".timeout", timeout);
+        properties.setProperty("mail." + protocol + ".writetimeout", timeout);
+
+        try (Transport transport = Session.getInstance(properties).getTransport(protocol)) {
+            transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+            // Com a conexão aberta, isConnected() envia NOOP ao servidor
+            return transport.isConnected() ? null : "Servidor SMTP não respondeu ao NOOP";
+        } catch (MessagingException e) {
+            log.warn("Sonda de health do SMTP falhou: {}", e.getMessage());
+            return e.getMessage();
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.join.Mcqueen.mappers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
 import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import com.join.Mcqueen.domain.models.EmailAttachment;
 import com.join.Mcqueen.domain.models.EmailAudit;
 import com.join.Mcqueen.domain.models.EmailData;
+import com.join.Mcqueen.domain.models.PreparedAttachment;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.services.EmailTemplateService;
+import com.join.Mcqueen.templates.RenderedEmail;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
  * Mapper para conversões entre DTOs e entidades de email
  */
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class EmailMapper {
 
+    private final ObjectMapper objectMapper;
+    private final EmailTemplateService emailTemplateService;
+
     /**
      * Converte EmailFormDTO para EmailData
      */
@@ -24,6 +41,7 @@ public class EmailMapper {
             return null;
         }
 
+        RenderedEmail body = emailTemplateService.render(EmailTemplateService.FORM_TEMPLATE, dto);
         return EmailData.builder()
                 .organizationName(dto.getOrganizationName())
                 .responsibleContact(dto.getResponsibleContact())
@@ -34,19 +52,20 @@ public class EmailMapper {
                 .files(files)
                 .recipient(recipient)
                 .emailSubject(createSubject(dto))
-                .message(createMessage(dto))
+                .message(body.html())
+                .textMessage(body.text())
                 .build();
     }
 
     /**
      * Converte EmailData para EmailAudit
      */
-    public EmailAudit toEmailAudit(EmailData emailData, String status) {
+    public EmailAudit toEmailAudit(EmailData emailData, SendStatus status) {
         if (emailData == null) {
             return null;
         }
 
-        return EmailAudit.builder()
+        EmailAudit audit = EmailAudit.builder()
                 .recipient(emailData.getRecipient())
                 .emailSubject(
                         emailData.getEmailSubject() != null ? emailData.getEmailSubject() : createSubject(emailData))
@@ -58,21 +77,29 @@ public class EmailMapper {
                 .lgpdCompliance(emailData.getLgpdCompliance())
                 .fileCount(emailData.getFiles() != null ? emailData.getFiles().size() : 0)
                 .fileNames(extractFileNames(emailData.getFiles()))
+                .fileStats(serializeFileStats(emailData.getFileStats()))
+                .fileHashes(joinFileHashes(emailData.getFileStats()))
+                .originalBytes(sumOriginalBytes(emailData))
+                .compressedBytes(sumCompressedBytes(emailData))
+                .attemptCount(emailData.getAttemptCount())
                 .sendStatus(status)
                 .sendDate(LocalDateTime.now())
                 .build();
+        audit.setAttachments(toAttachments(audit, emailData.getFiles(), emailData.getFileStats(),
+                emailData.getPreparedAttachments()));
+        return audit;
     }
 
     /**
      * Converte EmailFormDTO para EmailAudit (para casos de erro)
      */
     public EmailAudit toEmailAuditFromDTO(EmailFormDTO dto, List<MultipartFile> files, String recipient,
-            String status) {
+            SendStatus status) {
         if (dto == null) {
             return null;
         }
 
-        return EmailAudit.builder()
+        EmailAudit audit = EmailAudit.builder()
                 .recipient(recipient)
                 .emailSubject(createSubject(dto))
                 .organizationName(dto.getOrganizationName())
@@ -86,6 +113,8 @@ public class EmailMapper {
                 .sendStatus(status)
                 .sendDate(LocalDateTime.now())
                 .build();
+        audit.setAttachments(toAttachments(audit, files, null, null));
+        return audit;
     }
 
     /**
@@ -109,26 +138,93 @@ public class EmailMapper {
     }
 
     /**
-     * Cria mensagem baseada nos dados do formulário
+     * Soma o tamanho original dos anexos
      */
-    private String createMessage(EmailFormDTO dto) {
-        if (dto == null) {
-            return "";
+    private Long sumOriginalBytes(EmailData emailData) {
+        if (emailData.getPreparedAttachments() != null) {
+            return emailData.getPreparedAttachments().stream().mapToLong(PreparedAttachment::getOriginalBytes).sum();
+        }
+        if (emailData.getFiles() == null) {
+            return 0L;
+        }
+        return emailData.getFiles().stream().mapToLong(MultipartFile::getSize).sum();
+    }
+
+    /**
+     * Soma o tamanho dos anexos como enviados (após compressão, antes do base64)
+     */
+    private Long sumCompressedBytes(EmailData emailData) {
+        if (emailData.getPreparedAttachments() != null) {
+            return emailData.getPreparedAttachments().stream().mapToLong(PreparedAttachment::getStoredBytes).sum();
+        }
+        return sumOriginalBytes(emailData);
+    }
+
+    /**
+     * Serializa as estatísticas dos CSVs em JSON para a auditoria
+     */
+    private String serializeFileStats(List<CsvFileStatsDTO> fileStats) {
+        if (fileStats == null || fileStats.isEmpty()) {
+            return null;
         }
 
-        StringBuilder message = new StringBuilder();
-        message.append("Dados do Formulário:\n\n");
-        message.append("Órgão: ").append(dto.getOrganizationName()).append("\n");
-        message.append("Responsável: ").append(dto.getResponsibleContact()).append("\n");
-        message.append("Tema: ").append(dto.getSubject()).append("\n");
-        message.append("Período: ").append(dto.getReferencePeriod()).append("\n");
-        message.append("Descrição: ").append(dto.getDataDescription()).append("\n");
+        try {
+            return objectMapper.writeValueAsString(fileStats);
+        } catch (JsonProcessingException e) {
+            log.warn("Não foi possível serializar estatísticas dos arquivos: {}", e.getMessage());
+            return null;
+        }
+    }
 
-        if (Boolean.TRUE.equals(dto.getLgpdCompliance())) {
-            message.append("LGPD: Dados em conformidade confirmados\n");
+    /**
+     * Uma linha de email_attachment por arquivo enviado. As estatísticas e os
+     * anexos preparados, quando existem, estão na mesma ordem dos arquivos.
+     */
+    private List<EmailAttachment> toAttachments(EmailAudit audit, List<MultipartFile> files,
+            List<CsvFileStatsDTO> fileStats, List<PreparedAttachment> prepared) {
+        List<EmailAttachment> attachments = new ArrayList<>();
+        if (files == null) {
+            return attachments;
+        }
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String fileName = file.getOriginalFilename();
+            if (fileName == null || fileName.trim().isEmpty()) {
+                continue;
+            }
+            CsvFileStatsDTO stats = fileStats != null && i < fileStats.size() ? fileStats.get(i) : null;
+            PreparedAttachment attachment = prepared != null && i < prepared.size() ? prepared.get(i) : null;
+            attachments.add(EmailAttachment.builder()
+                    .emailAudit(audit)
+                    .position(i)
+                    .fileName(truncate(fileName, 255))
+                    .contentType(truncate(attachment != null && attachment.getContentType() != null
+                            ? attachment.getContentType() : file.getContentType(), 100))
+                    .sizeBytes(file.getSize())
+                    .storedBytes(attachment != null ? attachment.getStoredBytes() : file.getSize())
+                    .contentHash(stats != null ? stats.getSha256() : null)
+                    .rowCount(stats != null ? stats.getRowCount() : null)
+                    .build());
         }
+        return attachments;
+    }
+
+    /** Limita ao tamanho da coluna: um valor longo não pode impedir a gravação da auditoria */
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
 
-        return message.toString();
+    /**
+     * Hashes dos anexos como string separada por vírgulas
+     */
+    private String joinFileHashes(List<CsvFileStatsDTO> fileStats) {
+        if (fileStats == null || fileStats.isEmpty()) {
+            return null;
+        }
+        return fileStats.stream()
+                .map(CsvFileStatsDTO::getSha256)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(","));
     }
 
     /**
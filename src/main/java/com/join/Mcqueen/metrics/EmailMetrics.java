@@ -0,0 +1,98 @@
+package com.join.Mcqueen.metrics;
+
+import com.join.Mcqueen.domain.models.SendErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do fluxo de envio: um timer por etapa (com histograma para os
+ * percentis no Prometheus), volume de anexos e falhas por tipo de exceção.
+ */
+@Component
+public class EmailMetrics {
+
+    /** Tempo de cada etapa do envio, com as tags stage e outcome */
+    public static final String STAGE_TIMER = "mcqueen.email.stage";
+
+    public static final String STAGE_UPLOAD = "upload";
+    public static final String STAGE_VALIDATION = "validation";
+    public static final String STAGE_ATTACHMENTS = "attachments";
+    public static final String STAGE_RENDER = "render";
+    public static final String STAGE_MIME = "mime";
+    public static final String STAGE_SMTP = "smtp";
+    public static final String STAGE_AUDIT = "audit";
+
+    /**
+     * Ação de uma etapa, que pode lançar exceção verificada
+     */
+    @FunctionalInterface
+    public interface StageAction<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private final MeterRegistry registry;
+    private final Counter attachmentBytes;
+    private final Counter attachmentFiles;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EmailMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.attachmentBytes = Counter.builder("mcqueen.email.attachments.bytes")
+                .description("Bytes de anexos recebidos para envio")
+                .baseUnit("bytes")
+                .register(registry);
+        this.attachmentFiles = Counter.builder("mcqueen.email.attachments.files")
+                .description("Arquivos anexados recebidos para envio")
+                .register(registry);
+    }
+
+    /**
+     * Executa a etapa medindo o tempo, marcada como success ou error
+     */
+    public <T, E extends Exception> T stage(String stage, StageAction<T, E> action) throws E {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = action.run();
+            outcome = "success";
+            return result;
+        } finally {
+            recordStage(stage, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registra uma etapa medida fora deste componente
+     */
+    public void recordStage(String stage, String outcome, long nanos) {
+        timers.computeIfAbsent(stage + '|' + outcome, key -> Timer.builder(STAGE_TIMER)
+                .description("Duração de cada etapa do envio de email")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAttachments(int files, long bytes) {
+        attachmentFiles.increment(files);
+        attachmentBytes.increment(bytes);
+    }
+
+    /**
+     * Conta a falha pelo tipo da exceção e pela categoria registrada na auditoria
+     */
+    public void recordFailure(Throwable error, SendErrorCode errorCode) {
+        Counter.builder("mcqueen.email.failures")
+                .description("Falhas de envio por tipo de exceção")
+                .tag("exception", error.getClass().getSimpleName())
+                .tag("error_code", errorCode.name())
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,24 @@
+package com.join.Mcqueen.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+/**
+ * Resolver multipart padrão que mede a leitura do upload (recebimento do corpo
+ * e gravação das partes em disco), etapa que ocorre antes do controller
+ */
+public class TimedMultipartResolver extends StandardServletMultipartResolver {
+
+    private final EmailMetrics emailMetrics;
+
+    public TimedMultipartResolver(EmailMetrics emailMetrics) {
+        this.emailMetrics = emailMetrics;
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        return emailMetrics.stage(EmailMetrics.STAGE_UPLOAD, () -> super.resolveMultipart(request));
+    }
+}
@@ -0,0 +1,281 @@
+package com.join.Mcqueen.ratelimit;
+
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Controle de admissão dos envios. Cada envio consome uma ficha do balde global
+ * (dimensionado pela taxa de envio do provedor SMTP), uma do balde do órgão e
+ * uma do balde do destinatário informado; o destinatário padrão, que recebe
+ * todos os formulários, é limitado apenas pelo balde global. Além disso, cada
+ * órgão tem um limite de envios simultâneos (bulkhead), para que um órgão com
+ * muitos lotes grandes não ocupe todas as threads.
+ * <p>
+ * Pedidos acima de qualquer limite são recusados de imediato com
+ * RateLimitExceededException (429 com Retry-After), sem consumir fichas.
+ */
+@Slf4j
+@Component
+public class SendAdmissionControl {
+
+    /** Limite que recusou o pedido, usado como tag das métricas */
+    enum Limit {
+        GLOBAL, ORGANIZATION, RECIPIENT, CONCURRENCY
+    }
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.global.rate-per-second:5}")
+    private double globalRatePerSecond;
+
+    @Value("${app.rate-limit.global.burst:20}")
+    private int globalBurst;
+
+    @Value("${app.rate-limit.organization.rate-per-minute:30}")
+    private double organizationRatePerMinute;
+
+    @Value("${app.rate-limit.organization.burst:10}")
+    private int organizationBurst;
+
+    @Value("${app.rate-limit.organization.max-concurrent:4}")
+    private int organizationMaxConcurrent;
+
+    @Value("${app.rate-limit.organization.retry-after-seconds:5}")
+    private long concurrencyRetryAfterSeconds;
+
+    @Value("${app.rate-limit.recipient.rate-per-minute:20}")
+    private double recipientRatePerMinute;
+
+    @Value("${app.rate-limit.recipient.burst:10}")
+    private int recipientBurst;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Limit, Counter> rejections = new EnumMap<>(Limit.class);
+    private final Map<String, TokenBucket> organizationBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> recipientBuckets = new ConcurrentHashMap<>();
+    /** Envios em andamento por órgão; a entrada some quando chega a zero */
+    private final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+    private TokenBucket globalBucket;
+
+    public SendAdmissionControl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Destino de um envio; recipient nulo indica o destinatário padrão
+     */
+    public record Target(String organization, String recipient) {
+    }
+
+    /**
+     * Autorização de um envio admitido; fechar libera o limite de envios simultâneos
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @PostConstruct
+    void init() {
+        globalBucket = new TokenBucket(globalBurst, globalRatePerSecond);
+        for (Limit limit : Limit.values()) {
+            rejections.put(limit, Counter.builder("mcqueen.ratelimit.rejections")
+                    .description("Envios recusados pelo controle de admissão")
+                    .tag("limit", limit.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("mcqueen.ratelimit.global.tokens", () -> globalBucket.available())
+                .description("Fichas disponíveis no balde global")
+                .register(meterRegistry);
+        Gauge.builder("mcqueen.ratelimit.buckets", organizationBuckets, Map::size)
+                .description("Baldes ativos")
+                .tag("scope", "organization")
+                .register(meterRegistry);
+        Gauge.builder("mcqueen.ratelimit.buckets", recipientBuckets, Map::size)
+                .description("Baldes ativos")
+                .tag("scope", "recipient")
+                .register(meterRegistry);
+        Gauge.builder("mcqueen.ratelimit.inflight", inFlight,
+                        map -> map.values().stream().mapToInt(Integer::intValue).sum())
+                .description("Envios admitidos em andamento")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Controle de admissão: global {}/s (rajada {}), órgão {}/min (rajada {}, {} simultâneos), "
+                            + "destinatário {}/min (rajada {})", globalRatePerSecond, globalBurst,
+                    organizationRatePerMinute, organizationBurst, organizationMaxConcurrent,
+                    recipientRatePerMinute, recipientBurst);
+        }
+    }
+
+    /**
+     * Admite um envio ou lança RateLimitExceededException
+     */
+    public Permit admit(String organization, String recipient) {
+        return admit(List.of(new Target(organization, recipient)));
+    }
+
+    /**
+     * Admite um lote de envios por inteiro (uma ficha por envio) ou recusa todos
+     */
+    public Permit admit(Collection<Target> targets) {
+        if (!enabled || targets.isEmpty()) {
+            return () -> {
+            };
+        }
+
+        Set<String> organizations = new LinkedHashSet<>();
+        for (Target target : targets) {
+            organizations.add(key(target.organization()));
+        }
+        List<String> entered = new ArrayList<>(organizations.size());
+        try {
+            for (String organization : organizations) {
+                enter(organization);
+                entered.add(organization);
+            }
+            consumeTokens(targets);
+        } catch (RuntimeException e) {
+            entered.forEach(this::leave);
+            throw e;
+        }
+        return () -> entered.forEach(this::leave);
+    }
+
+    /**
+     * Descarta baldes cheios (sem uso recente), que equivalem a baldes novos
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    void evictIdleBuckets() {
+        evictIdle(organizationBuckets);
+        evictIdle(recipientBuckets);
+    }
+
+    /**
+     * Remove cada balde cheio sob o bloqueio da chave no mapa, o mesmo em que
+     * {@link #consume} obtém o balde e tira as fichas: um balde nunca é descartado
+     * entre a obtenção e o consumo
+     */
+    private static void evictIdle(Map<String, TokenBucket> buckets) {
+        for (String key : buckets.keySet()) {
+            buckets.computeIfPresent(key, (k, bucket) -> bucket.isFull() ? null : bucket);
+        }
+    }
+
+    private void enter(String organization) {
+        inFlight.compute(organization, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= organizationMaxConcurrent) {
+                throw reject(Limit.CONCURRENCY, TimeUnit.SECONDS.toNanos(concurrencyRetryAfterSeconds),
+                        "Órgão " + organization + " já tem " + current + " envios em andamento");
+            }
+            return current + 1;
+        });
+    }
+
+    private void leave(String organization) {
+        inFlight.computeIfPresent(organization, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Consome as fichas de todos os baldes envolvidos; se algum recusar, devolve
+     * as já consumidas
+     */
+    private void consumeTokens(Collection<Target> targets) {
+        List<Charge> consumed = new ArrayList<>();
+        Charge global = new Charge(Limit.GLOBAL, "global", globalBucket, targets.size());
+        check(global, globalBucket.tryConsume(targets.size()), consumed);
+        for (Map.Entry<String, Integer> entry : countBy(targets, true).entrySet()) {
+            long[] waitNanos = new long[1];
+            TokenBucket bucket = consume(organizationBuckets, entry.getKey(), entry.getValue(), waitNanos,
+                    () -> new TokenBucket(organizationBurst, organizationRatePerMinute / 60));
+            check(new Charge(Limit.ORGANIZATION, entry.getKey(), bucket, entry.getValue()), waitNanos[0],
+                    consumed);
+        }
+        for (Map.Entry<String, Integer> entry : countBy(targets, false).entrySet()) {
+            long[] waitNanos = new long[1];
+            TokenBucket bucket = consume(recipientBuckets, entry.getKey(), entry.getValue(), waitNanos,
+                    () -> new TokenBucket(recipientBurst, recipientRatePerMinute / 60));
+            check(new Charge(Limit.RECIPIENT, entry.getKey(), bucket, entry.getValue()), waitNanos[0], consumed);
+        }
+    }
+
+    /**
+     * Obtém (ou cria) o balde da chave e consome as fichas sob o bloqueio da chave no mapa
+     *
+     * @param waitNanos recebe a espera até haver fichas, ou 0 se foram consumidas
+     */
+    private static TokenBucket consume(Map<String, TokenBucket> buckets, String key, int tokens, long[] waitNanos,
+            Supplier<TokenBucket> factory) {
+        return buckets.compute(key, (k, bucket) -> {
+            TokenBucket current = bucket != null ? bucket : factory.get();
+            waitNanos[0] = current.tryConsume(tokens);
+            return current;
+        });
+    }
+
+    /**
+     * Registra a cobrança consumida ou, se o balde recusou, devolve as anteriores e recusa o pedido
+     */
+    private void check(Charge charge, long waitNanos, List<Charge> consumed) {
+        if (waitNanos > 0) {
+            consumed.forEach(done -> done.bucket().refund(done.tokens()));
+            throw reject(charge.limit(), waitNanos, switch (charge.limit()) {
+                case GLOBAL -> "Limite global de envios atingido";
+                case ORGANIZATION -> "Limite de envios do órgão " + charge.key() + " atingido";
+                default -> "Limite de envios para o destinatário " + charge.key() + " atingido";
+            });
+        }
+        consumed.add(charge);
+    }
+
+    /**
+     * Quantidade de envios por órgão ou por destinatário informado
+     */
+    private static Map<String, Integer> countBy(Collection<Target> targets, boolean byOrganization) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Target target : targets) {
+            String value = byOrganization ? target.organization() : target.recipient();
+            if (byOrganization || value != null) {
+                counts.merge(key(value), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private RateLimitExceededException reject(Limit limit, long waitNanos, String message) {
+        rejections.get(limit).increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.warn("{}; nova tentativa em {}s", message, retryAfterSeconds);
+        return new RateLimitExceededException(message + ". Tente novamente em " + retryAfterSeconds + " segundos",
+                retryAfterSeconds);
+    }
+
+    private static String key(String value) {
+        String normalized = EmailAudit.normalize(value);
+        return normalized == null ? "" : normalized;
+    }
+
+    private record Charge(Limit limit, String key, TokenBucket bucket, int tokens) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.join.Mcqueen.ratelimit;
+
+/**
+ * Balde de fichas com reposição contínua: comporta até capacity fichas (a
+ * rajada permitida) e repõe ratePerSecond fichas por segundo. A reposição é
+ * calculada no momento de cada consulta, sem threads.
+ */
+public final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double capacity;
+    private final double ratePerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double ratePerSecond) {
+        if (capacity < 1 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Balde de fichas exige capacidade >= 1 e taxa > 0");
+        }
+        this.capacity = capacity;
+        this.ratePerNano = ratePerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Consome as fichas se houver saldo
+     *
+     * @return 0 se consumiu, ou os nanossegundos até haver saldo suficiente
+     */
+    public synchronized long tryConsume(int count) {
+        refill();
+        // Pedidos maiores que a capacidade (lotes) passam com o balde cheio e
+        // deixam saldo negativo, que os pedidos seguintes aguardam repor
+        double required = Math.min(count, capacity);
+        if (tokens >= required) {
+            tokens -= count;
+            return 0;
+        }
+        return (long) Math.ceil((required - tokens) / ratePerNano);
+    }
+
+    /**
+     * Devolve fichas consumidas por um pedido que acabou recusado por outro limite
+     */
+    public synchronized void refund(int count) {
+        tokens = Math.min(capacity, tokens + count);
+    }
+
+    /** Fichas disponíveis agora */
+    public synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    /** Balde cheio equivale a um balde novo e pode ser descartado */
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerNano);
+        lastRefillNanos = now;
+    }
+}
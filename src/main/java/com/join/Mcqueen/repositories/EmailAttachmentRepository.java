@@ -0,0 +1,39 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.dtos.AttachmentReportDTO;
+import com.join.Mcqueen.domain.models.EmailAttachment;
+import com.join.Mcqueen.domain.models.SendStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório dos anexos registrados na auditoria
+ */
+@Repository
+public interface EmailAttachmentRepository extends JpaRepository<EmailAttachment, Long> {
+
+    /**
+     * Anexos dos envios informados, em ordem de envio e posição (índice de email_audit_id)
+     */
+    @Query("SELECT a FROM EmailAttachment a WHERE a.emailAudit.id IN :auditIds ORDER BY a.emailAudit.id, a.position")
+    List<EmailAttachment> findByAuditIds(@Param("auditIds") Collection<Long> auditIds);
+
+    /**
+     * Totais de anexos por órgão nos envios do período com o status informado,
+     * do órgão com mais bytes para o com menos. Percorre os envios pelo índice
+     * de send_date e os anexos de cada um pelo índice de email_audit_id.
+     */
+    @Query("SELECT new com.join.Mcqueen.domain.dtos.AttachmentReportDTO(e.organizationName, COUNT(DISTINCT e.id), "
+            + "COUNT(a), SUM(a.sizeBytes), SUM(a.storedBytes), SUM(a.rowCount)) "
+            + "FROM EmailAttachment a JOIN a.emailAudit e "
+            + "WHERE e.sendDate >= :startDate AND e.sendDate < :endDate AND e.sendStatus = :status "
+            + "GROUP BY e.organizationName ORDER BY SUM(a.sizeBytes) DESC")
+    List<AttachmentReportDTO> sumByOrganization(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate, @Param("status") SendStatus status);
+}
@@ -1,19 +1,28 @@
 package com.join.Mcqueen.repositories;
 
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
 import com.join.Mcqueen.domain.models.EmailAudit;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Repositório para auditoria de emails
  */
 @Repository
-public interface EmailAuditRepository extends JpaRepository<EmailAudit, Long> {
+public interface EmailAuditRepository extends JpaRepository<EmailAudit, Long>, JpaSpecificationExecutor<EmailAudit>,
+        EmailAuditSummaryRepository {
 
     /**
      * Busca auditorias por período
@@ -21,24 +30,43 @@ public interface EmailAuditRepository extends JpaRepository<EmailAudit, Long> {
     List<EmailAudit> findBySendDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
     /**
-     * Busca auditorias por destinatário
+     * Conta emails enviados por status e código de erro (carga e recarga dos contadores de /stats)
+     */
+    @Query("SELECT e.sendStatus, e.errorCode, COUNT(e) FROM EmailAudit e GROUP BY e.sendStatus, e.errorCode")
+    List<Object[]> countByStatusAndErrorCode();
+
+    /**
+     * Resumo dos emails enviados a partir da data informada, sem as colunas TEXT
      */
-    List<EmailAudit> findByRecipientContainingIgnoreCase(String recipient);
+    @Query("SELECT new com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO(e.id, e.sendDate, e.recipient, "
+            + "e.organizationName, e.sendStatus, e.errorCode) "
+            + "FROM EmailAudit e WHERE e.sendDate >= :limitDate ORDER BY e.sendDate DESC, e.id DESC")
+    List<EmailAuditSummaryDTO> findRecentSummaries(@Param("limitDate") LocalDateTime limitDate);
 
     /**
-     * Busca auditorias por órgão
+     * Histórico completo como stream com cursor do banco, para exportação em memória constante.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
      */
-    List<EmailAudit> findByOrganizationNameContainingIgnoreCase(String organizationName);
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    @Query("SELECT e FROM EmailAudit e WHERE e.sendDate BETWEEN :startDate AND :endDate "
+            + "ORDER BY e.sendDate DESC, e.id DESC")
+    Stream<EmailAudit> streamHistory(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
 
     /**
-     * Conta emails enviados por status
+     * Data do envio mais antigo anterior ao limite (usado pela retenção)
      */
-    @Query("SELECT e.sendStatus, COUNT(e) FROM EmailAudit e GROUP BY e.sendStatus")
-    List<Object[]> countByStatus();
+    @Query("SELECT MIN(e.sendDate) FROM EmailAudit e WHERE e.sendDate < :limitDate")
+    LocalDateTime findOldestSendDateBefore(@Param("limitDate") LocalDateTime limitDate);
 
     /**
-     * Busca emails enviados nas últimas horas
+     * Registros de [startDate, endDate) em ordem cronológica, com cursor do banco,
+     * para exportação e arquivamento. Deve ser consumido dentro de uma transação e
+     * fechado ao final.
      */
-    @Query("SELECT e FROM EmailAudit e WHERE e.sendDate >= :limitDate ORDER BY e.sendDate DESC")
-    List<EmailAudit> findRecentEmails(@Param("limitDate") LocalDateTime limitDate);
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true") })
+    @Query("SELECT e FROM EmailAudit e WHERE e.sendDate >= :startDate AND e.sendDate < :endDate "
+            + "ORDER BY e.sendDate, e.id")
+    Stream<EmailAudit> streamChronological(@Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
 }
\ No newline at end of file
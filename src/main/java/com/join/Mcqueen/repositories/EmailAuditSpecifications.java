@@ -0,0 +1,93 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.models.EmailAttachment;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Predicados da busca na auditoria. As buscas textuais são por prefixo sobre as
+ * colunas normalizadas, para que o banco use os índices em vez de varrer a tabela.
+ */
+public final class EmailAuditSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private EmailAuditSpecifications() {
+    }
+
+    public static Specification<EmailAudit> sentBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return (root, query, cb) -> cb.between(root.get("sendDate"), startDate, endDate);
+    }
+
+    public static Specification<EmailAudit> recipientStartsWith(String prefix) {
+        return startsWith("recipientNormalized", EmailAudit.normalize(prefix));
+    }
+
+    public static Specification<EmailAudit> organizationStartsWith(String prefix) {
+        return startsWith("organizationNormalized", EmailAudit.normalize(prefix));
+    }
+
+    /**
+     * Envios com o anexo de hash informado (índice de email_attachment.content_hash)
+     */
+    public static Specification<EmailAudit> hasFileHash(String sha256) {
+        return hasAttachment("contentHash", sha256.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Envios com um anexo de nome exatamente igual ao informado (índice de email_attachment.file_name)
+     */
+    public static Specification<EmailAudit> hasFileName(String fileName) {
+        return hasAttachment("fileName", fileName.trim());
+    }
+
+    public static Specification<EmailAudit> hasStatus(SendStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("sendStatus"), status);
+    }
+
+    /**
+     * Continua a partir da chave (send_date, id) do último item da página anterior
+     */
+    public static Specification<EmailAudit> before(LocalDateTime sendDate, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("sendDate"), sendDate),
+                cb.and(cb.equal(root.get("sendDate"), sendDate), cb.lessThan(root.get("id"), id)));
+    }
+
+    /**
+     * id IN (subconsulta não correlacionada): a busca parte do índice de
+     * email_attachment e só então lê os envios encontrados, em vez de testar cada
+     * envio com um EXISTS
+     */
+    private static Specification<EmailAudit> hasAttachment(String attribute, String value) {
+        return (root, query, cb) -> {
+            Subquery<Long> audits = query.subquery(Long.class);
+            Root<EmailAttachment> attachment = audits.from(EmailAttachment.class);
+            audits.select(attachment.get("emailAudit").get("id"))
+                    .where(cb.equal(attachment.get(attribute), value));
+            return root.get("id").in(audits);
+        };
+    }
+
+    private static Specification<EmailAudit> startsWith(String attribute, String prefix) {
+        return (root, query, cb) -> cb.like(root.get(attribute), escapeLike(prefix) + "%", ESCAPE);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Consultas da auditoria que retornam apenas o resumo de cada registro
+ */
+public interface EmailAuditSummaryRepository {
+
+    /**
+     * Resumos dos registros que atendem ao filtro, na ordem e no limite informados
+     */
+    List<EmailAuditSummaryDTO> findSummaries(Specification<EmailAudit> spec, Sort sort, int limit);
+}
@@ -0,0 +1,40 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Implementação com Criteria: os mesmos predicados das Specifications, mas com
+ * SELECT apenas das colunas do resumo
+ */
+@RequiredArgsConstructor
+class EmailAuditSummaryRepositoryImpl implements EmailAuditSummaryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<EmailAuditSummaryDTO> findSummaries(Specification<EmailAudit> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EmailAuditSummaryDTO> query = cb.createQuery(EmailAuditSummaryDTO.class);
+        Root<EmailAudit> root = query.from(EmailAudit.class);
+        query.select(cb.construct(EmailAuditSummaryDTO.class,
+                root.get("id"), root.get("sendDate"), root.get("recipient"), root.get("organizationName"),
+                root.get("sendStatus"), root.get("errorCode")));
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
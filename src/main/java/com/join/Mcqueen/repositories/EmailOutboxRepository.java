@@ -0,0 +1,97 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.models.EmailOutbox;
+import com.join.Mcqueen.domain.models.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório da outbox de envios assíncronos
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, String> {
+
+    /**
+     * Ids de jobs que podem ser reivindicados, mais antigos primeiro: pendentes
+     * prontos e em processamento com o lease vencido (ou sem lease, de antes da V9)
+     */
+    @Query("SELECT o.id FROM EmailOutbox o WHERE (o.status = :pending AND o.nextAttemptAt <= :now) "
+            + "OR (o.status = :processing AND (o.leaseUntil IS NULL OR o.leaseUntil < :now)) ORDER BY o.createdAt")
+    List<String> findClaimableIds(@Param("pending") OutboxStatus pending,
+            @Param("processing") OutboxStatus processing, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Reivindica, dentre os ids informados, os que ainda estão disponíveis, marcando-os
+     * com o token desta reivindicação. Cada linha é atualizada por uma única
+     * instância; as que outra reivindicou antes deixam de atender à condição.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = :processing, o.lockedBy = :owner, o.claimToken = :token, "
+            + "o.leaseUntil = :leaseUntil, o.updatedAt = :now, o.version = o.version + 1 "
+            + "WHERE o.id IN :ids AND ((o.status = :pending AND o.nextAttemptAt <= :now) "
+            + "OR (o.status = :processing AND (o.leaseUntil IS NULL OR o.leaseUntil < :now)))")
+    int claim(@Param("ids") Collection<String> ids, @Param("owner") String owner, @Param("token") String token,
+            @Param("leaseUntil") LocalDateTime leaseUntil, @Param("pending") OutboxStatus pending,
+            @Param("processing") OutboxStatus processing, @Param("now") LocalDateTime now);
+
+    /**
+     * Dentre os ids informados, os que a reivindicação com este token pegou e que
+     * continuam em processamento
+     */
+    @Query("SELECT o.id FROM EmailOutbox o WHERE o.id IN :ids AND o.claimToken = :token AND o.status = :processing")
+    List<String> findClaimedIds(@Param("ids") Collection<String> ids, @Param("token") String token,
+            @Param("processing") OutboxStatus processing);
+
+    /**
+     * Heartbeat: estende o lease de todos os jobs em processamento por esta instância
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.leaseUntil = :leaseUntil WHERE o.lockedBy = :owner AND o.status = :processing")
+    int extendLeases(@Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("processing") OutboxStatus processing);
+
+    /**
+     * Renova o lease de um job somente se ele ainda pertence a esta instância e o
+     * lease não venceu. Retorna 0 quando o job pode ter sido assumido por outra
+     * instância; não altera a versão, para não invalidar a entidade já carregada.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.leaseUntil = :leaseUntil WHERE o.id = :id AND o.lockedBy = :owner "
+            + "AND o.status = :processing AND o.leaseUntil > :now")
+    int renewLease(@Param("id") String id, @Param("owner") String owner,
+            @Param("leaseUntil") LocalDateTime leaseUntil, @Param("processing") OutboxStatus processing,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Devolve para a fila, sem contar tentativa, um job em processamento por esta instância
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = :pending, o.leaseUntil = NULL, o.updatedAt = :now, "
+            + "o.version = o.version + 1 WHERE o.id = :id AND o.lockedBy = :owner AND o.status = :processing")
+    int release(@Param("id") String id, @Param("owner") String owner, @Param("pending") OutboxStatus pending,
+            @Param("processing") OutboxStatus processing, @Param("now") LocalDateTime now);
+
+    /**
+     * Devolve para a fila todos os jobs em processamento pela instância (ex.: jobs
+     * interrompidos por uma parada anterior com o mesmo instance-id)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.status = :pending, o.leaseUntil = NULL, o.updatedAt = :now, "
+            + "o.version = o.version + 1 WHERE o.lockedBy = :owner AND o.status = :processing")
+    int releaseAll(@Param("owner") String owner, @Param("pending") OutboxStatus pending,
+            @Param("processing") OutboxStatus processing, @Param("now") LocalDateTime now);
+}
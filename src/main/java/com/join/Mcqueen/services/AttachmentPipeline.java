@@ -0,0 +1,300 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.PreparedAttachment;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.storage.AttachmentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Pipeline opcional de anexos: os arquivos acima do limite configurado são
+ * comprimidos (gzip ou zip) e pré-codificados em base64, em paralelo e em um
+ * pool dedicado, antes da montagem da MimeMessage. Os arquivos menores seguem
+ * pelo caminho de streaming, onde o JavaMail escolhe a codificação (7bit para
+ * CSV ASCII, sem o acréscimo de 33% do base64).
+ * <p>
+ * Com o repositório de anexos habilitado, todo anexo é pré-codificado uma única
+ * vez por conteúdo (SHA-256) e reaproveitado nos reenvios.
+ */
+@Slf4j
+@Component
+public class AttachmentPipeline {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ThreadPoolTaskExecutor attachmentEncodingExecutor;
+    private final AttachmentStore attachmentStore;
+
+    @Value("${app.email.attachments.compression.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.email.attachments.compression.threshold-bytes:1048576}")
+    private long thresholdBytes;
+
+    @Value("${app.email.attachments.compression.format:gzip}")
+    private String format;
+
+    @Value("${app.email.attachments.work-dir:${java.io.tmpdir}/mcqueen-attachments}")
+    private String workDir;
+
+    public AttachmentPipeline(
+            @Qualifier("attachmentEncodingExecutor") ThreadPoolTaskExecutor attachmentEncodingExecutor,
+            AttachmentStore attachmentStore) {
+        this.attachmentEncodingExecutor = attachmentEncodingExecutor;
+        this.attachmentStore = attachmentStore;
+    }
+
+    /**
+     * Compressão ou repositório de anexos habilitados
+     */
+    public boolean isEnabled() {
+        return enabled || attachmentStore.isEnabled();
+    }
+
+    /**
+     * Processa todos os arquivos em paralelo; em caso de falha os temporários já gerados são removidos
+     *
+     * @param hashes SHA-256 de cada arquivo, na mesma ordem (entradas nulas não usam o repositório)
+     */
+    public List<PreparedAttachment> prepare(List<MultipartFile> files, List<String> hashes) {
+        List<CompletableFuture<PreparedAttachment>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String hash = hashes.get(i);
+            boolean compress = enabled && file.getSize() > thresholdBytes;
+            if (compress || isStored(hash)) {
+                futures.add(CompletableFuture.supplyAsync(() -> encode(file, compress, hash),
+                        attachmentEncodingExecutor));
+            } else {
+                futures.add(CompletableFuture.completedFuture(passthrough(file)));
+            }
+        }
+        return collect(futures);
+    }
+
+    /**
+     * Pré-codifica todos os arquivos em base64, para anexos reutilizados em várias
+     * mensagens: a codificação é feita uma única vez e cada MimeMessage apenas
+     * copia o conteúdo do disco. Com o pipeline habilitado, os arquivos acima do
+     * limite também são comprimidos.
+     */
+    public List<PreparedAttachment> prepareEncoded(List<MultipartFile> files, List<String> hashes) {
+        List<CompletableFuture<PreparedAttachment>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String hash = hashes.get(i);
+            boolean compress = enabled && file.getSize() > thresholdBytes;
+            futures.add(CompletableFuture.supplyAsync(() -> encode(file, compress, hash),
+                    attachmentEncodingExecutor));
+        }
+        return collect(futures);
+    }
+
+    private List<PreparedAttachment> collect(List<CompletableFuture<PreparedAttachment>> futures) {
+        List<PreparedAttachment> prepared = new ArrayList<>(futures.size());
+        RuntimeException firstError = null;
+        for (CompletableFuture<PreparedAttachment> future : futures) {
+            try {
+                prepared.add(future.join());
+            } catch (CompletionException e) {
+                if (firstError == null) {
+                    firstError = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+                }
+            }
+        }
+
+        if (firstError != null) {
+            release(prepared);
+            throw firstError;
+        }
+        return prepared;
+    }
+
+    /**
+     * Remove os arquivos temporários gerados pelo pipeline e devolve as referências ao repositório
+     */
+    public void release(List<PreparedAttachment> prepared) {
+        if (prepared == null) {
+            return;
+        }
+        for (PreparedAttachment attachment : prepared) {
+            if (attachment.getStoreEntry() != null) {
+                attachmentStore.release(attachment.getStoreEntry());
+            } else {
+                deleteQuietly(attachment.getEncodedFile());
+            }
+        }
+    }
+
+    private boolean isStored(String hash) {
+        return hash != null && attachmentStore.isEnabled();
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover temporário {}: {}", path, e.getMessage());
+        }
+    }
+
+    private PreparedAttachment passthrough(MultipartFile file) {
+        return PreparedAttachment.builder()
+                .originalFileName(file.getOriginalFilename())
+                .fileName(file.getOriginalFilename())
+                .compressed(false)
+                .originalBytes(file.getSize())
+                .storedBytes(file.getSize())
+                .source(file)
+                .build();
+    }
+
+    private PreparedAttachment encode(MultipartFile file, boolean compress, String hash) {
+        String originalName = file.getOriginalFilename();
+        boolean zip = compress && "zip".equalsIgnoreCase(format);
+        Path encoded = null;
+
+        try {
+            if (isStored(hash)) {
+                String variant = !compress ? "raw" : zip ? zipVariant(originalName) : "gz";
+                AttachmentStore.Entry entry = attachmentStore.acquire(hash, variant,
+                        target -> writeEncoded(file, compress, zip, target));
+                long storedBytes = compress ? AttachmentStore.decodedLength(entry.path()) : file.getSize();
+                log.debug("Anexo {} ({}) {} no repositório", originalName, hash,
+                        entry.hit() ? "reaproveitado" : "gravado");
+                return attachment(file, compress, zip, entry.path(), storedBytes, hash, entry);
+            }
+
+            Path dir = Files.createDirectories(Paths.get(workDir));
+            encoded = Files.createTempFile(dir, "att-", ".b64");
+            long storedBytes = writeEncoded(file, compress, zip, encoded);
+            return attachment(file, compress, zip, encoded, storedBytes, hash, null);
+
+        } catch (IOException e) {
+            deleteQuietly(encoded);
+            throw new FileProcessingException("Erro ao processar anexo " + originalName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Grava o conteúdo em base64 (comprimido, se pedido) e retorna os bytes antes da codificação
+     */
+    private long writeEncoded(MultipartFile file, boolean compress, boolean zip, Path target) throws IOException {
+        String originalName = file.getOriginalFilename();
+        CountingOutputStream counter;
+        try (InputStream in = file.getInputStream();
+                OutputStream base64 = Base64.getMimeEncoder()
+                        .wrap(new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE))) {
+            counter = new CountingOutputStream(base64);
+            if (!compress) {
+                in.transferTo(counter);
+            } else if (zip) {
+                try (ZipOutputStream out = new ZipOutputStream(counter)) {
+                    out.putNextEntry(new ZipEntry(originalName));
+                    in.transferTo(out);
+                    out.closeEntry();
+                }
+            } else {
+                try (GZIPOutputStream out = new GZIPOutputStream(counter, BUFFER_SIZE)) {
+                    in.transferTo(out);
+                }
+            }
+        }
+        if (compress) {
+            log.debug("Anexo {} comprimido de {} para {} bytes", originalName, file.getSize(), counter.count);
+        }
+        return counter.count;
+    }
+
+    private static PreparedAttachment attachment(MultipartFile file, boolean compress, boolean zip, Path encoded,
+            long storedBytes, String hash, AttachmentStore.Entry storeEntry) {
+        String originalName = file.getOriginalFilename();
+        return PreparedAttachment.builder()
+                .originalFileName(originalName)
+                .fileName(!compress ? originalName : zip ? baseName(originalName) + ".zip" : originalName + ".gz")
+                .contentType(!compress ? null : zip ? "application/zip" : "application/gzip")
+                .compressed(compress)
+                .originalBytes(file.getSize())
+                .storedBytes(storedBytes)
+                .encodedFile(encoded)
+                .contentHash(hash)
+                .storeEntry(storeEntry)
+                .build();
+    }
+
+    /**
+     * Variante zip no repositório: o zip leva o nome do arquivo na entrada, então o
+     * mesmo conteúdo reenviado com outro nome precisa de outra variante
+     */
+    private static String zipVariant(String entryName) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(entryName).getBytes(StandardCharsets.UTF_8));
+            return "zip-" + HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Conta os bytes que passam para a codificação base64 sem fechar o stream de destino
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.EmailAttachment;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.repositories.EmailAttachmentRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Completa os registros lidos em streaming com os seus anexos. Os registros são
+ * consumidos em blocos de CHUNK_SIZE e os anexos de cada bloco vêm de uma única
+ * consulta pelo índice de email_audit_id, em vez de uma consulta por registro.
+ * Registros e anexos são desanexados do contexto de persistência antes de serem
+ * entregues, para que a memória não cresça com o tamanho da leitura.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditAttachmentLoader {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final EmailAttachmentRepository emailAttachmentRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Os mesmos registros, na mesma ordem, já desanexados e com os anexos preenchidos
+     */
+    public Iterator<EmailAudit> withAttachments(Iterator<EmailAudit> rows) {
+        return new Iterator<>() {
+            private Iterator<EmailAudit> chunk = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                if (!chunk.hasNext() && rows.hasNext()) {
+                    chunk = nextChunk(rows);
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public EmailAudit next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    private Iterator<EmailAudit> nextChunk(Iterator<EmailAudit> rows) {
+        List<EmailAudit> audits = new ArrayList<>(CHUNK_SIZE);
+        List<Long> ids = new ArrayList<>(CHUNK_SIZE);
+        while (audits.size() < CHUNK_SIZE && rows.hasNext()) {
+            EmailAudit audit = rows.next();
+            audits.add(audit);
+            ids.add(audit.getId());
+        }
+
+        Map<Long, List<EmailAttachment>> byAudit = new HashMap<>();
+        for (EmailAttachment attachment : emailAttachmentRepository.findByAuditIds(ids)) {
+            byAudit.computeIfAbsent(attachment.getEmailAudit().getId(), id -> new ArrayList<>()).add(attachment);
+            entityManager.detach(attachment);
+        }
+        for (EmailAudit audit : audits) {
+            entityManager.detach(audit);
+            audit.setAttachments(byAudit.getOrDefault(audit.getId(), List.of()));
+        }
+        return audits.iterator();
+    }
+}
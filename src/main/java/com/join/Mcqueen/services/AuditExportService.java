@@ -0,0 +1,230 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa da auditoria para conformidade, com os anexos de cada
+ * envio. Os registros são lidos do cursor do banco em ordem cronológica e
+ * escritos direto na saída, em blocos cujos anexos são carregados de uma vez e
+ * liberados após a escrita; o consumo de memória não depende do tamanho do período.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditExportService {
+
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final int FLUSH_EVERY = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Colunas do CSV, na ordem de saída */
+    private static final List<Column> CSV_COLUMNS = List.of(
+            new Column("id", EmailAudit::getId),
+            new Column("send_date", EmailAudit::getSendDate),
+            new Column("send_status", EmailAudit::getSendStatus),
+            new Column("error_code", EmailAudit::getErrorCode),
+            new Column("attempt_count", EmailAudit::getAttemptCount),
+            new Column("recipient", EmailAudit::getRecipient),
+            new Column("organization_name", EmailAudit::getOrganizationName),
+            new Column("responsible_contact", EmailAudit::getResponsibleContact),
+            new Column("subject", EmailAudit::getSubject),
+            new Column("reference_period", EmailAudit::getReferencePeriod),
+            new Column("email_subject", EmailAudit::getEmailSubject),
+            new Column("lgpd_compliance", EmailAudit::getLgpdCompliance),
+            new Column("file_count", EmailAudit::getFileCount),
+            new Column("file_names", EmailAudit::getFileNames),
+            new Column("file_hashes", EmailAudit::getFileHashes),
+            new Column("original_bytes", EmailAudit::getOriginalBytes),
+            new Column("compressed_bytes", EmailAudit::getCompressedBytes),
+            new Column("error_detail", EmailAudit::getErrorDetail),
+            new Column("data_description", EmailAudit::getDataDescription));
+
+    /** Última coluna do CSV: os anexos do envio como um array JSON */
+    private static final String ATTACHMENTS_COLUMN = "attachments";
+
+    private final EmailAuditRepository emailAuditRepository;
+    private final AuditAttachmentLoader auditAttachmentLoader;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Formato da exportação
+     */
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportação inválido: " + value + " (use csv ou ndjson)");
+            }
+        }
+    }
+
+    /**
+     * Escreve os registros de [startDate, endDate) na saída, do mais antigo para
+     * o mais recente
+     *
+     * @return quantidade de registros exportados
+     */
+    public long export(Format format, LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+        LocalDateTime start = startDate != null ? startDate : MIN_DATE;
+        LocalDateTime end = endDate != null ? endDate : MAX_DATE;
+        long started = System.nanoTime();
+
+        // O Stream do Spring Data exige transação aberta durante toda a leitura
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Long count = transaction.execute(status -> {
+            try (Stream<EmailAudit> rows = emailAuditRepository.streamChronological(start, end)) {
+                Iterator<EmailAudit> audits = auditAttachmentLoader.withAttachments(rows.iterator());
+                return format == Format.CSV ? writeCsv(audits, outputStream) : writeNdjson(audits, outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Auditoria exportada em {}: {} registros de {} a {} ({} ms)", format, count, start, end,
+                (System.nanoTime() - started) / 1_000_000);
+        return count != null ? count : 0;
+    }
+
+    private long writeCsv(Iterator<EmailAudit> rows, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(CSV_COLUMNS.get(i).name());
+        }
+        writer.write("," + ATTACHMENTS_COLUMN + "\r\n");
+
+        long count = 0;
+        while (rows.hasNext()) {
+            EmailAudit audit = rows.next();
+            for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, CSV_COLUMNS.get(i).value().apply(audit));
+            }
+            writer.write(',');
+            writeCsvValue(writer, attachmentsJson(audit));
+            writer.write("\r\n");
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<EmailAudit> rows, OutputStream outputStream) throws IOException {
+        long count = 0;
+        // Sem fechar a saída: quem chama ainda pode precisar concluir o gzip
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(outputStream)) {
+            while (rows.hasNext()) {
+                EmailAudit audit = rows.next();
+                writer.write(audit);
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            if (count > 0) {
+                outputStream.write('\n');
+            }
+        }
+        return count;
+    }
+
+    private String attachmentsJson(EmailAudit audit) throws JsonProcessingException {
+        return audit.getAttachments() == null || audit.getAttachments().isEmpty() ? null
+                : objectMapper.writeValueAsString(audit.getAttachments());
+    }
+
+    /**
+     * Valor entre aspas (RFC 4180) quando contém separador, aspas ou quebra de
+     * linha. Textos que uma planilha interpretaria como fórmula (iniciados por =,
+     * +, -, @, tabulação ou CR) recebem um apóstrofo na frente e vão entre aspas,
+     * para que o conteúdo enviado pelos usuários não seja executado ao abrir o
+     * arquivo.
+     */
+    static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean formula = !(value instanceof Number) && isFormula(text);
+        boolean quote = formula;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isFormula(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    private record Column(String name, Function<EmailAudit, Object> value) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retenção da auditoria. A tabela email_audit guarda apenas os últimos
+ * retention.months meses (o mês corrente incluído); os meses anteriores são
+ * movidos, um mês por vez, para arquivos NDJSON compactados com gzip
+ * (archive-dir/email_audit-AAAA-MM-&lt;primeiro id&gt;.ndjson.gz, mesmo formato de
+ * /history/stream, com os anexos de cada envio, que saem da tabela junto com o
+ * registro). Assim a tabela e seus índices param de crescer com o histórico, e
+ * o tempo das consultas não aumenta com o passar dos meses.
+ * <p>
+ * O arquivo de um mês é gravado por completo e sincronizado no disco antes de
+ * os registros serem removidos, e a remoção do mês inteiro acontece em uma única
+ * transação (em comandos DELETE de até delete-batch-size ids). Se o processo cair
+ * antes do commit, nenhum registro do mês sai da tabela: a próxima execução
+ * encontra o mesmo primeiro id, regrava o mesmo arquivo e conclui a remoção, sem
+ * gerar um segundo arquivo com registros repetidos.
+ */
+@Slf4j
+@Service
+public class AuditRetentionService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final EmailAuditRepository emailAuditRepository;
+    private final AuditAttachmentLoader auditAttachmentLoader;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final EmailStatsService emailStatsService;
+
+    @Value("${app.audit.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.audit.retention.months:6}")
+    private int retentionMonths;
+
+    @Value("${app.audit.retention.archive-dir:${java.io.tmpdir}/mcqueen-archive}")
+    private String archiveDir;
+
+    @Value("${app.audit.retention.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    private Counter archivedRows;
+
+    public AuditRetentionService(EmailAuditRepository emailAuditRepository, AuditAttachmentLoader auditAttachmentLoader,
+            PlatformTransactionManager transactionManager, ObjectMapper objectMapper, DataSource dataSource,
+            MeterRegistry meterRegistry, EmailStatsService emailStatsService) {
+        this.emailAuditRepository = emailAuditRepository;
+        this.auditAttachmentLoader = auditAttachmentLoader;
+        this.transactionManager = transactionManager;
+        this.objectMapper = objectMapper;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.emailStatsService = emailStatsService;
+    }
+
+    @PostConstruct
+    void init() {
+        if (retentionMonths < 1) {
+            throw new IllegalStateException("app.audit.retention.months deve ser pelo menos 1");
+        }
+        archivedRows = Counter.builder("mcqueen.audit.archived")
+                .description("Registros de auditoria movidos para os arquivos de retenção")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Retenção da auditoria: {} meses na tabela, arquivos em {}", retentionMonths, archiveDir);
+        }
+    }
+
+    @Scheduled(cron = "${app.audit.retention.cron:0 30 3 * * *}")
+    void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveExpired(YearMonth.now());
+        } catch (RuntimeException e) {
+            log.error("Falha na retenção da auditoria: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Arquiva e remove da tabela os meses anteriores à janela de retenção
+     *
+     * @param currentMonth mês corrente, primeiro mês da janela
+     * @return arquivos gravados, do mês mais antigo para o mais recente
+     */
+    public List<Path> archiveExpired(YearMonth currentMonth) {
+        LocalDateTime limit = currentMonth.minusMonths(retentionMonths - 1L).atDay(1).atStartOfDay();
+        List<Path> archives = new ArrayList<>();
+        LocalDateTime oldest;
+        while ((oldest = emailAuditRepository.findOldestSendDateBefore(limit)) != null) {
+            archives.add(archiveMonth(YearMonth.from(oldest)));
+        }
+        if (!archives.isEmpty()) {
+            checkpoint();
+            // Os contadores de /stats incluem os registros removidos até serem recarregados
+            emailStatsService.refresh();
+        }
+        return archives;
+    }
+
+    /**
+     * Grava o mês em um arquivo e remove os registros arquivados da tabela
+     */
+    private Path archiveMonth(YearMonth month) {
+        long started = System.nanoTime();
+        Path directory = Paths.get(archiveDir);
+        List<Long> ids = new ArrayList<>();
+        Path temp;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "email_audit-" + month, ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o arquivo de retenção em " + directory, e);
+        }
+
+        try {
+            writeMonth(month, temp, ids);
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("Nenhum registro de " + month + " encontrado para arquivar");
+            }
+            Path target = directory.resolve("email_audit-" + month + "-" + ids.get(0) + ".ndjson.gz");
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            // Tudo ou nada: uma remoção parcial mudaria o primeiro id e o nome do próximo arquivo
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += deleteBatchSize) {
+                    emailAuditRepository.deleteAllByIdInBatch(
+                            ids.subList(from, Math.min(ids.size(), from + deleteBatchSize)));
+                }
+            });
+            archivedRows.increment(ids.size());
+            log.info("Auditoria de {} arquivada: {} registros em {} ({} ms)", month, ids.size(), target,
+                    (System.nanoTime() - started) / 1_000_000);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o arquivo de retenção de " + month, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o arquivo temporário {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Escreve os registros do mês como NDJSON compactado e sincroniza o arquivo
+     * no disco, acumulando os ids escritos
+     */
+    private void writeMonth(YearMonth month, Path file, List<Long> ids) throws IOException {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<EmailAudit> rows = emailAuditRepository.streamChronological(start, end);
+                    OutputStream output = new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024);
+                    SequenceWriter writer = objectMapper.writer()
+                            .withRootValueSeparator("\n")
+                            .writeValues(output)) {
+                Iterator<EmailAudit> iterator = auditAttachmentLoader.withAttachments(rows.iterator());
+                while (iterator.hasNext()) {
+                    EmailAudit audit = iterator.next();
+                    writer.write(audit);
+                    ids.add(audit.getId());
+                    if (ids.size() % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                output.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * No H2, grava as alterações no arquivo (CHECKPOINT SYNC); o MVStore então
+     * compacta em segundo plano os blocos esvaziados pela remoção, conforme
+     * AUTO_COMPACT_FILL_RATE da URL
+     */
+    private void checkpoint() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"H2".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT SYNC");
+            }
+        } catch (SQLException e) {
+            log.warn("Não foi possível executar o checkpoint após a retenção: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Verificador estrutural de CSV em passagem única e memória limitada.
+ * Detecta codificação e delimitador, confere se todos os registros têm o mesmo
+ * número de colunas e interrompe no primeiro erro. Nenhum campo é armazenado:
+ * apenas contadores e o estado do autômato.
+ */
+public final class CsvStructureScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_LIMIT = 64 * 1024;
+    private static final char[] DELIMITERS = { ',', ';', '\t', '|' };
+
+    private enum State {
+        FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED
+    }
+
+    private final String fileName;
+    private char delimiter;
+    private State state = State.FIELD_START;
+    private boolean skipLf;
+    private boolean recordEmpty = true;
+    private int fields;
+    private int expectedColumns = -1;
+    private long records;
+    private long line = 1;
+    private long recordLine = 1;
+
+    // Validação incremental de UTF-8 sobre os bytes lidos
+    private boolean utf8Valid = true;
+    private boolean asciiOnly = true;
+    private int utf8Pending;
+
+    private CsvStructureScanner(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Lê o arquivo uma única vez e retorna suas estatísticas, ou lança
+     * FileProcessingException no primeiro erro estrutural encontrado
+     */
+    public static CsvFileStatsDTO scan(String fileName, InputStream input, long sizeBytes, BooleanSupplier cancelled)
+            throws IOException {
+        CsvStructureScanner scanner = new CsvStructureScanner(fileName);
+        String encoding;
+
+        try (BufferedInputStream in = new BufferedInputStream(input, BUFFER_SIZE)) {
+            Charset utf16 = detectUtf16Bom(in);
+            if (utf16 != null) {
+                encoding = utf16.name();
+                scanner.scanChars(new InputStreamReader(in, utf16), cancelled);
+            } else {
+                boolean utf8Bom = skipUtf8Bom(in);
+                scanner.scanBytes(in, cancelled);
+                if (scanner.utf8Valid && scanner.utf8Pending == 0) {
+                    encoding = utf8Bom ? "UTF-8 (BOM)" : scanner.asciiOnly ? "US-ASCII" : "UTF-8";
+                } else {
+                    encoding = "windows-1252";
+                }
+            }
+        }
+
+        return CsvFileStatsDTO.builder()
+                .fileName(fileName)
+                .encoding(encoding)
+                .delimiter(scanner.delimiter == '\t' ? "\\t" : String.valueOf(scanner.delimiter))
+                .rowCount(scanner.records)
+                .columnCount(Math.max(scanner.expectedColumns, 0))
+                .sizeBytes(sizeBytes)
+                .build();
+    }
+
+    private void scanBytes(BufferedInputStream in, BooleanSupplier cancelled) throws IOException {
+        in.mark(SNIFF_LIMIT);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int sniffed = in.readNBytes(buffer, 0, SNIFF_LIMIT);
+        // Os caracteres estruturais são ASCII e nunca aparecem dentro de sequências multibyte UTF-8
+        delimiter = sniffDelimiter(new String(buffer, 0, sniffed, StandardCharsets.ISO_8859_1));
+        in.reset();
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            checkCancelled(cancelled);
+            for (int i = 0; i < read; i++) {
+                int b = buffer[i] & 0xFF;
+                if (utf8Valid && b >= 0x80) {
+                    checkUtf8(b);
+                } else if (utf8Pending > 0) {
+                    utf8Valid = false;
+                }
+                consume((char) b);
+            }
+        }
+        finish();
+    }
+
+    private void scanChars(Reader reader, BooleanSupplier cancelled) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE / 2];
+        int read = reader.read(buffer);
+        if (read == -1) {
+            delimiter = ',';
+            finish();
+            return;
+        }
+        delimiter = sniffDelimiter(new String(buffer, 0, read));
+        do {
+            checkCancelled(cancelled);
+            for (int i = 0; i < read; i++) {
+                consume(buffer[i]);
+            }
+        } while ((read = reader.read(buffer)) != -1);
+        finish();
+    }
+
+    private void consume(char c) {
+        if (skipLf) {
+            skipLf = false;
+            if (c == '\n') {
+                return;
+            }
+        }
+
+        switch (state) {
+            case FIELD_START -> {
+                if (c == '"') {
+                    state = State.QUOTED;
+                    recordEmpty = false;
+                } else if (c == delimiter) {
+                    fields++;
+                    recordEmpty = false;
+                } else if (c == '\n' || c == '\r') {
+                    endRecord(c);
+                } else {
+                    state = State.UNQUOTED;
+                    recordEmpty = false;
+                }
+            }
+            case UNQUOTED -> {
+                if (c == delimiter) {
+                    fields++;
+                    state = State.FIELD_START;
+                } else if (c == '\n' || c == '\r') {
+                    endRecord(c);
+                }
+            }
+            case QUOTED -> {
+                if (c == '"') {
+                    state = State.QUOTE_IN_QUOTED;
+                } else if (c == '\n') {
+                    line++;
+                }
+            }
+            case QUOTE_IN_QUOTED -> {
+                if (c == '"') {
+                    state = State.QUOTED;
+                } else if (c == delimiter) {
+                    fields++;
+                    state = State.FIELD_START;
+                } else if (c == '\n' || c == '\r') {
+                    endRecord(c);
+                } else {
+                    throw error(line, "caractere inesperado após aspas de fechamento");
+                }
+            }
+        }
+    }
+
+    private void endRecord(char terminator) {
+        if (!recordEmpty) {
+            int columns = fields + 1;
+            if (expectedColumns < 0) {
+                expectedColumns = columns;
+            } else if (columns != expectedColumns) {
+                throw error(recordLine, "esperadas " + expectedColumns + " colunas, encontradas " + columns);
+            }
+            records++;
+        }
+        fields = 0;
+        recordEmpty = true;
+        state = State.FIELD_START;
+        skipLf = terminator == '\r';
+        line++;
+        recordLine = line;
+    }
+
+    private void finish() {
+        if (state == State.QUOTED) {
+            throw error(recordLine, "campo entre aspas não foi fechado");
+        }
+        if (!recordEmpty || state == State.QUOTE_IN_QUOTED) {
+            endRecord('\n');
+        }
+        if (records == 0) {
+            throw new FileProcessingException("Arquivo " + fileName + " não contém registros CSV");
+        }
+    }
+
+    private void checkUtf8(int b) {
+        asciiOnly = false;
+        if (utf8Pending > 0) {
+            if ((b & 0xC0) == 0x80) {
+                utf8Pending--;
+            } else {
+                utf8Valid = false;
+            }
+        } else if (b >= 0xC2 && b <= 0xDF) {
+            utf8Pending = 1;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            utf8Pending = 2;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            utf8Pending = 3;
+        } else {
+            utf8Valid = false;
+        }
+    }
+
+    private FileProcessingException error(long atLine, String reason) {
+        return new FileProcessingException(
+                "Arquivo " + fileName + " não é um CSV válido (linha " + atLine + "): " + reason);
+    }
+
+    private static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("Validação cancelada");
+        }
+    }
+
+    /**
+     * Escolhe o delimitador mais frequente fora de aspas no primeiro registro
+     */
+    static char sniffDelimiter(String sample) {
+        int[] counts = new int[DELIMITERS.length];
+        boolean quoted = false;
+        for (int i = 0; i < sample.length(); i++) {
+            char c = sample.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '\n' || c == '\r')) {
+                break;
+            } else if (!quoted) {
+                for (int d = 0; d < DELIMITERS.length; d++) {
+                    if (c == DELIMITERS[d]) {
+                        counts[d]++;
+                    }
+                }
+            }
+        }
+
+        int best = 0;
+        for (int d = 1; d < DELIMITERS.length; d++) {
+            if (counts[d] > counts[best]) {
+                best = d;
+            }
+        }
+        return DELIMITERS[best];
+    }
+
+    private static Charset detectUtf16Bom(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        if (first == 0xFF && second == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (first == 0xFE && second == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        in.reset();
+        return null;
+    }
+
+    private static boolean skipUtf8Bom(BufferedInputStream in) throws IOException {
+        in.mark(3);
+        if (in.read() == 0xEF && in.read() == 0xBB && in.read() == 0xBF) {
+            return true;
+        }
+        in.reset();
+        return false;
+    }
+}
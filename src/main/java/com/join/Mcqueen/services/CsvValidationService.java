@@ -0,0 +1,105 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Serviço de validação estrutural dos CSVs. Cada arquivo é lido uma única vez
+ * do spool do upload, e múltiplos arquivos são verificados em paralelo. O hash
+ * SHA-256 do conteúdo é calculado na mesma leitura.
+ */
+@Slf4j
+@Service
+public class CsvValidationService {
+
+    private final ThreadPoolTaskExecutor csvValidationExecutor;
+
+    public CsvValidationService(@Qualifier("csvValidationExecutor") ThreadPoolTaskExecutor csvValidationExecutor) {
+        this.csvValidationExecutor = csvValidationExecutor;
+    }
+
+    /**
+     * Verifica a estrutura de todos os arquivos e retorna as estatísticas na
+     * mesma ordem; o primeiro erro encontrado cancela as demais verificações
+     */
+    public List<CsvFileStatsDTO> scan(List<MultipartFile> files) {
+        if (files.size() == 1) {
+            return List.of(scanFile(files.get(0), () -> false));
+        }
+
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<CsvFileStatsDTO>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return scanFile(file, failed::get);
+                } catch (RuntimeException e) {
+                    if (!(e instanceof CancellationException)) {
+                        failed.set(true);
+                    }
+                    throw e;
+                }
+            }, csvValidationExecutor));
+        }
+
+        List<CsvFileStatsDTO> stats = new ArrayList<>(files.size());
+        RuntimeException firstError = null;
+        for (CompletableFuture<CsvFileStatsDTO> future : futures) {
+            try {
+                stats.add(future.join());
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+                if (firstError == null && !(cause instanceof CancellationException)) {
+                    firstError = cause;
+                }
+            }
+        }
+
+        if (firstError != null) {
+            throw firstError;
+        }
+        return stats;
+    }
+
+    private CsvFileStatsDTO scanFile(MultipartFile file, BooleanSupplier cancelled) {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            CsvFileStatsDTO stats = CsvStructureScanner.scan(file.getOriginalFilename(), in, file.getSize(), cancelled);
+            stats.setSha256(HexFormat.of().formatHex(digest.digest()));
+            log.debug("CSV {} validado: {} registros, {} colunas, delimitador '{}', {}", stats.getFileName(),
+                    stats.getRowCount(), stats.getColumnCount(), stats.getDelimiter(), stats.getEncoding());
+            return stats;
+        } catch (IOException e) {
+            throw new FileProcessingException(
+                    "Erro ao ler o arquivo " + file.getOriginalFilename() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Algoritmo obrigatório em toda JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.join.Mcqueen.domain.dtos.AttachmentReportDTO;
+import com.join.Mcqueen.domain.dtos.CursorPageDTO;
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.dtos.EmailSearchFilterDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.exceptions.EmailAuditNotFoundException;
+import com.join.Mcqueen.repositories.EmailAttachmentRepository;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.before;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.hasFileHash;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.hasFileName;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.hasStatus;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.organizationStartsWith;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.recipientStartsWith;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.sentBetween;
+
+/**
+ * Serviço de consulta da auditoria de emails
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailAuditService {
+
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final int FLUSH_EVERY = 500;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("sendDate"), Sort.Order.desc("id"));
+
+    private final EmailAuditRepository emailAuditRepository;
+    private final EmailAttachmentRepository emailAttachmentRepository;
+    private final AuditAttachmentLoader auditAttachmentLoader;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.audit.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.audit.history.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Busca uma página do histórico por período, usando paginação por cursor
+     * sobre (send_date, id) em vez de OFFSET
+     */
+    public CursorPageDTO<EmailAuditSummaryDTO> getEmailHistory(LocalDateTime startDate, LocalDateTime endDate, String cursor,
+            Integer size) {
+        return searchEmails(EmailSearchFilterDTO.builder().startDate(startDate).endDate(endDate).build(), cursor,
+                size);
+    }
+
+    /**
+     * Busca na auditoria combinando filtros por prefixo de destinatário e órgão,
+     * status e período, paginada por cursor como o histórico
+     */
+    public CursorPageDTO<EmailAuditSummaryDTO> searchEmails(EmailSearchFilterDTO filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+
+        Specification<EmailAudit> spec = sentBetween(
+                filter.getStartDate() != null ? filter.getStartDate() : MIN_DATE,
+                filter.getEndDate() != null ? filter.getEndDate() : MAX_DATE);
+        if (StringUtils.hasText(filter.getRecipient())) {
+            spec = spec.and(recipientStartsWith(filter.getRecipient()));
+        }
+        if (StringUtils.hasText(filter.getOrganization())) {
+            spec = spec.and(organizationStartsWith(filter.getOrganization()));
+        }
+        if (StringUtils.hasText(filter.getFileHash())) {
+            spec = spec.and(hasFileHash(filter.getFileHash()));
+        }
+        if (StringUtils.hasText(filter.getFileName())) {
+            spec = spec.and(hasFileName(filter.getFileName()));
+        }
+        if (StringUtils.hasText(filter.getStatus())) {
+            spec = spec.and(hasStatus(SendStatus.parse(filter.getStatus())));
+        }
+        if (StringUtils.hasText(cursor)) {
+            Cursor position = decodeCursor(cursor);
+            spec = spec.and(before(position.sendDate(), position.id()));
+        }
+
+        // Busca um item a mais para saber se existe próxima página
+        List<EmailAuditSummaryDTO> rows = emailAuditRepository.findSummaries(spec, NEWEST_FIRST, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<EmailAuditSummaryDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+        EmailAuditSummaryDTO last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return CursorPageDTO.<EmailAuditSummaryDTO>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(last.getSendDate(), last.getId()) : null)
+                .build();
+    }
+
+    /**
+     * Totais de anexos enviados com sucesso por órgão em [startDate, endDate)
+     */
+    public List<AttachmentReportDTO> getAttachmentReport(LocalDateTime startDate, LocalDateTime endDate) {
+        return emailAttachmentRepository.sumByOrganization(startDate != null ? startDate : MIN_DATE,
+                endDate != null ? endDate : MAX_DATE, SendStatus.SUCCESS);
+    }
+
+    /**
+     * Registro completo da auditoria, com os anexos
+     */
+    public EmailAudit getEmail(Long id) {
+        EmailAudit audit = emailAuditRepository.findById(id)
+                .orElseThrow(() -> new EmailAuditNotFoundException("Registro de auditoria " + id + " não encontrado"));
+        return auditAttachmentLoader.withAttachments(List.of(audit).iterator()).next();
+    }
+
+    /**
+     * Escreve o histórico do período como NDJSON (um registro JSON por linha, com
+     * os anexos), lendo do cursor do banco em blocos liberados após a escrita
+     */
+    public void streamEmailHistory(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+        LocalDateTime start = startDate != null ? startDate : MIN_DATE;
+        LocalDateTime end = endDate != null ? endDate : MAX_DATE;
+
+        // O Stream do Spring Data exige transação aberta durante toda a leitura
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> {
+            try (Stream<EmailAudit> rows = emailAuditRepository.streamHistory(start, end);
+                    SequenceWriter writer = objectMapper.writer()
+                            .withRootValueSeparator("\n")
+                            .writeValues(outputStream)) {
+                long count = 0;
+                Iterator<EmailAudit> iterator = auditAttachmentLoader.withAttachments(rows.iterator());
+                while (iterator.hasNext()) {
+                    EmailAudit audit = iterator.next();
+                    writer.write(audit);
+                    if (++count % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+                outputStream.write('\n');
+                log.info("Histórico exportado em NDJSON: {} registros", count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Tamanho de página deve estar entre 1 e " + maxPageSize);
+        }
+        return size;
+    }
+
+    private static String encodeCursor(LocalDateTime sendDate, Long id) {
+        String raw = sendDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+    }
+
+    private record Cursor(LocalDateTime sendDate, Long id) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gravação da auditoria em segundo plano (write-behind). Os registros entram em
+ * um buffer limitado e uma thread dedicada os grava em lotes, quando o lote
+ * enche ou quando o intervalo máximo desde o primeiro registro pendente expira.
+ * Com o buffer cheio o registro é gravado na própria thread da requisição, e no
+ * desligamento da aplicação o buffer é esvaziado antes de liberar o banco.
+ */
+@Slf4j
+@Component
+public class EmailAuditWriter {
+
+    private static final long SHUTDOWN_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EmailAuditRepository emailAuditRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentEmailsCache recentEmailsCache;
+    private final Timer batchTimer;
+
+    @Value("${app.audit.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.write-behind.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${app.audit.write-behind.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.audit.write-behind.flush-interval-ms:500}")
+    private long flushIntervalMillis;
+
+    @Value("${app.audit.write-behind.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMillis;
+
+    private BlockingQueue<EmailAudit> buffer;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public EmailAuditWriter(EmailAuditRepository emailAuditRepository, PlatformTransactionManager transactionManager,
+            RecentEmailsCache recentEmailsCache, MeterRegistry meterRegistry) {
+        this.emailAuditRepository = emailAuditRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recentEmailsCache = recentEmailsCache;
+        this.batchTimer = Timer.builder("mcqueen.audit.batch")
+                .description("Duração da gravação de cada lote de auditoria")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Gravação da auditoria em segundo plano desabilitada");
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        running = true;
+        flusher = new Thread(this::run, "audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Gravação da auditoria em segundo plano: lotes de {} ou a cada {} ms (buffer {})",
+                batchSize, flushIntervalMillis, bufferSize);
+    }
+
+    /**
+     * Agenda a gravação do registro; nunca lança exceção para quem chama
+     */
+    public void submit(EmailAudit audit) {
+        submitted.incrementAndGet();
+        if (running && buffer.offer(audit)) {
+            return;
+        }
+        // Desabilitado, desligando ou buffer cheio: grava na thread atual
+        write(List.of(audit));
+    }
+
+    /**
+     * Agenda a gravação de vários registros; os que não couberem no buffer são
+     * gravados juntos, em um único lote, na thread atual
+     */
+    public void submitAll(List<EmailAudit> audits) {
+        submitted.addAndGet(audits.size());
+        List<EmailAudit> overflow = new ArrayList<>();
+        for (EmailAudit audit : audits) {
+            if (!running || !buffer.offer(audit)) {
+                overflow.add(audit);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            write(overflow);
+        }
+    }
+
+    /**
+     * Aguarda até que tudo o que foi enviado até agora esteja gravado (ou tenha falhado)
+     *
+     * @return true se o buffer foi esvaziado dentro do prazo
+     */
+    public boolean awaitFlush(Duration timeout) throws InterruptedException {
+        long target = submitted.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (completed.get() + failed.get() < target) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        return true;
+    }
+
+    /** Registros aguardando gravação */
+    public int getPendingCount() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /** Registros que não puderam ser gravados */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(shutdownTimeoutMillis);
+        if (!flusher.isAlive()) {
+            // Registros que entraram no buffer depois que a thread terminou
+            List<EmailAudit> remaining = new ArrayList<>();
+            buffer.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                write(remaining);
+            }
+        }
+        if (flusher.isAlive()) {
+            log.error("Auditoria não esvaziada em {} ms; {} registros pendentes serão perdidos",
+                    shutdownTimeoutMillis, buffer.size());
+        } else {
+            log.info("Auditoria em segundo plano encerrada: {} registros gravados, {} falhas",
+                    completed.get(), failed.get());
+        }
+    }
+
+    private void run() {
+        List<EmailAudit> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        // Após o sinal de parada continua até esvaziar o buffer
+        while (running || !buffer.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Monta um lote: espera o primeiro registro e depois junta os seguintes até
+     * completar o lote ou vencer o intervalo contado a partir do primeiro
+     */
+    private void collect(List<EmailAudit> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        EmailAudit first = poll(deadline);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize && running) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize) {
+                return;
+            }
+            EmailAudit next = poll(deadline);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        // Desligando: não espera pelo intervalo, só completa o lote com o que já está no buffer
+        buffer.drainTo(batch, batchSize - batch.size());
+    }
+
+    /**
+     * Espera um registro até o prazo, em fatias curtas para perceber o sinal de parada
+     */
+    private EmailAudit poll(long deadline) throws InterruptedException {
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            EmailAudit audit = buffer.poll(Math.min(remaining, SHUTDOWN_CHECK_NANOS), TimeUnit.NANOSECONDS);
+            if (audit != null) {
+                return audit;
+            }
+        }
+        return buffer.poll();
+    }
+
+    /**
+     * Grava o lote em uma única transação (inserts agrupados pelo JDBC). Se o lote
+     * falhar, tenta registro a registro para não perder os válidos.
+     */
+    private void write(List<EmailAudit> batch) {
+        try {
+            batchTimer.record(() -> transactionTemplate.executeWithoutResult(
+                    status -> emailAuditRepository.saveAll(batch)));
+            completed.addAndGet(batch.size());
+            recentEmailsCache.onWritten(batch);
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                failed.incrementAndGet();
+                log.error("Erro ao salvar auditoria: {}", e.getMessage(), e);
+                return;
+            }
+            log.warn("Falha ao gravar lote de {} auditorias, gravando individualmente: {}", batch.size(),
+                    e.getMessage());
+        }
+
+        for (EmailAudit audit : batch) {
+            // Os ids alocados na tentativa anterior foram descartados com o rollback
+            audit.setId(null);
+            if (audit.getAttachments() != null) {
+                audit.getAttachments().forEach(attachment -> attachment.setId(null));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> emailAuditRepository.save(audit));
+                completed.incrementAndGet();
+                recentEmailsCache.onWritten(List.of(audit));
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.error("Erro ao salvar auditoria: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import com.join.Mcqueen.domain.dtos.EmailJobDTO;
+import com.join.Mcqueen.domain.models.EmailOutbox;
+import com.join.Mcqueen.domain.models.OutboxFile;
+import com.join.Mcqueen.domain.models.OutboxStatus;
+import com.join.Mcqueen.exceptions.EmailJobNotFoundException;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.exceptions.RateLimitExceededException;
+import com.join.Mcqueen.exceptions.SmtpUnavailableException;
+import com.join.Mcqueen.mail.SmtpDeliveryPolicy;
+import com.join.Mcqueen.repositories.EmailOutboxRepository;
+import com.join.Mcqueen.storage.SpooledMultipartFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Serviço da outbox de envios assíncronos: grava os pedidos validados e os
+ * anexos em disco para que o worker realize o envio SMTP fora da requisição.
+ * <p>
+ * A entrega é at-least-once. O lease é conferido e renovado imediatamente antes
+ * do envio, e o resultado só é gravado se a versão do job não mudou; mas o SMTP
+ * não participa da transação: se o heartbeat não conseguir renovar o lease
+ * enquanto um envio está em andamento (banco inacessível, pausa longa da JVM),
+ * outra instância pode assumir o job e enviar o mesmo email de novo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+
+    @Value("${app.email.destinatario.padrao:gabriel.almeida1@sad.pe.gov.br}")
+    private String defaultRecipient;
+
+    @Value("${app.email.async.spool-dir:${java.io.tmpdir}/mcqueen-outbox}")
+    private String spoolDir;
+
+    @Value("${app.email.async.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.email.async.retry-delay-seconds:30}")
+    private long retryDelaySeconds;
+
+    @Value("${app.email.async.lease-ms:60000}")
+    private long leaseMillis;
+
+    /**
+     * Valida o pedido, grava os anexos no spool e registra o job como pendente
+     */
+    public EmailJobDTO enqueue(EmailFormDTO emailFormDTO, List<MultipartFile> files, String recipient) {
+        return enqueue(emailFormDTO, files, recipient, null);
+    }
+
+    /**
+     * Como {@link #enqueue(EmailFormDTO, List, String)}, com os arquivos já
+     * validados quando validatedStats não é nulo
+     */
+    public EmailJobDTO enqueue(EmailFormDTO emailFormDTO, List<MultipartFile> files, String recipient,
+            List<CsvFileStatsDTO> validatedStats) {
+        if (validatedStats == null) {
+            emailService.validateCsvFiles(files);
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        Path jobDir = jobDirectory(jobId);
+        List<OutboxFile> outboxFiles = new ArrayList<>();
+
+        try {
+            Files.createDirectories(jobDir);
+            for (int i = 0; i < files.size(); i++) {
+                MultipartFile file = files.get(i);
+                String storedName = String.valueOf(i);
+                outboxFiles.add(OutboxFile.builder()
+                        .fileName(file.getOriginalFilename())
+                        .contentType(file.getContentType())
+                        .sizeBytes(file.getSize())
+                        .storedName(storedName)
+                        .build());
+                // transferTo move o arquivo temporário do multipart quando possível, sem copiar para a heap
+                file.transferTo(jobDir.resolve(storedName).toFile());
+            }
+        } catch (IOException e) {
+            deleteSpool(jobId);
+            throw new FileProcessingException("Falha ao armazenar anexos para envio assíncrono: " + e.getMessage(), e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox job = EmailOutbox.builder()
+                .id(jobId)
+                .recipient(recipient != null ? recipient : defaultRecipient)
+                .organizationName(emailFormDTO.getOrganizationName())
+                .responsibleContact(emailFormDTO.getResponsibleContact())
+                .subject(emailFormDTO.getSubject())
+                .referencePeriod(emailFormDTO.getReferencePeriod())
+                .dataDescription(emailFormDTO.getDataDescription())
+                .lgpdCompliance(emailFormDTO.getLgpdCompliance())
+                .files(outboxFiles)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        emailOutboxRepository.save(job);
+        log.info("Job {} enfileirado para envio assíncrono para: {}", jobId, job.getRecipient());
+        return toDTO(job);
+    }
+
+    /**
+     * Consulta o status de um job
+     */
+    public EmailJobDTO getJob(String jobId) {
+        return emailOutboxRepository.findById(jobId)
+                .map(this::toDTO)
+                .orElseThrow(() -> new EmailJobNotFoundException("Job " + jobId + " não encontrado"));
+    }
+
+    /**
+     * Executa o envio de um job já reivindicado pelo worker da instância informada
+     */
+    public void process(String jobId, String owner) {
+        EmailOutbox job = emailOutboxRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            log.warn("Job {} removido antes do processamento", jobId);
+            return;
+        }
+        if (job.getStatus() != OutboxStatus.PROCESSING || !owner.equals(job.getLockedBy())) {
+            log.warn("Job {} não está mais reivindicado por esta instância, ignorado", jobId);
+            return;
+        }
+        // O job pode ter esperado na fila do executor: com o lease vencido, outra instância pode já tê-lo assumido
+        LocalDateTime checkedAt = LocalDateTime.now();
+        if (emailOutboxRepository.renewLease(jobId, owner, checkedAt.plusNanos(leaseMillis * 1_000_000),
+                OutboxStatus.PROCESSING, checkedAt) == 0) {
+            log.warn("Lease do job {} venceu antes do envio, ignorado", jobId);
+            return;
+        }
+
+        job.setAttempts(job.getAttempts() + 1);
+        try {
+            emailService.sendFormEmail(toFormDTO(job), spooledFiles(job), job.getRecipient());
+
+            LocalDateTime now = LocalDateTime.now();
+            job.setStatus(OutboxStatus.SENT);
+            job.setLastError(null);
+            job.setSentAt(now);
+            job.setUpdatedAt(now);
+            if (saveResult(job)) {
+                deleteSpool(jobId);
+                log.info("Job {} enviado na tentativa {}", jobId, job.getAttempts());
+            }
+
+        } catch (RateLimitExceededException e) {
+            postpone(job, e.getRetryAfterSeconds(), e.getMessage());
+
+        } catch (SmtpUnavailableException e) {
+            postpone(job, e.getRetryAfterSeconds(), e.getMessage());
+
+        } catch (Exception e) {
+            LocalDateTime now = LocalDateTime.now();
+            job.setLastError(e.getMessage());
+            job.setUpdatedAt(now);
+            // Arquivo inválido, recusa 5xx ou autenticação: repetir só geraria mais registros de erro na auditoria
+            boolean permanent = e instanceof FileProcessingException
+                    || SmtpDeliveryPolicy.classify(e) == SmtpDeliveryPolicy.FailureKind.PERMANENT;
+            if (permanent) {
+                job.setStatus(OutboxStatus.FAILED);
+                log.error("Job {} falhou com erro permanente na tentativa {}, sem novas tentativas: {}", jobId,
+                        job.getAttempts(), e.getMessage());
+            } else if (job.getAttempts() < maxAttempts) {
+                job.setStatus(OutboxStatus.PENDING);
+                job.setNextAttemptAt(now.plusSeconds(retryDelaySeconds * job.getAttempts()));
+                log.warn("Job {} falhou na tentativa {}, nova tentativa agendada: {}", jobId, job.getAttempts(),
+                        e.getMessage());
+            } else {
+                job.setStatus(OutboxStatus.FAILED);
+                log.error("Job {} falhou definitivamente após {} tentativas: {}", jobId, job.getAttempts(),
+                        e.getMessage());
+            }
+            if (saveResult(job) && job.getStatus() == OutboxStatus.FAILED) {
+                deleteSpool(jobId);
+            }
+        }
+    }
+
+    /**
+     * Reagenda um job recusado sem tentar o envio (limite de taxa ou disjuntor
+     * aberto); a recusa não conta como tentativa
+     */
+    private void postpone(EmailOutbox job, long retryAfterSeconds, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setAttempts(job.getAttempts() - 1);
+        job.setStatus(OutboxStatus.PENDING);
+        job.setNextAttemptAt(now.plusSeconds(retryAfterSeconds));
+        job.setUpdatedAt(now);
+        if (saveResult(job)) {
+            log.info("Job {} adiado por {}s: {}", job.getId(), retryAfterSeconds, reason);
+        }
+    }
+
+    /**
+     * Grava o resultado e encerra o lease. Falha se outra instância assumiu o job
+     * depois que o lease venceu (a versão mudou); nesse caso o resultado desta
+     * tentativa é descartado e o spool fica para quem assumiu.
+     *
+     * @return true se o resultado foi gravado
+     */
+    private boolean saveResult(EmailOutbox job) {
+        job.setLeaseUntil(null);
+        try {
+            emailOutboxRepository.save(job);
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Job {} assumido por outra instância após o vencimento do lease; resultado descartado",
+                    job.getId());
+            return false;
+        }
+    }
+
+    private EmailFormDTO toFormDTO(EmailOutbox job) {
+        return new EmailFormDTO(job.getOrganizationName(), job.getResponsibleContact(), job.getSubject(),
+                job.getReferencePeriod(), job.getDataDescription(), job.getLgpdCompliance());
+    }
+
+    private List<MultipartFile> spooledFiles(EmailOutbox job) {
+        Path jobDir = jobDirectory(job.getId());
+        return job.getFiles().stream()
+                .map(file -> (MultipartFile) new SpooledMultipartFile(jobDir.resolve(file.getStoredName()),
+                        file.getFileName(), file.getContentType()))
+                .collect(Collectors.toList());
+    }
+
+    private Path jobDirectory(String jobId) {
+        return Paths.get(spoolDir).resolve(jobId);
+    }
+
+    private void deleteSpool(String jobId) {
+        try {
+            FileSystemUtils.deleteRecursively(jobDirectory(jobId));
+        } catch (IOException e) {
+            log.warn("Não foi possível remover o spool do job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private EmailJobDTO toDTO(EmailOutbox job) {
+        return EmailJobDTO.builder()
+                .jobId(job.getId())
+                .status(job.getStatus().name())
+                .recipient(job.getRecipient())
+                .fileCount(job.getFiles().size())
+                .fileNames(job.getFiles().stream().map(OutboxFile::getFileName).collect(Collectors.toList()))
+                .attempts(job.getAttempts())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .sentAt(job.getSentAt())
+                .statusUrl("/emails/jobs/" + job.getId())
+                .build();
+    }
+}
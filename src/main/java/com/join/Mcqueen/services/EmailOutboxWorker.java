@@ -0,0 +1,219 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.OutboxStatus;
+import com.join.Mcqueen.repositories.EmailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker que drena a outbox, limitando o número de envios SMTP simultâneos ao
+ * tamanho do pool de workers.
+ * <p>
+ * Várias instâncias podem drenar a mesma outbox (banco compartilhado): cada uma
+ * reivindica lotes de jobs com um lease de lease-ms, renovado por heartbeat
+ * enquanto os envios estão em andamento. Se a instância cair, o lease vence e
+ * os jobs voltam a ser reivindicáveis pelas demais. O spool de anexos
+ * (app.email.async.spool-dir) precisa estar em um diretório compartilhado.
+ * <p>
+ * O heartbeat roda em uma thread própria, e não no agendador do Spring, que tem
+ * uma única thread compartilhada com as demais tarefas agendadas (retenção,
+ * limpeza de anexos, recargas): uma tarefa longa ali atrasaria a renovação e
+ * outra instância assumiria e reenviaria jobs ainda em andamento.
+ * <p>
+ * A entrega é at-least-once, não exactly-once: uma instância que fique sem
+ * renovar o lease no meio de um envio SMTP não tem como interrompê-lo, e a
+ * instância que assumir o job o enviará de novo.
+ */
+@Slf4j
+@Component
+public class EmailOutboxWorker {
+
+    /**
+     * Candidatos buscados por slot livre; a reivindicação percorre-os em ordem
+     * aleatória para que instâncias que consultam ao mesmo tempo não disputem
+     * sempre os mesmos jobs
+     */
+    private static final int CANDIDATES_PER_SLOT = 4;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailOutboxService emailOutboxService;
+    private final TaskExecutor outboxExecutor;
+    private final Semaphore slots;
+    private final int workerThreads;
+    private final String instanceId;
+    private final long leaseMillis;
+    private final long heartbeatIntervalMillis;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    public EmailOutboxWorker(EmailOutboxRepository emailOutboxRepository,
+            EmailOutboxService emailOutboxService,
+            @Qualifier("outboxExecutor") TaskExecutor outboxExecutor,
+            @Value("${app.email.async.worker-threads:4}") int workerThreads,
+            @Value("${app.email.async.instance-id:}") String instanceId,
+            @Value("${app.email.async.lease-ms:60000}") long leaseMillis,
+            @Value("${app.email.async.heartbeat-interval-ms:15000}") long heartbeatIntervalMillis) {
+        if (leaseMillis < 2 * heartbeatIntervalMillis) {
+            throw new IllegalStateException(
+                    "app.email.async.lease-ms deve ser pelo menos o dobro de app.email.async.heartbeat-interval-ms");
+        }
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.outboxExecutor = outboxExecutor;
+        this.slots = new Semaphore(workerThreads);
+        this.workerThreads = workerThreads;
+        this.instanceId = StringUtils.hasText(instanceId) ? instanceId : defaultInstanceId();
+        this.leaseMillis = leaseMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        log.info("Worker da outbox: instância {}, {} workers, lease de {} ms", this.instanceId, workerThreads,
+                leaseMillis);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @PostConstruct
+    void startHeartbeat() {
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopHeartbeat() {
+        heartbeatExecutor.shutdownNow();
+    }
+
+    /**
+     * Devolve para a fila jobs interrompidos por uma parada anterior desta
+     * instância. Só tem efeito com app.email.async.instance-id fixo; com o id
+     * gerado na inicialização esses jobs são retomados quando o lease vence.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        int recovered = emailOutboxRepository.releaseAll(instanceId, OutboxStatus.PENDING, OutboxStatus.PROCESSING,
+                LocalDateTime.now());
+        if (recovered > 0) {
+            log.info("{} jobs interrompidos devolvidos para a outbox", recovered);
+        }
+    }
+
+    /**
+     * Reivindica jobs disponíveis enquanto houver workers livres
+     */
+    @Scheduled(fixedDelayString = "${app.email.async.poll-interval-ms:1000}")
+    public void poll() {
+        int free = slots.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<String> candidates = new ArrayList<>(emailOutboxRepository.findClaimableIds(OutboxStatus.PENDING,
+                OutboxStatus.PROCESSING, LocalDateTime.now(), PageRequest.of(0, free * CANDIDATES_PER_SLOT)));
+        Collections.shuffle(candidates);
+
+        int next = 0;
+        while (free > 0 && next < candidates.size()) {
+            List<String> batch = candidates.subList(next, Math.min(candidates.size(), next + free));
+            next += batch.size();
+            if (!slots.tryAcquire(batch.size())) {
+                return;
+            }
+            List<String> claimed = claim(batch);
+            slots.release(batch.size() - claimed.size());
+            free -= claimed.size();
+            claimed.forEach(this::dispatch);
+        }
+    }
+
+    /**
+     * Renova o lease dos jobs em processamento por esta instância, a cada
+     * heartbeat-interval-ms na thread outbox-heartbeat
+     */
+    public void heartbeat() {
+        if (slots.availablePermits() == workerThreads) {
+            return;
+        }
+        try {
+            int extended = emailOutboxRepository.extendLeases(instanceId,
+                    LocalDateTime.now().plusNanos(leaseMillis * 1_000_000), OutboxStatus.PROCESSING);
+            log.debug("Lease de {} jobs renovado", extended);
+        } catch (RuntimeException e) {
+            // Uma exceção aqui cancelaria as próximas execuções do heartbeat
+            log.error("Falha ao renovar o lease dos jobs: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reivindica o lote com um único UPDATE e retorna os ids que ele pegou. A releitura
+     * é pelo token da reivindicação: por locked_by viriam também jobs do lote que esta
+     * instância já processa de uma reivindicação anterior, e que seriam processados
+     * duas vezes.
+     */
+    private List<String> claim(List<String> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+        int updated = emailOutboxRepository.claim(ids, instanceId, token, now.plusNanos(leaseMillis * 1_000_000),
+                OutboxStatus.PENDING, OutboxStatus.PROCESSING, now);
+        if (updated == 0) {
+            return List.of();
+        }
+        return emailOutboxRepository.findClaimedIds(ids, token, OutboxStatus.PROCESSING);
+    }
+
+    private void dispatch(String id) {
+        try {
+            outboxExecutor.execute(() -> {
+                try {
+                    emailOutboxService.process(id, instanceId);
+                } catch (Exception e) {
+                    log.error("Erro inesperado ao processar job {}: {}", id, e.getMessage(), e);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            emailOutboxRepository.release(id, instanceId, OutboxStatus.PENDING, OutboxStatus.PROCESSING,
+                    LocalDateTime.now());
+            log.warn("Pool de workers recusou o job {}, devolvido para a outbox", id);
+        }
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "mcqueen";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,27 +1,39 @@
 package com.join.Mcqueen.services;
 
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.domain.dtos.EmailBatchItemDTO;
+import com.join.Mcqueen.domain.dtos.EmailBatchResponseDTO;
 import com.join.Mcqueen.domain.dtos.EmailFormDTO;
 import com.join.Mcqueen.domain.dtos.EmailResponseDTO;
 import com.join.Mcqueen.domain.models.EmailAudit;
 import com.join.Mcqueen.domain.models.EmailData;
+import com.join.Mcqueen.domain.models.PreparedAttachment;
+import com.join.Mcqueen.domain.models.SendErrorCode;
+import com.join.Mcqueen.domain.models.SendStatus;
 import com.join.Mcqueen.exceptions.EmailSendingException;
 import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.exceptions.SmtpUnavailableException;
+import com.join.Mcqueen.mail.SmtpDeliveryPolicy;
 import com.join.Mcqueen.mappers.EmailMapper;
-import com.join.Mcqueen.repositories.EmailAuditRepository;
+import com.join.Mcqueen.metrics.EmailMetrics;
+import com.join.Mcqueen.ratelimit.SendAdmissionControl;
+import com.join.Mcqueen.templates.RenderedEmail;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -33,28 +45,76 @@ import java.util.stream.Collectors;
 public class EmailService {
 
     private final JavaMailSender mailSender;
-    private final EmailAuditRepository emailAuditRepository;
+    private final EmailAuditWriter emailAuditWriter;
+    private final EmailStatsService emailStatsService;
     private final EmailMapper emailMapper;
+    private final MimeMessageAssembler mimeMessageAssembler;
+    private final CsvValidationService csvValidationService;
+    private final AttachmentPipeline attachmentPipeline;
+    private final EmailMetrics emailMetrics;
+    private final EmailTemplateService emailTemplateService;
+    private final SendAdmissionControl sendAdmissionControl;
+    private final SmtpDeliveryPolicy smtpDeliveryPolicy;
 
     @Value("${app.email.destinatario.padrao:gabriel.almeida1@sad.pe.gov.br}")
     private String defaultRecipient;
 
+    @Value("${app.email.batch.max-items:100}")
+    private int batchMaxItems;
+
     /**
-     * Envia email com dados do formulário e anexos CSV
+     * Envia email com dados do formulário e anexos CSV. O envio passa antes pelo
+     * disjuntor do SMTP e pelo controle de admissão, que podem recusá-lo com
+     * SmtpUnavailableException ou RateLimitExceededException; envios recusados
+     * não são auditados.
      */
     public EmailResponseDTO sendFormEmail(EmailFormDTO emailFormDTO, List<MultipartFile> files,
             String recipient) {
+        return sendFormEmail(emailFormDTO, files, recipient, null);
+    }
+
+    /**
+     * Como {@link #sendFormEmail(EmailFormDTO, List, String)}, reaproveitando as
+     * estatísticas de uma validação já feita destes arquivos (nulas para validar)
+     */
+    public EmailResponseDTO sendFormEmail(EmailFormDTO emailFormDTO, List<MultipartFile> files,
+            String recipient, List<CsvFileStatsDTO> validatedStats) {
+        smtpDeliveryPolicy.checkAvailable();
+        SendAdmissionControl.Permit permit = sendAdmissionControl.admit(emailFormDTO.getOrganizationName(),
+                recipient);
+        try {
+            return deliver(emailFormDTO, files, recipient, validatedStats);
+        } finally {
+            permit.close();
+        }
+    }
+
+    private EmailResponseDTO deliver(EmailFormDTO emailFormDTO, List<MultipartFile> files, String recipient,
+            List<CsvFileStatsDTO> validatedStats) {
         log.info("Iniciando envio de email para: {}", recipient != null ? recipient : defaultRecipient);
 
+        List<PreparedAttachment> preparedAttachments = null;
+        AtomicInteger attempts = new AtomicInteger();
         try {
             // Validar arquivos CSV
-            validateCsvFiles(files);
+            List<CsvFileStatsDTO> fileStats = validatedStats != null ? validatedStats
+                    : emailMetrics.stage(EmailMetrics.STAGE_VALIDATION, () -> validateCsvFiles(files));
+            emailMetrics.recordAttachments(files.size(), files.stream().mapToLong(MultipartFile::getSize).sum());
+
+            // Comprimir e pré-codificar anexos grandes ou buscá-los no repositório, quando habilitado
+            if (attachmentPipeline.isEnabled()) {
+                preparedAttachments = emailMetrics.stage(EmailMetrics.STAGE_ATTACHMENTS,
+                        () -> attachmentPipeline.prepare(files, hashesOf(fileStats)));
+            }
 
             // Criar dados do email
+            RenderedEmail body = emailMetrics.stage(EmailMetrics.STAGE_RENDER,
+                    () -> emailTemplateService.render(EmailTemplateService.FORM_TEMPLATE, emailFormDTO));
             EmailData emailData = EmailData.builder()
                     .recipient(recipient != null ? recipient : defaultRecipient)
                     .emailSubject(createEmailSubject(emailFormDTO))
-                    .message(createEmailBody(emailFormDTO))
+                    .message(body.html())
+                    .textMessage(body.text())
                     .files(files)
                     .organizationName(emailFormDTO.getOrganizationName())
                     .responsibleContact(emailFormDTO.getResponsibleContact())
@@ -62,17 +122,20 @@ public class EmailService {
                     .referencePeriod(emailFormDTO.getReferencePeriod())
                     .dataDescription(emailFormDTO.getDataDescription())
                     .lgpdCompliance(emailFormDTO.getLgpdCompliance())
+                    .fileStats(fileStats)
+                    .preparedAttachments(preparedAttachments)
                     .build();
 
             // Enviar email
-            sendEmail(emailData);
+            sendEmail(emailData, attempts);
+            emailData.setAttemptCount(attempts.get());
 
             // Salvar auditoria
-            saveAudit(emailData, "SUCCESS");
+            saveAudit(emailData, SendStatus.SUCCESS, null, null);
 
             // Criar resposta
             return EmailResponseDTO.builder()
-                    .status("SUCCESS")
+                    .status(SendStatus.SUCCESS.name())
                     .message("Email enviado com sucesso")
                     .sendDate(LocalDateTime.now())
                     .recipient(emailData.getRecipient())
@@ -80,6 +143,7 @@ public class EmailService {
                     .fileNames(files != null ? files.stream()
                             .map(MultipartFile::getOriginalFilename)
                             .collect(Collectors.toList()) : List.of())
+                    .fileStats(fileStats)
                     .build();
 
         } catch (Exception e) {
@@ -95,35 +159,129 @@ public class EmailService {
                     .dataDescription(emailFormDTO.getDataDescription())
                     .lgpdCompliance(emailFormDTO.getLgpdCompliance())
                     .files(files)
+                    .attemptCount(attempts.get())
                     .build();
 
-            saveAudit(emailDataError, "ERROR: " + e.getMessage());
+            SendErrorCode errorCode = SendErrorCode.classify(e);
+            emailMetrics.recordFailure(e, errorCode);
+            saveAudit(emailDataError, SendStatus.ERROR, errorCode, e.getMessage());
 
+            // Arquivos inválidos são erro do cliente (400), não falha de envio
+            if (e instanceof FileProcessingException fileProcessingException) {
+                throw fileProcessingException;
+            }
+            if (e instanceof SmtpUnavailableException smtpUnavailableException) {
+                throw smtpUnavailableException;
+            }
             throw new EmailSendingException("Falha ao enviar email: " + e.getMessage(), e);
+        } finally {
+            attachmentPipeline.release(preparedAttachments);
         }
     }
 
     /**
-     * Busca histórico de emails por período
+     * Envia um lote de emails que compartilham os mesmos anexos. Os arquivos são
+     * validados e codificados em base64 uma única vez, e todas as mensagens são
+     * enviadas pela mesma conexão SMTP. Falhas de um item (montagem ou recusa do
+     * servidor) não interrompem os demais; cada item recebe seu próprio resultado
+     * e registro de auditoria.
      */
-    public List<EmailAudit> getEmailHistory(LocalDateTime startDate, LocalDateTime endDate) {
-        if (startDate != null && endDate != null) {
-            return emailAuditRepository.findBySendDateBetween(startDate, endDate);
+    public EmailBatchResponseDTO sendBatch(List<EmailBatchItemDTO> items, List<MultipartFile> files) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("O lote deve ter pelo menos um envio");
+        }
+        if (items.size() > batchMaxItems) {
+            throw new IllegalArgumentException(
+                    "O lote tem " + items.size() + " envios; o máximo permitido é " + batchMaxItems);
+        }
+
+        smtpDeliveryPolicy.checkAvailable();
+
+        // O lote é admitido por inteiro, consumindo uma ficha por envio
+        List<SendAdmissionControl.Target> targets = items.stream()
+                .map(item -> new SendAdmissionControl.Target(
+                        item.getFormData().getOrganizationName(), item.getRecipient()))
+                .toList();
+        SendAdmissionControl.Permit permit = sendAdmissionControl.admit(targets);
+        try {
+            return deliverBatch(items, files);
+        } finally {
+            permit.close();
         }
-        return emailAuditRepository.findAll();
     }
 
-    /**
-     * Busca emails recentes (últimas 24h)
-     */
-    public List<EmailAudit> getRecentEmails() {
-        return emailAuditRepository.findRecentEmails(LocalDateTime.now().minusDays(1));
+    private EmailBatchResponseDTO deliverBatch(List<EmailBatchItemDTO> items, List<MultipartFile> files) {
+        log.info("Iniciando envio em lote de {} emails com {} anexos compartilhados", items.size(),
+                files != null ? files.size() : 0);
+
+        List<BatchEntry> entries = new ArrayList<>(items.size());
+        for (EmailBatchItemDTO item : items) {
+            String recipient = item.getRecipient() != null ? item.getRecipient() : defaultRecipient;
+            entries.add(new BatchEntry(item.getFormData(), toEmailData(item.getFormData(), files, recipient)));
+        }
+
+        List<CsvFileStatsDTO> fileStats;
+        try {
+            fileStats = emailMetrics.stage(EmailMetrics.STAGE_VALIDATION, () -> validateCsvFiles(files));
+        } catch (FileProcessingException e) {
+            // Os anexos são comuns a todos os itens: o lote inteiro é rejeitado com o mesmo motivo
+            log.error("Arquivos do lote inválidos: {}", e.getMessage());
+            entries.forEach(entry -> entry.error = e);
+            saveBatchAudit(entries);
+            throw e;
+        }
+        emailMetrics.recordAttachments(files.size(), files.stream().mapToLong(MultipartFile::getSize).sum());
+
+        List<PreparedAttachment> preparedAttachments = null;
+        try {
+            try {
+                List<PreparedAttachment> prepared = emailMetrics.stage(EmailMetrics.STAGE_ATTACHMENTS,
+                        () -> attachmentPipeline.prepareEncoded(files, hashesOf(fileStats)));
+                preparedAttachments = prepared;
+                for (BatchEntry entry : entries) {
+                    entry.emailData.setFileStats(fileStats);
+                    entry.emailData.setPreparedAttachments(prepared);
+                    assemble(entry);
+                }
+                sendAll(entries);
+            } catch (Exception e) {
+                // Falha comum a todo o lote (ex.: anexos não puderam ser codificados)
+                log.error("Erro ao preparar envio em lote: {}", e.getMessage(), e);
+                for (BatchEntry entry : entries) {
+                    if (entry.error == null) {
+                        entry.error = e;
+                    }
+                }
+            }
+
+            saveBatchAudit(entries);
+
+            List<EmailResponseDTO> results = new ArrayList<>(entries.size());
+            int succeeded = 0;
+            for (BatchEntry entry : entries) {
+                results.add(toBatchResult(entry, files, fileStats));
+                if (entry.error == null) {
+                    succeeded++;
+                }
+            }
+            log.info("Envio em lote concluído: {} de {} emails enviados", succeeded, entries.size());
+
+            return EmailBatchResponseDTO.builder()
+                    .total(entries.size())
+                    .succeeded(succeeded)
+                    .failed(entries.size() - succeeded)
+                    .results(results)
+                    .build();
+        } finally {
+            attachmentPipeline.release(preparedAttachments);
+        }
     }
 
     /**
-     * Valida se os arquivos são CSVs
+     * Valida se os arquivos são CSVs e verifica sua estrutura, retornando as
+     * estatísticas de cada arquivo
      */
-    private void validateCsvFiles(List<MultipartFile> files) {
+    public List<CsvFileStatsDTO> validateCsvFiles(List<MultipartFile> files) {
         if (files == null || files.isEmpty()) {
             throw new FileProcessingException("Pelo menos um arquivo CSV deve ser enviado");
         }
@@ -145,6 +303,9 @@ public class EmailService {
                         "Arquivo " + fileName + " excede o tamanho máximo de 10MB.");
             }
         }
+
+        // Validar estrutura (codificação, delimitador e colunas) em passagem única
+        return csvValidationService.scan(files);
     }
 
     /**
@@ -157,72 +318,170 @@ public class EmailService {
     }
 
     /**
-     * Cria corpo do email em HTML
+     * Envia o email propriamente dito, repetindo as falhas transitórias
+     *
+     * @param attempts recebe o número de tentativas de entrega feitas
      */
-    private String createEmailBody(EmailFormDTO emailFormDTO) {
-        StringBuilder corpo = new StringBuilder();
-        corpo.append("<!DOCTYPE html>");
-        corpo.append("<html><head><meta charset='UTF-8'><title>Dados do Formulário</title></head><body>");
-        corpo.append("<h2>Dados do Formulário Enviado</h2>");
-
-        corpo.append("<p><strong>Nome do Órgão:</strong> ").append(emailFormDTO.getOrganizationName()).append("</p>");
-        corpo.append("<p><strong>Contato do Responsável:</strong> ").append(emailFormDTO.getResponsibleContact())
-                .append("</p>");
+    private void sendEmail(EmailData emailData, AtomicInteger attempts) throws MessagingException {
+        log.info("Preparando envio de email para: {}", emailData.getRecipient());
 
-        corpo.append("<p><strong>Tema:</strong> ").append(emailFormDTO.getSubject()).append("</p>");
-        corpo.append("<p><strong>Período de Referência:</strong> ").append(emailFormDTO.getReferencePeriod())
-                .append("</p>");
+        MimeMessage mimeMessage = emailMetrics.stage(EmailMetrics.STAGE_MIME,
+                () -> mimeMessageAssembler.assemble(emailData));
 
-        corpo.append("<h3>Descrição dos Dados:</h3>");
-        corpo.append("<p>").append(emailFormDTO.getDataDescription().replace("\n", "<br>")).append("</p>");
+        emailMetrics.stage(EmailMetrics.STAGE_SMTP, () -> {
+            smtpDeliveryPolicy.send(() -> mailSender.send(mimeMessage), attempts::set);
+            return null;
+        });
+        log.info("Email enviado com sucesso para: {}", emailData.getRecipient());
+    }
 
-        if (Boolean.TRUE.equals(emailFormDTO.getLgpdCompliance())) {
-            corpo.append("<p><strong>LGPD:</strong> Dados em conformidade com a LGPD ✓</p>");
+    /**
+     * Renderiza o corpo e monta a mensagem de um item do lote
+     */
+    private void assemble(BatchEntry entry) {
+        EmailData emailData = entry.emailData;
+        try {
+            RenderedEmail body = emailMetrics.stage(EmailMetrics.STAGE_RENDER,
+                    () -> emailTemplateService.render(EmailTemplateService.FORM_TEMPLATE, entry.form));
+            emailData.setMessage(body.html());
+            emailData.setTextMessage(body.text());
+            entry.mimeMessage = emailMetrics.stage(EmailMetrics.STAGE_MIME,
+                    () -> mimeMessageAssembler.assemble(emailData));
+        } catch (Exception e) {
+            log.error("Erro ao montar email para {}: {}", emailData.getRecipient(), e.getMessage());
+            entry.error = e;
         }
-
-        corpo.append("<p><em>Os arquivos CSV estão anexados a este email.</em></p>");
-        corpo.append("<hr>");
-        corpo.append("<p><small>Email enviado automaticamente pelo Sistema Mcqueen</small></p>");
-        corpo.append("</body></html>");
-
-        return corpo.toString();
     }
 
     /**
-     * Envia o email propriamente dito
+     * Envia as mensagens montadas em uma única chamada, reaproveitando a conexão
+     * SMTP; as recusas individuais vêm em MailSendException.getFailedMessages().
+     * A chamada não é repetida, pois reenviaria as mensagens já aceitas.
      */
-    private void sendEmail(EmailData emailData) throws MessagingException, IOException {
-        log.info("Preparando envio de email para: {}", emailData.getRecipient());
+    private void sendAll(List<BatchEntry> entries) {
+        List<BatchEntry> ready = entries.stream().filter(entry -> entry.mimeMessage != null).toList();
+        if (ready.isEmpty()) {
+            return;
+        }
+        MimeMessage[] messages = ready.stream().map(entry -> entry.mimeMessage).toArray(MimeMessage[]::new);
+        try {
+            emailMetrics.stage(EmailMetrics.STAGE_SMTP, () -> {
+                smtpDeliveryPolicy.sendOnce(() -> {
+                    ready.forEach(entry -> entry.emailData.setAttemptCount(1));
+                    mailSender.send(messages);
+                });
+                return null;
+            });
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (BatchEntry entry : ready) {
+                if (failedMessages.isEmpty()) {
+                    entry.error = e;
+                } else if (failedMessages.containsKey(entry.mimeMessage)) {
+                    Exception cause = failedMessages.get(entry.mimeMessage);
+                    entry.error = new MailSendException(cause.getMessage(), cause);
+                }
+            }
+        } catch (MailException e) {
+            ready.forEach(entry -> entry.error = e);
+        }
+    }
 
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+    private static List<String> hashesOf(List<CsvFileStatsDTO> fileStats) {
+        return fileStats.stream().map(CsvFileStatsDTO::getSha256).toList();
+    }
 
-        helper.setFrom("gabriel.almeida1@sad.pe.gov.br"); // Usar mesmo email da autenticação
-        helper.setTo(emailData.getRecipient());
-        helper.setSubject(emailData.getEmailSubject());
-        helper.setText(emailData.getMessage(), true);
+    private EmailData toEmailData(EmailFormDTO form, List<MultipartFile> files, String recipient) {
+        return EmailData.builder()
+                .recipient(recipient)
+                .emailSubject(createEmailSubject(form))
+                .files(files)
+                .organizationName(form.getOrganizationName())
+                .responsibleContact(form.getResponsibleContact())
+                .subject(form.getSubject())
+                .referencePeriod(form.getReferencePeriod())
+                .dataDescription(form.getDataDescription())
+                .lgpdCompliance(form.getLgpdCompliance())
+                .attemptCount(0)
+                .build();
+    }
 
-        // Anexar arquivos CSV
-        if (emailData.getFiles() != null && !emailData.getFiles().isEmpty()) {
-            for (MultipartFile file : emailData.getFiles()) {
-                ByteArrayResource resource = new ByteArrayResource(file.getBytes());
-                helper.addAttachment(file.getOriginalFilename(), resource);
+    private EmailResponseDTO toBatchResult(BatchEntry entry, List<MultipartFile> files,
+            List<CsvFileStatsDTO> fileStats) {
+        boolean success = entry.error == null;
+        return EmailResponseDTO.builder()
+                .status(success ? SendStatus.SUCCESS.name() : SendStatus.ERROR.name())
+                .message(success ? "Email enviado com sucesso" : "Falha ao enviar email: " + entry.error.getMessage())
+                .sendDate(LocalDateTime.now())
+                .recipient(entry.emailData.getRecipient())
+                .fileCount(files.size())
+                .fileNames(files.stream().map(MultipartFile::getOriginalFilename).collect(Collectors.toList()))
+                .fileStats(fileStats)
+                .build();
+    }
+
+    /**
+     * Registra o resultado de cada item do lote e grava as auditorias juntas
+     */
+    private void saveBatchAudit(List<BatchEntry> entries) {
+        List<EmailAudit> audits = new ArrayList<>(entries.size());
+        for (BatchEntry entry : entries) {
+            if (entry.error == null) {
+                emailStatsService.record(SendStatus.SUCCESS, null);
+                audits.add(toAudit(entry.emailData, SendStatus.SUCCESS, null, null));
+                continue;
             }
+            SendErrorCode errorCode = SendErrorCode.classify(entry.error);
+            emailMetrics.recordFailure(entry.error, errorCode);
+            emailStatsService.record(SendStatus.ERROR, errorCode);
+            audits.add(toAudit(entry.emailData, SendStatus.ERROR, errorCode, entry.error.getMessage()));
+        }
+        try {
+            emailMetrics.stage(EmailMetrics.STAGE_AUDIT, () -> {
+                emailAuditWriter.submitAll(audits);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Erro ao salvar auditoria do lote: {}", e.getMessage(), e);
         }
-
-        mailSender.send(mimeMessage);
-        log.info("Email enviado com sucesso para: {}", emailData.getRecipient());
     }
 
     /**
      * Salva registro de auditoria do envio
      */
-    private void saveAudit(EmailData emailData, String status) {
+    private void saveAudit(EmailData emailData, SendStatus status, SendErrorCode errorCode, String errorDetail) {
+        emailStatsService.record(status, errorCode);
         try {
-            EmailAudit audit = emailMapper.toEmailAudit(emailData, status);
-            emailAuditRepository.save(audit);
+            emailMetrics.stage(EmailMetrics.STAGE_AUDIT, () -> {
+                EmailAudit audit = toAudit(emailData, status, errorCode, errorDetail);
+                emailAuditWriter.submit(audit);
+                return audit;
+            });
         } catch (Exception e) {
             log.error("Erro ao salvar auditoria: {}", e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    private EmailAudit toAudit(EmailData emailData, SendStatus status, SendErrorCode errorCode, String errorDetail) {
+        EmailAudit audit = emailMapper.toEmailAudit(emailData, status);
+        audit.setErrorCode(errorCode);
+        audit.setErrorDetail(errorDetail);
+        return audit;
+    }
+
+    /**
+     * Estado de um item durante o envio em lote
+     */
+    private static final class BatchEntry {
+
+        private final EmailFormDTO form;
+        private final EmailData emailData;
+        private MimeMessage mimeMessage;
+        private Exception error;
+
+        BatchEntry(EmailFormDTO form, EmailData emailData) {
+            this.form = form;
+            this.emailData = emailData;
+        }
+    }
+}
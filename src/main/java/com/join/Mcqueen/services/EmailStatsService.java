@@ -0,0 +1,124 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.EmailStatsDTO;
+import com.join.Mcqueen.domain.models.SendErrorCode;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores em memória de envios por status e por código de erro, de modo que
+ * a consulta das estatísticas não acessa o banco. São carregados do banco na
+ * inicialização (antes de a aplicação aceitar requisições), incrementados a
+ * cada envio desta instância e recarregados do banco a cada
+ * refresh-interval-ms e após a retenção remover registros.
+ * <p>
+ * Os totais são aproximados entre recargas: os incrementos são só os desta
+ * instância, e os envios das demais instâncias entram na recarga seguinte. O
+ * mesmo vale para os envios registrados durante uma recarga que a auditoria em
+ * segundo plano ainda não gravou.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailStatsService {
+
+    private final EmailAuditRepository emailAuditRepository;
+
+    private volatile Counters counters;
+
+    @PostConstruct
+    void seed() {
+        counters = load();
+        log.info("Contadores de envio carregados: {}", snapshot(counters.byStatus));
+    }
+
+    /**
+     * Substitui os contadores pelos totais atuais do banco
+     */
+    @Scheduled(fixedDelayString = "${app.audit.stats.refresh-interval-ms:300000}",
+            initialDelayString = "${app.audit.stats.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            counters = load();
+            log.debug("Contadores de envio recarregados: {}", snapshot(counters.byStatus));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao recarregar os contadores de envio: {}", e.getMessage());
+        }
+    }
+
+    private Counters load() {
+        Counters loaded = new Counters(LocalDateTime.now());
+        for (Object[] row : emailAuditRepository.countByStatusAndErrorCode()) {
+            SendStatus status = (SendStatus) row[0];
+            SendErrorCode errorCode = (SendErrorCode) row[1];
+            long count = ((Number) row[2]).longValue();
+            loaded.byStatus.get(status).add(count);
+            if (errorCode != null) {
+                loaded.byErrorCode.get(errorCode).add(count);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Registra o resultado de uma tentativa de envio
+     */
+    public void record(SendStatus status, SendErrorCode errorCode) {
+        Counters current = counters;
+        current.byStatus.get(status).increment();
+        if (errorCode != null) {
+            current.byErrorCode.get(errorCode).increment();
+        }
+    }
+
+    public EmailStatsDTO getStats() {
+        Counters current = counters;
+        Map<String, Long> statusTotals = snapshot(current.byStatus);
+        return EmailStatsDTO.builder()
+                .total(statusTotals.values().stream().mapToLong(Long::longValue).sum())
+                .byStatus(statusTotals)
+                .byErrorCode(snapshot(current.byErrorCode))
+                .since(current.since)
+                .build();
+    }
+
+    private static <E extends Enum<E>> Map<E, LongAdder> newCounters(Class<E> type) {
+        Map<E, LongAdder> counters = new EnumMap<>(type);
+        for (E key : type.getEnumConstants()) {
+            counters.put(key, new LongAdder());
+        }
+        return counters;
+    }
+
+    /**
+     * Totais de uma carga do banco. Chaves fixas (enums): os mapas são preenchidos
+     * na criação e só lidos depois; a recarga troca o objeto inteiro.
+     */
+    private static final class Counters {
+
+        private final Map<SendStatus, LongAdder> byStatus = newCounters(SendStatus.class);
+        private final Map<SendErrorCode, LongAdder> byErrorCode = newCounters(SendErrorCode.class);
+        private final LocalDateTime since;
+
+        Counters(LocalDateTime since) {
+            this.since = since;
+        }
+    }
+
+    private static <E extends Enum<E>> Map<String, Long> snapshot(Map<E, LongAdder> counters) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        counters.forEach((key, counter) -> values.put(key.name(), counter.sum()));
+        return values;
+    }
+}
@@ -0,0 +1,178 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import com.join.Mcqueen.templates.CompiledTemplate;
+import com.join.Mcqueen.templates.RenderedEmail;
+import com.join.Mcqueen.templates.TemplateCompiler;
+import com.join.Mcqueen.templates.TemplateModel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Templates dos emails. Cada tipo de formulário tem um par de arquivos
+ * {@code <tipo>.html} e {@code <tipo>.txt} em app.email.templates.location,
+ * compilados uma vez e mantidos em cache. Com hot-reload ativo, os arquivos são
+ * verificados periodicamente e recompilados quando mudam, sem reiniciar a
+ * aplicação; um template com erro mantém a versão anterior em uso.
+ */
+@Slf4j
+@Service
+public class EmailTemplateService {
+
+    /** Template do formulário de envio de dados */
+    public static final String FORM_TEMPLATE = "formulario";
+
+    /** Variáveis disponíveis nos templates */
+    static final Set<String> VARIABLES = Set.of("organizationName", "responsibleContact", "subject",
+            "referencePeriod", "dataDescription", "lgpdCompliance");
+
+    private final ResourcePatternResolver resourceResolver;
+    private final String location;
+    private final boolean hotReload;
+
+    private volatile Templates templates;
+    /** Versão dos arquivos que falhou na última recarga, para não repetir o erro a cada verificação */
+    private volatile Map<String, Long> rejectedFingerprint;
+
+    public EmailTemplateService(ResourceLoader resourceLoader,
+            @Value("${app.email.templates.location:classpath:templates/email/}") String location,
+            @Value("${app.email.templates.hot-reload:false}") boolean hotReload) {
+        this.resourceResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.hotReload = hotReload;
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        templates = compileAll(scan());
+        log.info("Templates de email carregados de {}: {}{}", location, templates.byName().keySet(),
+                hotReload ? " (hot-reload ativo)" : "");
+    }
+
+    /**
+     * Renderiza as variantes HTML e texto do template com os dados do formulário
+     */
+    public RenderedEmail render(String templateName, EmailFormDTO form) {
+        Variants variants = templates.byName().get(templateName);
+        if (variants == null) {
+            throw new IllegalArgumentException("Template de email desconhecido: " + templateName);
+        }
+        TemplateModel model = modelOf(form);
+        return new RenderedEmail(variants.html().render(model), variants.text().render(model));
+    }
+
+    /**
+     * Tipos de template disponíveis
+     */
+    public Set<String> getTemplateNames() {
+        return templates.byName().keySet();
+    }
+
+    /**
+     * Recompila os templates se algum arquivo foi criado, alterado ou removido
+     */
+    @Scheduled(fixedDelayString = "${app.email.templates.reload-interval-ms:2000}")
+    void reloadIfChanged() {
+        if (!hotReload) {
+            return;
+        }
+        Map<String, Long> fingerprint = null;
+        try {
+            Map<String, Resource> resources = scan();
+            fingerprint = fingerprint(resources);
+            if (fingerprint.equals(templates.fingerprint()) || fingerprint.equals(rejectedFingerprint)) {
+                return;
+            }
+            templates = compileAll(resources);
+            rejectedFingerprint = null;
+            log.info("Templates de email recarregados: {}", templates.byName().keySet());
+        } catch (IOException | IllegalArgumentException e) {
+            rejectedFingerprint = fingerprint;
+            log.error("Falha ao recarregar templates de email, mantendo a versão anterior: {}", e.getMessage());
+        }
+    }
+
+    private static TemplateModel modelOf(EmailFormDTO form) {
+        return name -> switch (name) {
+            case "organizationName" -> form.getOrganizationName();
+            case "responsibleContact" -> form.getResponsibleContact();
+            case "subject" -> form.getSubject();
+            case "referencePeriod" -> form.getReferencePeriod();
+            case "dataDescription" -> form.getDataDescription();
+            case "lgpdCompliance" -> form.getLgpdCompliance();
+            default -> null;
+        };
+    }
+
+    /**
+     * Arquivos de template por nome (ex.: formulario.html)
+     */
+    private Map<String, Resource> scan() throws IOException {
+        Map<String, Resource> resources = new TreeMap<>();
+        for (String extension : new String[] { "html", "txt" }) {
+            for (Resource resource : resourceResolver.getResources(location + "*." + extension)) {
+                if (resource.isReadable() && resource.getFilename() != null) {
+                    resources.put(resource.getFilename(), resource);
+                }
+            }
+        }
+        return resources;
+    }
+
+    private Templates compileAll(Map<String, Resource> resources) throws IOException {
+        Map<String, CompiledTemplate> html = new HashMap<>();
+        Map<String, CompiledTemplate> text = new HashMap<>();
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            String fileName = entry.getKey();
+            String source = entry.getValue().getContentAsString(StandardCharsets.UTF_8);
+            boolean isHtml = fileName.endsWith(".html");
+            String name = fileName.substring(0, fileName.lastIndexOf('.'));
+            (isHtml ? html : text).put(name, TemplateCompiler.compile(fileName, source, isHtml, VARIABLES));
+        }
+
+        Map<String, Variants> byName = new HashMap<>();
+        for (String name : html.keySet()) {
+            if (!text.containsKey(name)) {
+                throw new IllegalArgumentException("Template " + name + " sem a variante de texto (" + name + ".txt)");
+            }
+            byName.put(name, new Variants(html.get(name), text.get(name)));
+        }
+        for (String name : text.keySet()) {
+            if (!html.containsKey(name)) {
+                throw new IllegalArgumentException("Template " + name + " sem a variante HTML (" + name + ".html)");
+            }
+        }
+        if (!byName.containsKey(FORM_TEMPLATE)) {
+            throw new IllegalArgumentException("Template obrigatório " + FORM_TEMPLATE + " não encontrado em " + location);
+        }
+        return new Templates(Map.copyOf(byName), fingerprint(resources));
+    }
+
+    private static Map<String, Long> fingerprint(Map<String, Resource> resources) throws IOException {
+        Map<String, Long> fingerprint = new HashMap<>();
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            fingerprint.put(entry.getKey(), entry.getValue().lastModified());
+        }
+        return fingerprint;
+    }
+
+    private record Variants(CompiledTemplate html, CompiledTemplate text) {
+    }
+
+    private record Templates(Map<String, Variants> byName, Map<String, Long> fingerprint) {
+    }
+}
@@ -0,0 +1,348 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.models.IdempotencyRecord;
+import com.join.Mcqueen.domain.models.IdempotencyStatus;
+import com.join.Mcqueen.exceptions.IdempotencyConflictException;
+import com.join.Mcqueen.repositories.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotência dos endpoints de envio (cabeçalho Idempotency-Key). O primeiro
+ * pedido com uma chave executa o envio; pedidos concorrentes com a mesma chave
+ * aguardam o resultado dele, e os posteriores recebem a resposta guardada sem
+ * reenviar. Os resultados ficam em um cache em memória limitado, com expiração,
+ * e na tabela email_idempotency, que coordena instâncias diferentes e sobrevive
+ * ao reinício. Falhas não são guardadas: o pedido pode ser repetido com a
+ * mesma chave.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    /** Tamanho máximo aceito para a chave */
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.wait-timeout-ms:120000}")
+    private long waitTimeoutMillis;
+
+    @Value("${app.idempotency.poll-interval-ms:200}")
+    private long pollIntervalMillis;
+
+    @Value("${app.idempotency.in-progress-timeout-ms:600000}")
+    private long inProgressTimeoutMillis;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resultado do pedido e se ele veio de uma execução anterior
+     */
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    /**
+     * Executa a ação uma única vez por chave
+     *
+     * @param fingerprint hash do conteúdo do pedido (ver {@link #fingerprint(List)})
+     * @param type        tipo da resposta, para ler a resposta guardada no banco
+     */
+    public <T> Result<T> execute(String key, String fingerprint, Class<T> type, Supplier<T> action) {
+        return execute(key, fingerprint, () -> null, type, action);
+    }
+
+    /**
+     * Como {@link #execute(String, String, Class, Supplier)}, com um hash do
+     * conteúdo que só é calculado quando a chave é nova, antes da ação, e fica
+     * guardado no registro. Repetições são reconhecidas apenas pelo fingerprint,
+     * que deve ser barato (ex.: nome e tamanho dos arquivos em vez do conteúdo).
+     *
+     * @param contentHash chamado uma única vez por execução; pode retornar nulo
+     */
+    public <T> Result<T> execute(String key, String fingerprint, Supplier<String> contentHash, Class<T> type,
+            Supplier<T> action) {
+        validateKey(key);
+
+        Entry mine = new Entry(fingerprint);
+        Entry existing = claimLocally(key, mine);
+        if (existing != null) {
+            checkFingerprint(key, existing.fingerprint, fingerprint);
+            log.info("Pedido repetido com Idempotency-Key {}, aguardando o original", key);
+            return new Result<>(type.cast(await(key, existing.future)), true);
+        }
+
+        IdempotencyRecord record = null;
+        try {
+            record = claimInDatabase(key, fingerprint);
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                T value = objectMapper.readValue(record.getResponse(), type);
+                mine.complete(value, record.getExpiresAt());
+                return new Result<>(value, true);
+            }
+
+            record.setContentHash(contentHash.get());
+            T value = action.get();
+            complete(record, value);
+            mine.complete(value, record.getExpiresAt());
+            return new Result<>(value, false);
+
+        } catch (RuntimeException e) {
+            // Sem resultado guardado: a chave fica livre para nova tentativa
+            if (record != null && record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+                release(record);
+            }
+            cache.remove(key, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        } catch (JsonProcessingException e) {
+            cache.remove(key, mine);
+            IllegalStateException error = new IllegalStateException(
+                    "Resposta guardada para a Idempotency-Key " + key + " é inválida", e);
+            mine.future.completeExceptionally(error);
+            throw error;
+        }
+    }
+
+    /**
+     * Hash SHA-256 das partes do pedido, na ordem informada
+     */
+    public static String fingerprint(List<?> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // Algoritmo obrigatório em toda JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Remove as chaves expiradas do cache e do banco
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        cache.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        int removed = repository.deleteExpired(now);
+        if (removed > 0) {
+            log.debug("{} chaves de idempotência expiradas removidas", removed);
+        }
+    }
+
+    private static void validateKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+        }
+    }
+
+    private static void checkFingerprint(String key, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyConflictException(
+                    "Idempotency-Key " + key + " já foi usada em um pedido com outro conteúdo");
+        }
+    }
+
+    /**
+     * Registra a chave no cache; retorna a entrada existente se outro pedido já a registrou
+     */
+    private Entry claimLocally(String key, Entry mine) {
+        LocalDateTime now = LocalDateTime.now();
+        Entry existing = cache.compute(key,
+                (k, current) -> current == null || current.isExpired(now) ? mine : current);
+        if (existing == mine) {
+            evictIfFull(now);
+            return null;
+        }
+        return existing;
+    }
+
+    /**
+     * Acima do limite, descarta primeiro as entradas expiradas e depois as
+     * concluídas mais antigas; pedidos em andamento nunca são descartados
+     */
+    private void evictIfFull(LocalDateTime now) {
+        if (cache.size() <= maxEntries) {
+            return;
+        }
+        cache.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        int excess = cache.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        cache.entrySet().stream()
+                .filter(entry -> entry.getValue().expiresAt != null)
+                .sorted(Comparator.comparing(entry -> entry.getValue().expiresAt))
+                .limit(excess)
+                .toList()
+                .forEach(entry -> cache.remove(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Registra a chave no banco como IN_PROGRESS, ou retorna o registro concluído
+     * por outra instância. Se outra instância estiver processando a chave,
+     * aguarda até a conclusão; um registro em andamento há mais que
+     * in-progress-timeout é considerado abandonado (ex.: queda) e assumido.
+     */
+    private IdempotencyRecord claimInDatabase(String key, String fingerprint) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            IdempotencyRecord record = repository.findById(key).orElse(null);
+
+            if (record != null && (record.getExpiresAt().isBefore(now) || isAbandoned(record, now))) {
+                try {
+                    repository.delete(record);
+                } catch (OptimisticLockingFailureException e) {
+                    // Outra instância atualizou ou removeu o registro antes
+                }
+                continue;
+            }
+
+            if (record == null) {
+                try {
+                    return repository.saveAndFlush(IdempotencyRecord.builder()
+                            .key(key)
+                            .fingerprint(fingerprint)
+                            .status(IdempotencyStatus.IN_PROGRESS)
+                            .createdAt(now)
+                            .expiresAt(now.plusHours(ttlHours))
+                            .build());
+                } catch (DataIntegrityViolationException e) {
+                    // Outra instância registrou a chave ao mesmo tempo
+                    continue;
+                }
+            }
+
+            checkFingerprint(key, record.getFingerprint(), fingerprint);
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                return record;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw inProgress(key);
+            }
+            sleep(key);
+        }
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record, LocalDateTime now) {
+        return record.getStatus() == IdempotencyStatus.IN_PROGRESS
+                && record.getCreatedAt().plus(Duration.ofMillis(inProgressTimeoutMillis)).isBefore(now);
+    }
+
+    private void complete(IdempotencyRecord record, Object value) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            record.setStatus(IdempotencyStatus.COMPLETED);
+            record.setResponse(objectMapper.writeValueAsString(value));
+            record.setExpiresAt(now.plusHours(ttlHours));
+            repository.save(record);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // O envio já aconteceu: a resposta segue para o cliente e o cache local ainda cobre as repetições
+            log.error("Não foi possível guardar a resposta da Idempotency-Key {}: {}", record.getKey(),
+                    e.getMessage(), e);
+        }
+    }
+
+    private void release(IdempotencyRecord record) {
+        try {
+            repository.deleteById(record.getKey());
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível liberar a Idempotency-Key {}: {}", record.getKey(), e.getMessage());
+        }
+    }
+
+    private Object await(String key, CompletableFuture<Object> future) {
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress(key);
+        }
+    }
+
+    private void sleep(String key) {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress(key);
+        }
+    }
+
+    private static IdempotencyConflictException inProgress(String key) {
+        return new IdempotencyConflictException(
+                "O pedido original com a Idempotency-Key " + key + " ainda está em processamento");
+    }
+
+    /**
+     * Pedido registrado no cache: em andamento até o future ser concluído
+     */
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        /** Nulo enquanto em andamento */
+        private volatile LocalDateTime expiresAt;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void complete(Object value, LocalDateTime expiresAt) {
+            this.expiresAt = expiresAt;
+            future.complete(value);
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            LocalDateTime expiry = expiresAt;
+            return expiry != null && expiry.isBefore(now);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.domain.models.EmailData;
+import com.join.Mcqueen.domain.models.PreparedAttachment;
+import com.join.Mcqueen.storage.EncodedFileDataSource;
+import jakarta.activation.DataHandler;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeUtility;
+import jakarta.mail.internet.PreencodedMimeBodyPart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Monta a MimeMessage a partir dos dados do email
+ */
+@Component
+@RequiredArgsConstructor
+public class MimeMessageAssembler {
+
+    private final JavaMailSender mailSender;
+
+    /**
+     * Cria a mensagem com corpo HTML (e a variante em texto, se houver) e anexos.
+     * Os anexos preparados pelo AttachmentPipeline já estão em disco codificados
+     * em base64 (comprimidos ou vindos do repositório de anexos) e entram como
+     * PreencodedMimeBodyPart, copiados para o SMTP sem nova codificação. Os
+     * repassados sem alteração, e os uploads quando não há anexos preparados,
+     * são referenciados pelo próprio MultipartFile e codificados em blocos
+     * durante o envio. Em nenhum caso o conteúdo é copiado inteiro para a heap.
+     */
+    public MimeMessage assemble(EmailData emailData) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+        helper.setFrom("gabriel.almeida1@sad.pe.gov.br"); // Usar mesmo email da autenticação
+        helper.setTo(emailData.getRecipient());
+        helper.setSubject(emailData.getEmailSubject());
+        if (emailData.getTextMessage() != null) {
+            // multipart/alternative: o cliente escolhe entre texto e HTML
+            helper.setText(emailData.getTextMessage(), emailData.getMessage());
+        } else {
+            helper.setText(emailData.getMessage(), true);
+        }
+
+        // Anexar arquivos CSV
+        if (emailData.getPreparedAttachments() != null) {
+            for (PreparedAttachment attachment : emailData.getPreparedAttachments()) {
+                addAttachment(helper, attachment, emailData);
+            }
+        } else if (emailData.getFiles() != null && !emailData.getFiles().isEmpty()) {
+            for (MultipartFile file : emailData.getFiles()) {
+                helper.addAttachment(file.getOriginalFilename(), file);
+            }
+        }
+
+        return mimeMessage;
+    }
+
+    /**
+     * Anexa um arquivo vindo do pipeline. Conteúdo pré-codificado entra como
+     * PreencodedMimeBodyPart e é copiado do disco sem nova codificação.
+     */
+    private void addAttachment(MimeMessageHelper helper, PreparedAttachment attachment, EmailData emailData)
+            throws MessagingException {
+        if (attachment.getEncodedFile() == null) {
+            helper.addAttachment(attachment.getFileName(), attachment.getSource());
+            return;
+        }
+
+        String contentType = attachment.getContentType() != null ? attachment.getContentType()
+                : withCharset(helper.getFileTypeMap().getContentType(attachment.getFileName()), attachment, emailData);
+
+        PreencodedMimeBodyPart part = new PreencodedMimeBodyPart("base64");
+        // Definido antes do updateHeaders para o JavaMail não reler o conteúdo tentando escolher a codificação
+        part.setHeader("Content-Transfer-Encoding", "base64");
+        part.setDisposition(Part.ATTACHMENT);
+        try {
+            part.setFileName(helper.isEncodeFilenames()
+                    ? MimeUtility.encodeText(attachment.getFileName())
+                    : attachment.getFileName());
+        } catch (UnsupportedEncodingException e) {
+            throw new MessagingException("Falha ao codificar nome do anexo", e);
+        }
+        part.setDataHandler(new DataHandler(
+                new EncodedFileDataSource(attachment.getEncodedFile(), attachment.getFileName(), contentType)));
+        helper.getRootMimeMultipart().addBodyPart(part);
+    }
+
+    /**
+     * CSV pré-codificado sem compressão: o JavaMail não consegue inferir o charset
+     * de conteúdo em base64, então usa a codificação detectada na validação
+     */
+    private static String withCharset(String contentType, PreparedAttachment attachment, EmailData emailData) {
+        if (!contentType.startsWith("text/") || contentType.contains("charset") || emailData.getFileStats() == null) {
+            return contentType;
+        }
+        for (CsvFileStatsDTO stats : emailData.getFileStats()) {
+            if (stats.getFileName() != null && stats.getFileName().equals(attachment.getOriginalFileName())
+                    && stats.getEncoding() != null) {
+                return contentType + "; charset=" + stats.getEncoding().replace(" (BOM)", "");
+            }
+        }
+        return contentType;
+    }
+}
@@ -0,0 +1,235 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Janela em memória dos emails das últimas window-hours horas, servida por
+ * /emails/recent, com o resumo de cada registro (as colunas TEXT ficam de fora
+ * da memória e da resposta). O gravador da auditoria acrescenta cada registro gravado, os
+ * registros mais antigos que a janela são descartados a cada leitura, e a lista
+ * serializada em JSON é guardada junto com o seu ETag, de modo que as consultas
+ * repetidas não acessam o banco nem serializam a lista novamente. O ETag é o
+ * hash da lista serializada: janelas iguais têm o mesmo ETag em todas as
+ * instâncias e após reinícios, e If-None-Match continua valendo quando o
+ * balanceador alterna entre instâncias.
+ * <p>
+ * A janela é carregada do banco na primeira consulta e recarregada a cada
+ * refresh-interval-ms, o que inclui registros gravados por outras instâncias.
+ * A recarga é feita por uma única thread: as demais continuam servindo a lista
+ * atual, ou aguardam a mesma recarga quando ainda não há lista carregada.
+ */
+@Slf4j
+@Component
+public class RecentEmailsCache {
+
+    /** Do mais recente para o mais antigo; o id desempata */
+    private static final Comparator<EmailAuditSummaryDTO> NEWEST_FIRST = Comparator
+            .comparing(EmailAuditSummaryDTO::getSendDate, Comparator.reverseOrder())
+            .thenComparing(EmailAuditSummaryDTO::getId, Comparator.reverseOrder());
+
+    private final EmailAuditRepository emailAuditRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.audit.recent.window-hours:24}")
+    private int windowHours;
+
+    @Value("${app.audit.recent.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.audit.recent.refresh-interval-ms:60000}")
+    private long refreshIntervalMillis;
+
+    // Protegidos pelo monitor de entries
+    private final TreeSet<EmailAuditSummaryDTO> entries = new TreeSet<>(NEWEST_FIRST);
+    private final Map<Long, EmailAuditSummaryDTO> byId = new HashMap<>();
+    private long version;
+    private Snapshot snapshot;
+    private long snapshotVersion = -1;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile long loadedAtNanos;
+    private volatile boolean loaded;
+
+    private Counter refreshes;
+
+    public RecentEmailsCache(EmailAuditRepository emailAuditRepository, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.emailAuditRepository = emailAuditRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        refreshes = Counter.builder("mcqueen.audit.recent.refreshes")
+                .description("Recargas da janela de emails recentes a partir do banco")
+                .register(meterRegistry);
+        Gauge.builder("mcqueen.audit.recent.size", this, RecentEmailsCache::size)
+                .description("Registros na janela de emails recentes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lista serializada e ETag correspondente
+     */
+    public record Snapshot(String etag, byte[] body) {
+    }
+
+    /**
+     * Lista atual dos emails recentes, do mais recente para o mais antigo
+     */
+    public Snapshot get() {
+        refreshIfStale();
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(windowHours);
+        synchronized (entries) {
+            // Descarta os registros que saíram da janela
+            while (!entries.isEmpty() && entries.last().getSendDate().isBefore(cutoff)) {
+                removeOldest();
+            }
+            if (snapshotVersion != version) {
+                byte[] body = serialize(new ArrayList<>(entries));
+                snapshot = new Snapshot(etag(body), body);
+                snapshotVersion = version;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Acrescenta registros recém-gravados (já com id) à janela
+     */
+    public void onWritten(List<EmailAudit> audits) {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(windowHours);
+        synchronized (entries) {
+            for (EmailAudit audit : audits) {
+                if (audit.getId() != null && audit.getSendDate() != null && !audit.getSendDate().isBefore(cutoff)) {
+                    add(EmailAuditSummaryDTO.from(audit));
+                }
+            }
+            trim();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void refreshIfStale() {
+        if (loaded && !isStale()) {
+            return;
+        }
+        // Com a janela já carregada, quem não conseguir a trava serve a lista atual
+        if (loaded) {
+            if (!refreshLock.tryLock()) {
+                return;
+            }
+        } else {
+            refreshLock.lock();
+        }
+        try {
+            // Outra thread pode ter concluído a recarga enquanto esta aguardava
+            if (loaded && !isStale()) {
+                return;
+            }
+            refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private boolean isStale() {
+        return System.nanoTime() - loadedAtNanos >= TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+    }
+
+    /**
+     * Acrescenta à janela os registros do banco. Registros não são removidos da
+     * tabela dentro da janela, então a união com o que já está em memória
+     * preserva o que foi gravado durante a consulta.
+     */
+    private void refresh() {
+        long started = System.nanoTime();
+        List<EmailAuditSummaryDTO> rows = emailAuditRepository.findRecentSummaries(
+                LocalDateTime.now().minusHours(windowHours));
+        int added = 0;
+        synchronized (entries) {
+            for (EmailAuditSummaryDTO row : rows) {
+                if (add(row)) {
+                    added++;
+                }
+            }
+            trim();
+        }
+        loadedAtNanos = System.nanoTime();
+        loaded = true;
+        refreshes.increment();
+        log.debug("Janela de emails recentes recarregada: {} registros do banco, {} novos ({} ms)", rows.size(),
+                added, (loadedAtNanos - started) / 1_000_000);
+    }
+
+    /** Acrescenta o registro se o id ainda não estiver na janela */
+    private boolean add(EmailAuditSummaryDTO summary) {
+        if (byId.putIfAbsent(summary.getId(), summary) != null) {
+            return false;
+        }
+        entries.add(summary);
+        version++;
+        return true;
+    }
+
+    private void removeOldest() {
+        byId.remove(entries.pollLast().getId());
+        version++;
+    }
+
+    /** Mantém no máximo max-entries registros, descartando os mais antigos */
+    private void trim() {
+        while (entries.size() > maxEntries) {
+            removeOldest();
+        }
+    }
+
+    /** Primeiros 128 bits do SHA-256 da lista serializada */
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private byte[] serialize(List<EmailAuditSummaryDTO> summaries) {
+        try {
+            return objectMapper.writeValueAsBytes(summaries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar os emails recentes", e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.join.Mcqueen.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Repositório de anexos endereçado por conteúdo. Cada anexo é guardado uma
+ * única vez, já codificado em base64 (pronto para PreencodedMimeBodyPart), com
+ * o nome {@code <sha256>.<variante>.b64} em subdiretórios pelos dois primeiros
+ * caracteres do hash. Reenvios do mesmo arquivo reaproveitam a parte MIME sem
+ * reler nem recodificar o upload.
+ * <p>
+ * A data de modificação do arquivo marca o último uso. A coleta periódica
+ * remove os anexos sem uso há mais de max-age e, se o total passar de
+ * max-bytes, os menos usados recentemente; anexos em uso por um envio em
+ * andamento nunca são removidos.
+ */
+@Slf4j
+@Component
+public class AttachmentStore {
+
+    private static final String SUFFIX = ".b64";
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Temporários mais antigos que isso são sobras de gravações interrompidas */
+    private static final Duration TEMP_MAX_AGE = Duration.ofHours(1);
+
+    @Value("${app.email.attachments.store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.email.attachments.store.dir:${java.io.tmpdir}/mcqueen-store}")
+    private String dir;
+
+    @Value("${app.email.attachments.store.max-age-hours:168}")
+    private long maxAgeHours;
+
+    @Value("${app.email.attachments.store.max-bytes:1073741824}")
+    private long maxBytes;
+
+    /** Referências de envios em andamento por chave; a coleta ignora chaves presentes */
+    private final Map<String, Integer> inUse = new ConcurrentHashMap<>();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public AttachmentStore(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("mcqueen.attachments.store.requests")
+                .description("Anexos buscados no repositório por conteúdo")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("mcqueen.attachments.store.requests")
+                .description("Anexos buscados no repositório por conteúdo")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("mcqueen.attachments.store.bytes", storedBytes, AtomicLong::get)
+                .description("Espaço ocupado pelo repositório de anexos na última coleta")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Grava o conteúdo codificado de um anexo
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(Path target) throws IOException;
+    }
+
+    /**
+     * Anexo obtido do repositório. A referência deve ser devolvida com
+     * {@link #release(Entry)} ao fim do envio.
+     */
+    public record Entry(String key, Path path, boolean hit) {
+    }
+
+    /**
+     * Obtém o anexo codificado para o hash e a variante (ex.: "raw", "gz"),
+     * gravando-o com o writer se ainda não existir. Gravações concorrentes do
+     * mesmo conteúdo são seguras: a primeira a concluir prevalece.
+     */
+    public Entry acquire(String sha256, String variant, Writer writer) throws IOException {
+        String key = sha256 + "." + variant;
+        inUse.merge(key, 1, Integer::sum);
+        try {
+            Path path = pathOf(key);
+            if (touch(path)) {
+                hits.increment();
+                return new Entry(key, path, true);
+            }
+
+            misses.increment();
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), key + "-", TEMP_SUFFIX);
+            try {
+                writer.write(temp);
+                moveIntoPlace(temp, path);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return new Entry(key, path, false);
+        } catch (IOException | RuntimeException e) {
+            release(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Devolve a referência obtida em {@link #acquire}
+     */
+    public void release(Entry entry) {
+        release(entry.key());
+    }
+
+    /**
+     * Tamanho do conteúdo antes da codificação, a partir do arquivo base64 (linhas
+     * de 76 caracteres separadas por CRLF, sem quebra final)
+     */
+    public static long decodedLength(Path encoded) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(encoded.toFile(), "r")) {
+            long size = file.length();
+            if (size == 0) {
+                return 0;
+            }
+            long fullLines = (size + 2) / 78;
+            long chars = (size + 2) % 78 == 0 ? size + 2 - 2 * fullLines : size - 2 * fullLines;
+            file.seek(size - 2);
+            int padding = (file.read() == '=' ? 1 : 0) + (file.read() == '=' ? 1 : 0);
+            return chars / 4 * 3 - padding;
+        }
+    }
+
+    /**
+     * Remove anexos sem uso há mais de max-age e, acima do limite de espaço, os
+     * usados há mais tempo
+     */
+    @Scheduled(fixedDelayString = "${app.email.attachments.store.gc-interval-ms:3600000}",
+            initialDelayString = "${app.email.attachments.store.gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        Path root = Paths.get(dir);
+        if (!enabled || !Files.isDirectory(root)) {
+            return;
+        }
+
+        List<Blob> blobs = new ArrayList<>();
+        Instant now = Instant.now();
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path path : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = path.getFileName().toString();
+                try {
+                    Instant modified = Files.getLastModifiedTime(path).toInstant();
+                    if (name.endsWith(TEMP_SUFFIX)) {
+                        if (modified.isBefore(now.minus(TEMP_MAX_AGE))) {
+                            Files.deleteIfExists(path);
+                        }
+                    } else if (name.endsWith(SUFFIX)) {
+                        blobs.add(new Blob(name.substring(0, name.length() - SUFFIX.length()), path, modified,
+                                Files.size(path)));
+                    }
+                } catch (NoSuchFileException e) {
+                    // Removido durante a varredura
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Falha ao varrer o repositório de anexos {}: {}", root, e.getMessage());
+            return;
+        }
+
+        // Menos usados recentemente primeiro
+        blobs.sort(Comparator.comparing(Blob::lastUsed));
+        long total = blobs.stream().mapToLong(Blob::size).sum();
+        Instant expiry = now.minus(Duration.ofHours(maxAgeHours));
+        int removed = 0;
+        long freed = 0;
+        for (Blob blob : blobs) {
+            if (!blob.lastUsed().isBefore(expiry) && total <= maxBytes) {
+                break;
+            }
+            if (delete(blob)) {
+                total -= blob.size();
+                freed += blob.size();
+                removed++;
+            }
+        }
+        storedBytes.set(total);
+        if (removed > 0) {
+            log.info("Repositório de anexos: {} removidos ({} bytes), {} bytes em uso", removed, freed, total);
+        }
+    }
+
+    private void release(String key) {
+        inUse.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Remove o anexo se não estiver em uso. A verificação e a remoção ocorrem sob
+     * o mesmo bloqueio da chave que {@link #acquire} usa para registrar o uso.
+     */
+    private boolean delete(Blob blob) {
+        boolean[] deleted = { false };
+        inUse.compute(blob.key(), (key, count) -> {
+            if (count == null) {
+                try {
+                    deleted[0] = Files.deleteIfExists(blob.path());
+                } catch (IOException e) {
+                    log.warn("Não foi possível remover anexo {}: {}", blob.path(), e.getMessage());
+                }
+            }
+            return count;
+        });
+        return deleted[0];
+    }
+
+    /**
+     * Marca o anexo como usado agora; falso se ele não existir
+     */
+    private static boolean touch(Path path) throws IOException {
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException alreadyStored) {
+                // Outro envio gravou o mesmo conteúdo antes
+            }
+        }
+    }
+
+    private Path pathOf(String key) {
+        return Paths.get(dir, key.substring(0, 2), key + SUFFIX);
+    }
+
+    private record Blob(String key, Path path, Instant lastUsed, long size) {
+    }
+}
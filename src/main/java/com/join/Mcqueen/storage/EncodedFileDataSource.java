@@ -0,0 +1,45 @@
+package com.join.Mcqueen.storage;
+
+import jakarta.activation.DataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * DataSource somente leitura sobre um arquivo em disco com tipo de conteúdo explícito
+ */
+public class EncodedFileDataSource implements DataSource {
+
+    private final Path path;
+    private final String name;
+    private final String contentType;
+
+    public EncodedFileDataSource(Path path, String name, String contentType) {
+        this.path = path;
+        this.name = name;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new IOException("DataSource somente leitura: " + name);
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,154 @@
+package com.join.Mcqueen.templates;
+
+import java.util.List;
+
+/**
+ * Template já interpretado: uma lista de segmentos (texto fixo, variáveis e
+ * seções condicionais) percorrida a cada renderização, sem reprocessar o fonte.
+ * Imutável e seguro para uso concorrente.
+ */
+public final class CompiledTemplate {
+
+    private final String name;
+    private final Segment[] segments;
+
+    CompiledTemplate(String name, List<Segment> segments) {
+        this.name = name;
+        this.segments = segments.toArray(Segment[]::new);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Renderiza o template em um buffer dimensionado a partir do texto fixo e do
+     * tamanho dos valores, evitando realocações
+     */
+    public String render(TemplateModel model) {
+        int capacity = 0;
+        for (Segment segment : segments) {
+            capacity += segment.estimate(model);
+        }
+        StringBuilder out = new StringBuilder(capacity);
+        for (Segment segment : segments) {
+            segment.render(model, out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Parte do plano de renderização
+     */
+    sealed interface Segment permits Literal, Variable, Section {
+
+        void render(TemplateModel model, StringBuilder out);
+
+        /** Tamanho aproximado da saída, para dimensionar o buffer */
+        int estimate(TemplateModel model);
+    }
+
+    record Literal(String text) implements Segment {
+
+        @Override
+        public void render(TemplateModel model, StringBuilder out) {
+            out.append(text);
+        }
+
+        @Override
+        public int estimate(TemplateModel model) {
+            return text.length();
+        }
+    }
+
+    /**
+     * Valor de uma variável; em templates HTML o valor é sempre escapado
+     */
+    record Variable(String name, boolean escapeHtml, boolean newlineToBr) implements Segment {
+
+        @Override
+        public void render(TemplateModel model, StringBuilder out) {
+            Object value = model.get(name);
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            if (escapeHtml) {
+                appendEscaped(text, newlineToBr, out);
+            } else {
+                out.append(text);
+            }
+        }
+
+        @Override
+        public int estimate(TemplateModel model) {
+            Object value = model.get(name);
+            if (value == null) {
+                return 0;
+            }
+            int length = value.toString().length();
+            // Folga para entidades e <br> no HTML
+            return escapeHtml ? length + (length >> 3) : length;
+        }
+    }
+
+    /**
+     * Trecho exibido apenas se a variável for verdadeira (ou falsa, se invertida)
+     */
+    record Section(String name, boolean inverted, Segment[] children) implements Segment {
+
+        @Override
+        public void render(TemplateModel model, StringBuilder out) {
+            if (isTruthy(model.get(name)) != inverted) {
+                for (Segment child : children) {
+                    child.render(model, out);
+                }
+            }
+        }
+
+        @Override
+        public int estimate(TemplateModel model) {
+            if (isTruthy(model.get(name)) == inverted) {
+                return 0;
+            }
+            int total = 0;
+            for (Segment child : children) {
+                total += child.estimate(model);
+            }
+            return total;
+        }
+    }
+
+    static boolean isTruthy(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof CharSequence text) {
+            return !text.isEmpty();
+        }
+        return value != null;
+    }
+
+    static void appendEscaped(String text, boolean newlineToBr, StringBuilder out) {
+        int length = text.length();
+        // Trechos sem caracteres especiais são copiados de uma vez
+        int run = 0;
+        for (int i = 0; i < length; i++) {
+            String replacement = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                case '\r' -> newlineToBr ? "" : null;
+                case '\n' -> newlineToBr ? "<br>" : null;
+                default -> null;
+            };
+            if (replacement != null) {
+                out.append(text, run, i).append(replacement);
+                run = i + 1;
+            }
+        }
+        out.append(text, run, length);
+    }
+}
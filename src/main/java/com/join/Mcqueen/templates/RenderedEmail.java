@@ -0,0 +1,7 @@
+package com.join.Mcqueen.templates;
+
+/**
+ * Corpo do email nas duas variantes, HTML e texto puro
+ */
+public record RenderedEmail(String html, String text) {
+}
@@ -0,0 +1,166 @@
+package com.join.Mcqueen.templates;
+
+import com.join.Mcqueen.templates.CompiledTemplate.Literal;
+import com.join.Mcqueen.templates.CompiledTemplate.Section;
+import com.join.Mcqueen.templates.CompiledTemplate.Segment;
+import com.join.Mcqueen.templates.CompiledTemplate.Variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interpreta templates com a sintaxe:
+ * <ul>
+ * <li>{@code {{variavel}}} - valor da variável (escapado em templates HTML)</li>
+ * <li>{@code {{variavel|nl2br}}} - idem, trocando quebras de linha por {@code <br>} (só HTML)</li>
+ * <li>{@code {{#variavel}}...{{/variavel}}} - trecho exibido se a variável for verdadeira</li>
+ * <li>{@code {{^variavel}}...{{/variavel}}} - trecho exibido se a variável for falsa ou vazia</li>
+ * <li>{@code {{! comentário}}}</li>
+ * </ul>
+ * Tags de seção e comentários sozinhos na linha não deixam linha em branco na saída.
+ * Variáveis fora da lista permitida são rejeitadas na compilação.
+ */
+public final class TemplateCompiler {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private TemplateCompiler() {
+    }
+
+    /**
+     * Compila o fonte do template
+     *
+     * @param html      se true, os valores são escapados para HTML
+     * @param variables variáveis que o template pode usar
+     * @throws IllegalArgumentException se o template for inválido
+     */
+    public static CompiledTemplate compile(String name, String source, boolean html, Set<String> variables) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(null, false, 1));
+        int length = source.length();
+        int pos = 0;
+
+        while (pos < length) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                stack.peek().segments.add(new Literal(source.substring(pos)));
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw error(name, source, open, "tag sem fechamento '}}'");
+            }
+            String tag = source.substring(open + OPEN.length(), close).trim();
+            if (tag.isEmpty()) {
+                throw error(name, source, open, "tag vazia");
+            }
+            char kind = tag.charAt(0);
+            int textEnd = open;
+            int next = close + CLOSE.length();
+
+            if (kind == '#' || kind == '^' || kind == '/' || kind == '!') {
+                // Tag sozinha na linha: remove a linha inteira
+                int lineStart = source.lastIndexOf('\n', open - 1) + 1;
+                int lineEnd = source.indexOf('\n', next);
+                int afterLine = lineEnd < 0 ? length : lineEnd + 1;
+                if (lineStart >= pos && source.substring(lineStart, open).isBlank()
+                        && source.substring(next, lineEnd < 0 ? length : lineEnd).isBlank()) {
+                    textEnd = lineStart;
+                    next = afterLine;
+                }
+            }
+            if (textEnd > pos) {
+                stack.peek().segments.add(new Literal(source.substring(pos, textEnd)));
+            }
+
+            switch (kind) {
+                case '!' -> {
+                    // Comentário
+                }
+                case '#', '^' -> {
+                    String variable = tag.substring(1).trim();
+                    checkVariable(name, source, open, variable, variables);
+                    stack.push(new Frame(variable, kind == '^', lineOf(source, open)));
+                }
+                case '/' -> {
+                    String variable = tag.substring(1).trim();
+                    Frame frame = stack.peek();
+                    if (frame.variable == null || !frame.variable.equals(variable)) {
+                        throw error(name, source, open, "fechamento '" + variable + "' sem seção correspondente");
+                    }
+                    stack.pop();
+                    stack.peek().segments.add(
+                            new Section(frame.variable, frame.inverted, frame.segments.toArray(Segment[]::new)));
+                }
+                default -> stack.peek().segments.add(variable(name, source, open, tag, html, variables));
+            }
+            pos = next;
+        }
+
+        if (stack.size() > 1) {
+            Frame frame = stack.peek();
+            throw new IllegalArgumentException(String.format("Template %s, linha %d: seção '%s' não foi fechada",
+                    name, frame.line, frame.variable));
+        }
+        return new CompiledTemplate(name, stack.peek().segments);
+    }
+
+    private static Variable variable(String name, String source, int position, String tag, boolean html,
+            Set<String> variables) {
+        String[] parts = tag.split("\\|");
+        String variable = parts[0].trim();
+        checkVariable(name, source, position, variable, variables);
+        boolean newlineToBr = false;
+        for (int i = 1; i < parts.length; i++) {
+            String filter = parts[i].trim();
+            if (!filter.equals("nl2br")) {
+                throw error(name, source, position, "filtro desconhecido '" + filter + "'");
+            }
+            if (!html) {
+                throw error(name, source, position, "o filtro nl2br só se aplica a templates HTML");
+            }
+            newlineToBr = true;
+        }
+        return new Variable(variable, html, newlineToBr);
+    }
+
+    private static void checkVariable(String name, String source, int position, String variable,
+            Set<String> variables) {
+        if (!variables.contains(variable)) {
+            throw error(name, source, position, "variável desconhecida '" + variable + "'");
+        }
+    }
+
+    private static IllegalArgumentException error(String name, String source, int position, String message) {
+        return new IllegalArgumentException(
+                String.format("Template %s, linha %d: %s", name, lineOf(source, position), message));
+    }
+
+    private static int lineOf(String source, int position) {
+        int line = 1;
+        for (int i = 0; i < position; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    private static final class Frame {
+
+        private final String variable;
+        private final boolean inverted;
+        private final int line;
+        private final List<Segment> segments = new ArrayList<>();
+
+        private Frame(String variable, boolean inverted, int line) {
+            this.variable = variable;
+            this.inverted = inverted;
+            this.line = line;
+        }
+    }
+}
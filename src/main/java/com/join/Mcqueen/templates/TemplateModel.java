@@ -0,0 +1,13 @@
+package com.join.Mcqueen.templates;
+
+/**
+ * Fonte dos valores usados na renderização de um template
+ */
+@FunctionalInterface
+public interface TemplateModel {
+
+    /**
+     * Valor da variável, ou nulo se não houver
+     */
+    Object get(String name);
+}
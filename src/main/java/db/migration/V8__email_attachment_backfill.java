@@ -0,0 +1,123 @@
+package db.migration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copia para email_attachment os anexos dos envios anteriores a V7, a partir de
+ * file_stats (nome, tamanho, hash e registros de cada CSV validado) ou, quando
+ * não houver estatísticas, de file_names e file_hashes. Content-Type e tamanho
+ * enviado não eram registrados e ficam nulos.
+ */
+public class V8__email_attachment_backfill extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        long nextId = 1;
+        int pending = 0;
+        try (Statement select = connection.createStatement();
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO email_attachment (id, email_audit_id, position, file_name, size_bytes, "
+                                + "content_hash, row_count) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery(
+                    "SELECT id, file_names, file_stats, file_hashes FROM email_audit ORDER BY id")) {
+                while (rows.next()) {
+                    for (Attachment attachment : attachments(rows.getString("file_names"),
+                            rows.getString("file_stats"), rows.getString("file_hashes"))) {
+                        insert.setLong(1, nextId++);
+                        insert.setLong(2, rows.getLong("id"));
+                        insert.setInt(3, attachment.position());
+                        insert.setString(4, attachment.fileName());
+                        setLong(insert, 5, attachment.sizeBytes());
+                        insert.setString(6, attachment.contentHash());
+                        setLong(insert, 7, attachment.rowCount());
+                        insert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+        // O otimizador pooled do Hibernate usa os 50 ids que terminam no valor lido da
+        // sequência: o primeiro valor precisa deixar todo esse bloco acima dos ids copiados
+        long restartWith = nextId == 1 ? 1 : nextId + ALLOCATION_SIZE - 1;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE email_attachment_seq RESTART WITH " + restartWith);
+        }
+    }
+
+    private List<Attachment> attachments(String fileNames, String fileStats, String fileHashes) {
+        List<Attachment> attachments = new ArrayList<>();
+        if (fileStats != null && !fileStats.isBlank()) {
+            try {
+                JsonNode stats = objectMapper.readTree(fileStats);
+                for (int i = 0; i < stats.size(); i++) {
+                    JsonNode file = stats.get(i);
+                    attachments.add(new Attachment(i, truncate(file.path("fileName").asText("")),
+                            longOrNull(file.get("sizeBytes")), textOrNull(file.get("sha256")),
+                            longOrNull(file.get("rowCount"))));
+                }
+                return attachments;
+            } catch (Exception e) {
+                // Estatísticas ilegíveis: usa os nomes e hashes
+                attachments.clear();
+            }
+        }
+        if (fileNames == null || fileNames.isBlank()) {
+            return attachments;
+        }
+        String[] names = fileNames.split(", ");
+        String[] hashes = fileHashes != null && !fileHashes.isBlank() ? fileHashes.split(",") : new String[0];
+        for (int i = 0; i < names.length; i++) {
+            attachments.add(new Attachment(i, truncate(names[i]), null,
+                    hashes.length == names.length ? hashes[i] : null, null));
+        }
+        return attachments;
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private static Long longOrNull(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asLong();
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static String truncate(String fileName) {
+        return fileName.length() > 255 ? fileName.substring(0, 255) : fileName;
+    }
+
+    private record Attachment(int position, String fileName, Long sizeBytes, String contentHash, Long rowCount) {
+    }
+}
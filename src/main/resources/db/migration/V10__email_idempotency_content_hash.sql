@@ -0,0 +1,5 @@
+-- Repetições com Idempotency-Key são reconhecidas pela impressão digital barata (campos do
+-- formulário e nome e tamanho de cada arquivo), sem reler os uploads. O SHA-256 do conteúdo
+-- dos arquivos só é calculado quando a chave é nova, na validação, e fica guardado aqui.
+
+ALTER TABLE email_idempotency ADD COLUMN content_hash VARCHAR(64);
@@ -0,0 +1,5 @@
+-- Cada reivindicação grava um token próprio (UUID). A instância relê os jobs que
+-- reivindicou pelo token, e não por locked_by, que também casa com jobs que ela
+-- reivindicou antes ou que o UPDATE deste lote não alcançou.
+
+ALTER TABLE email_outbox ADD COLUMN claim_token VARCHAR(36);
@@ -0,0 +1,61 @@
+-- Esquema inicial: auditoria de emails e outbox de envios assíncronos
+
+CREATE TABLE email_audit (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient               VARCHAR(255) NOT NULL,
+    recipient_normalized    VARCHAR(255) NOT NULL,
+    email_subject           VARCHAR(255) NOT NULL,
+    organization_name       VARCHAR(255) NOT NULL,
+    organization_normalized VARCHAR(255) NOT NULL,
+    responsible_contact     VARCHAR(255) NOT NULL,
+    subject                 VARCHAR(255) NOT NULL,
+    reference_period        VARCHAR(255) NOT NULL,
+    data_description        TEXT,
+    file_count              INTEGER,
+    file_names              TEXT,
+    file_stats              TEXT,
+    original_bytes          BIGINT,
+    compressed_bytes        BIGINT,
+    send_status             VARCHAR(255) NOT NULL,
+    send_date               TIMESTAMP(6) NOT NULL,
+    lgpd_compliance         BOOLEAN
+);
+
+-- Histórico paginado por (send_date, id)
+CREATE INDEX idx_email_audit_send_date_id ON email_audit (send_date, id);
+CREATE INDEX idx_email_audit_send_status ON email_audit (send_status, send_date);
+-- Colunas normalizadas em minúsculas: busca por prefixo (LIKE 'abc%') usa o índice
+CREATE INDEX idx_email_audit_recipient ON email_audit (recipient_normalized, send_date);
+CREATE INDEX idx_email_audit_organization ON email_audit (organization_normalized, send_date);
+
+CREATE TABLE email_outbox (
+    id                  VARCHAR(36) PRIMARY KEY,
+    recipient           VARCHAR(255) NOT NULL,
+    organization_name   VARCHAR(255) NOT NULL,
+    responsible_contact VARCHAR(255) NOT NULL,
+    subject             VARCHAR(255) NOT NULL,
+    reference_period    VARCHAR(255) NOT NULL,
+    data_description    TEXT,
+    lgpd_compliance     BOOLEAN,
+    status              VARCHAR(20) NOT NULL,
+    attempts            INTEGER NOT NULL,
+    last_error          TEXT,
+    next_attempt_at     TIMESTAMP(6) NOT NULL,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL,
+    sent_at             TIMESTAMP(6)
+);
+
+-- Consulta do worker: pendentes prontos, mais antigos primeiro
+CREATE INDEX idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at, created_at);
+
+CREATE TABLE email_outbox_file (
+    outbox_id    VARCHAR(36) NOT NULL,
+    position     INTEGER NOT NULL,
+    file_name    VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255),
+    size_bytes   BIGINT,
+    stored_name  VARCHAR(255) NOT NULL,
+    PRIMARY KEY (outbox_id, position),
+    CONSTRAINT fk_email_outbox_file_outbox FOREIGN KEY (outbox_id) REFERENCES email_outbox (id) ON DELETE CASCADE
+);
@@ -0,0 +1,9 @@
+-- Ids da auditoria passam a vir de uma sequência com incremento 50 (otimizador pooled do
+-- Hibernate): um único NEXT VALUE reserva 50 ids, permitindo inserts em lote via JDBC.
+-- Com IDENTITY o Hibernate precisa executar cada INSERT isoladamente para obter o id.
+
+ALTER TABLE email_audit ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE email_audit_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE email_audit_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM email_audit);
@@ -0,0 +1,15 @@
+-- send_status deixa de guardar texto livre ("ERROR: <mensagem>") e passa a ser um
+-- enum (SUCCESS | ERROR); a categoria e a mensagem da falha vão para colunas próprias.
+
+ALTER TABLE email_audit ADD COLUMN error_code VARCHAR(40);
+ALTER TABLE email_audit ADD COLUMN error_detail TEXT;
+
+UPDATE email_audit
+   SET error_code = 'UNKNOWN',
+       error_detail = TRIM(SUBSTRING(send_status, 7)),
+       send_status = 'ERROR'
+ WHERE send_status LIKE 'ERROR%';
+
+DROP INDEX idx_email_audit_send_status;
+ALTER TABLE email_audit ALTER COLUMN send_status VARCHAR(20) NOT NULL;
+CREATE INDEX idx_email_audit_send_status ON email_audit (send_status, send_date);
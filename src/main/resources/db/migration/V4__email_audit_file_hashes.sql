@@ -0,0 +1,4 @@
+-- SHA-256 dos anexos de cada envio (na ordem de file_names), para identificar
+-- reenvios do mesmo conteúdo. Registros anteriores ficam sem hash.
+
+ALTER TABLE email_audit ADD COLUMN file_hashes TEXT;
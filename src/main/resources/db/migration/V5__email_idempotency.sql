@@ -0,0 +1,15 @@
+-- Chaves de idempotência dos endpoints de envio: o primeiro pedido registra a chave
+-- como IN_PROGRESS e, ao concluir, guarda a resposta para os reenvios da mesma chave.
+
+CREATE TABLE email_idempotency (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    fingerprint     VARCHAR(64) NOT NULL,
+    status          VARCHAR(20) NOT NULL,
+    response        TEXT,
+    created_at      TIMESTAMP(6) NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    version         BIGINT NOT NULL
+);
+
+-- Limpeza periódica das chaves expiradas
+CREATE INDEX idx_email_idempotency_expires_at ON email_idempotency (expires_at);
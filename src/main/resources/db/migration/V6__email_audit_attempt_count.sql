@@ -0,0 +1,4 @@
+-- Quantidade de tentativas de entrega SMTP de cada envio (retentativas de falhas
+-- transitórias). Registros anteriores ficam sem contagem.
+
+ALTER TABLE email_audit ADD COLUMN attempt_count INT;
@@ -0,0 +1,25 @@
+-- Anexos de cada envio em tabela própria (antes apenas em file_names, file_stats e
+-- file_hashes, como texto): consultas por hash ou nome de arquivo e totais por órgão
+-- passam a usar índices. Os anexos dos registros existentes são copiados em V8.
+
+CREATE SEQUENCE email_attachment_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE email_attachment (
+    id             BIGINT PRIMARY KEY,
+    email_audit_id BIGINT NOT NULL,
+    position       INTEGER NOT NULL,
+    file_name      VARCHAR(255) NOT NULL,
+    content_type   VARCHAR(100),
+    size_bytes     BIGINT,
+    stored_bytes   BIGINT,
+    content_hash   VARCHAR(64),
+    row_count      BIGINT,
+    -- A retenção remove os envios em lote; os anexos saem junto
+    CONSTRAINT fk_email_attachment_audit FOREIGN KEY (email_audit_id)
+        REFERENCES email_audit (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_email_attachment_audit ON email_attachment (email_audit_id, position);
+-- Envios que incluíram um arquivo, pelo conteúdo ou pelo nome
+CREATE INDEX idx_email_attachment_hash ON email_attachment (content_hash, email_audit_id);
+CREATE INDEX idx_email_attachment_file_name ON email_attachment (file_name, email_audit_id);
@@ -0,0 +1,12 @@
+-- Várias instâncias drenando a mesma outbox: cada worker reivindica jobs com um lease
+-- (locked_by, lease_until) renovado por heartbeat enquanto o envio está em andamento.
+-- Jobs em processamento com o lease vencido (instância que caiu) voltam a ser
+-- reivindicáveis pelas demais. A versão muda a cada reivindicação, de modo que a
+-- instância que perdeu o lease não sobrescreve o resultado de quem assumiu o job.
+
+ALTER TABLE email_outbox ADD COLUMN locked_by VARCHAR(100);
+ALTER TABLE email_outbox ADD COLUMN lease_until TIMESTAMP(6);
+ALTER TABLE email_outbox ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+-- Jobs em processamento com lease vencido
+CREATE INDEX idx_email_outbox_status_lease ON email_outbox (status, lease_until);
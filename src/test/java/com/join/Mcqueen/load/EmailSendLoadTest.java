@@ -0,0 +1,273 @@
+package com.join.Mcqueen.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga ponta a ponta de /emails/send e /emails/send-json contra um
+ * SMTP local (SmtpSink) com latência e taxa de falha configuráveis. Reporta
+ * vazão, latência p50/p99, taxa de erro e pico de heap, e grava o resultado em
+ * JSON para comparar entre commits.
+ *
+ * Executar com: mvn test -Dgroups=load -Dtest.excludedGroups=
+ *
+ * Parâmetros (propriedades de sistema, todas opcionais):
+ * load.clients, load.requests, load.warmup, load.endpoint (send, send-json ou both),
+ * load.files, load.csv-bytes, load.smtp.latency-ms, load.smtp.failure-rate e load.report
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EmailSendLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 16);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 400);
+    private static final int WARMUP = Integer.getInteger("load.warmup", 50);
+    private static final String ENDPOINT = System.getProperty("load.endpoint", "both");
+    private static final int FILES = Integer.getInteger("load.files", 1);
+    private static final int CSV_BYTES = Integer.getInteger("load.csv-bytes", 10 * 1024);
+    private static final long SMTP_LATENCY_MS = Long.getLong("load.smtp.latency-ms", 50);
+    private static final double SMTP_FAILURE_RATE = Double.parseDouble(
+            System.getProperty("load.smtp.failure-rate", "0"));
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-report.json"));
+
+    private static final SmtpSink SMTP = startSink();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void smtpProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "127.0.0.1");
+        registry.add("spring.mail.port", SMTP::getPort);
+        registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.required", () -> "false");
+    }
+
+    @AfterAll
+    static void stopSink() throws IOException {
+        SMTP.close();
+    }
+
+    @Test
+    void sendEndpointsUnderConcurrentLoad() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        byte[] csv = csv(CSV_BYTES);
+
+        // Aquecimento sem falhas simuladas, fora das medições
+        SMTP.configure(0, 0);
+        run(client, csv, WARMUP);
+
+        SMTP.configure(SMTP_LATENCY_MS, SMTP_FAILURE_RATE);
+        SMTP.resetCounters();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        Result result = run(client, csv, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        // Soma dos picos de cada pool da heap: limite superior do pico real
+        long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("endpoint", ENDPOINT);
+        report.put("clients", CLIENTS);
+        report.put("requests", REQUESTS);
+        report.put("filesPerRequest", FILES);
+        report.put("csvBytes", CSV_BYTES);
+        report.put("smtpLatencyMs", SMTP_LATENCY_MS);
+        report.put("smtpFailureRate", SMTP_FAILURE_RATE);
+        report.put("throughputPerSecond", REQUESTS / seconds);
+        report.put("latencyP50Ms", percentile(latencies, 50) / 1_000_000.0);
+        report.put("latencyP99Ms", percentile(latencies, 99) / 1_000_000.0);
+        report.put("latencyMaxMs", latencies[latencies.length - 1] / 1_000_000.0);
+        report.put("errors", result.errors());
+        report.put("errorRate", (double) result.errors() / REQUESTS);
+        report.put("heapPeakBytes", heapPeak);
+        report.put("smtpAccepted", SMTP.getAccepted());
+        report.put("smtpRejected", SMTP.getRejected());
+        report.put("smtpNewConnections", SMTP.getConnectionCount());
+
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+        System.out.printf("Carga %s: %d clientes, %d requisições em %.1f s -> %.1f req/s; p50 %.1f ms, p99 %.1f ms; "
+                + "erros %.2f%%; pico de heap %d MB (relatório em %s)%n",
+                ENDPOINT, CLIENTS, REQUESTS, seconds, report.get("throughputPerSecond"), report.get("latencyP50Ms"),
+                report.get("latencyP99Ms"), 100.0 * result.errors() / REQUESTS, heapPeak / (1024 * 1024), REPORT);
+
+        assertThat(latencies).hasSize(REQUESTS);
+        // Cada resposta de sucesso corresponde a uma mensagem aceita pelo SMTP
+        assertThat(REQUESTS - result.errors()).isEqualTo(SMTP.getAccepted());
+        if (SMTP_FAILURE_RATE == 0) {
+            assertThat(result.errors()).isZero();
+        }
+    }
+
+    private Result run(HttpClient client, byte[] csv, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        HttpRequest request = request(i, csv);
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() / 100 != 2) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private HttpRequest request(int i, byte[] csv) {
+        boolean json = switch (ENDPOINT) {
+            case "send" -> false;
+            case "send-json" -> true;
+            default -> i % 2 == 1;
+        };
+        Multipart body = new Multipart();
+        if (json) {
+            body.part("formData", null, "application/json", """
+                    {"organizationName":"Órgão de carga %d","responsibleContact":"carga@exemplo.com",\
+                    "subject":"Teste de carga","referencePeriod":"2025",\
+                    "dataDescription":"Requisição %d do teste de carga","lgpdCompliance":true}"""
+                    .formatted(i % 20, i).getBytes(StandardCharsets.UTF_8));
+        } else {
+            body.field("organizationName", "Órgão de carga " + (i % 20));
+            body.field("responsibleContact", "carga@exemplo.com");
+            body.field("subject", "Teste de carga");
+            body.field("referencePeriod", "2025");
+            body.field("dataDescription", "Requisição " + i + " do teste de carga");
+            body.field("lgpdCompliance", "true");
+        }
+        for (int f = 0; f < FILES; f++) {
+            body.part("files", "dados" + f + ".csv", "text/csv", csv);
+        }
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + (json ? "/emails/send-json" : "/emails/send")))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "multipart/form-data; boundary=" + body.boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.build()))
+                .build();
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static byte[] csv(int size) {
+        StringBuilder csv = new StringBuilder("id,nome,valor,data\n");
+        for (int i = 1; csv.length() < size; i++) {
+            csv.append(i).append(",Registro ").append(i).append(',').append(i * 7 % 1000).append(".50,2025-01-")
+                    .append(String.format("%02d", i % 28 + 1)).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static SmtpSink startSink() {
+        try {
+            return new SmtpSink(SMTP_LATENCY_MS, SMTP_FAILURE_RATE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível iniciar o smtp-sink", e);
+        }
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+
+    /**
+     * Corpo multipart/form-data montado em memória
+     */
+    private static final class Multipart {
+
+        private final String boundary = "carga-" + UUID.randomUUID();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void field(String name, String value) {
+            part(name, null, "text/plain; charset=UTF-8", value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void part(String name, String filename, String contentType, byte[] content) {
+            StringBuilder header = new StringBuilder("--").append(boundary).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(name).append('"');
+            if (filename != null) {
+                header.append("; filename=\"").append(filename).append('"');
+            }
+            header.append("\r\nContent-Type: ").append(contentType).append("\r\n\r\n");
+            out.writeBytes(header.toString().getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(content);
+            out.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        byte[] build() {
+            out.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            return out.toByteArray();
+        }
+    }
+}
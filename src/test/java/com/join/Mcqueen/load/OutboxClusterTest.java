@@ -0,0 +1,185 @@
+package com.join.Mcqueen.load;
+
+import com.join.Mcqueen.McqueenApplication;
+import com.join.Mcqueen.domain.dtos.EmailFormDTO;
+import com.join.Mcqueen.services.EmailAuditWriter;
+import com.join.Mcqueen.services.EmailOutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Duas instâncias da aplicação (dois contextos Spring na mesma JVM) drenando a
+ * mesma outbox em um único banco H2, contra o SmtpSink. Verifica que, sem
+ * falhas durante os envios, as reivindicações concorrentes não duplicam jobs,
+ * que as duas instâncias reivindicam jobs, que os jobs de uma instância que
+ * caiu são retomados quando o lease vence e que o lease continua sendo renovado
+ * com o agendador do Spring ocupado por outra tarefa. A entrega em geral é at-least-once:
+ * um envio interrompido pelo vencimento do lease pode ser repetido.
+ */
+class OutboxClusterTest {
+
+    private static final int JOBS = 40;
+    private static final int ORPHANS = 4;
+    private static final byte[] CSV = "id,valor\n1,10\n2,20\n".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path spoolDir;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private SmtpSink smtp;
+
+    @AfterEach
+    void stop() throws Exception {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        if (smtp != null) {
+            smtp.close();
+        }
+    }
+
+    @Test
+    void concurrentClaimsDoNotDuplicateJobsAndOrphansAreRecovered() throws Exception {
+        smtp = new SmtpSink(20, 0);
+        String database = "jdbc:h2:mem:outbox-cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        ConfigurableApplicationContext node1 = start("node-1", database);
+        ConfigurableApplicationContext node2 = start("node-2", database);
+        JdbcTemplate jdbc = node1.getBean(JdbcTemplate.class);
+
+        // Jobs de uma instância que caiu no meio do envio, com o lease ainda válido por 1 s
+        for (int i = 0; i < ORPHANS; i++) {
+            insertOrphan(jdbc, "Órgão órfão " + i);
+        }
+
+        for (int i = 0; i < JOBS; i++) {
+            EmailOutboxService outbox = (i % 2 == 0 ? node1 : node2).getBean(EmailOutboxService.class);
+            List<MultipartFile> files = List.of(new MockMultipartFile("files", "dados.csv", "text/csv", CSV));
+            outbox.enqueue(new EmailFormDTO("Órgão " + i, "contato@exemplo.com", "Dados", "2025",
+                    "Job " + i, true), files, null);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (count(jdbc, "SELECT COUNT(*) FROM email_outbox WHERE status = 'SENT'") < JOBS + ORPHANS
+                && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        for (ConfigurableApplicationContext node : nodes) {
+            assertThat(node.getBean(EmailAuditWriter.class).awaitFlush(Duration.ofSeconds(10))).isTrue();
+        }
+
+        assertThat(count(jdbc, "SELECT COUNT(*) FROM email_outbox WHERE status = 'SENT'")).isEqualTo(JOBS + ORPHANS);
+        assertThat(smtp.getAccepted()).isEqualTo(JOBS + ORPHANS);
+        // Um único registro de auditoria por job (cada job tem um órgão diferente)
+        assertThat(count(jdbc, "SELECT COUNT(DISTINCT organization_name) FROM email_audit")).isEqualTo(JOBS + ORPHANS);
+        assertThat(count(jdbc, "SELECT COUNT(*) FROM email_audit")).isEqualTo(JOBS + ORPHANS);
+        assertThat(jdbc.queryForList("SELECT DISTINCT locked_by FROM email_outbox", String.class))
+                .containsExactlyInAnyOrder("node-1", "node-2");
+    }
+
+    @Test
+    void leaseIsRenewedWhileTheSchedulerThreadIsBlocked() throws Exception {
+        // Cada envio dura bem mais que o lease de 1 s
+        smtp = new SmtpSink(5000, 0);
+        String database = "jdbc:h2:mem:outbox-heartbeat-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        ConfigurableApplicationContext node1 = start("node-1", database);
+        JdbcTemplate jdbc = node1.getBean(JdbcTemplate.class);
+        EmailOutboxService outbox = node1.getBean(EmailOutboxService.class);
+        for (int i = 0; i < 2; i++) {
+            List<MultipartFile> files = List.of(new MockMultipartFile("files", "dados.csv", "text/csv", CSV));
+            outbox.enqueue(new EmailFormDTO("Órgão " + i, "contato@exemplo.com", "Dados", "2025",
+                    "Job " + i, true), files, null);
+        }
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (count(jdbc, "SELECT COUNT(*) FROM email_outbox WHERE status = 'PROCESSING'") < 2
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Tarefa agendada longa (ex.: retenção) ocupando a thread do agendador além do lease
+        CountDownLatch release = new CountDownLatch(1);
+        node1.getBean(TaskScheduler.class).schedule(() -> {
+            try {
+                release.await(20, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Instant.now());
+        ConfigurableApplicationContext node2 = start("node-2", database);
+
+        deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (count(jdbc, "SELECT COUNT(*) FROM email_outbox WHERE status = 'SENT'") < 2
+                && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        // Tempo para node-2 reivindicar algum job cujo lease tivesse vencido
+        Thread.sleep(1500);
+        release.countDown();
+
+        assertThat(count(jdbc, "SELECT COUNT(*) FROM email_outbox WHERE status = 'SENT'")).isEqualTo(2);
+        assertThat(smtp.getAccepted()).isEqualTo(2);
+        assertThat(jdbc.queryForList("SELECT DISTINCT locked_by FROM email_outbox", String.class))
+                .containsExactly("node-1");
+        assertThat(node2.isActive()).isTrue();
+    }
+
+    private ConfigurableApplicationContext start(String instanceId, String database) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(McqueenApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + database,
+                        "--spring.mail.host=127.0.0.1",
+                        "--spring.mail.port=" + smtp.getPort(),
+                        "--spring.mail.properties.mail.smtp.auth=false",
+                        "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                        "--spring.mail.properties.mail.smtp.starttls.required=false",
+                        "--app.rate-limit.enabled=false",
+                        "--app.email.async.instance-id=" + instanceId,
+                        "--app.email.async.worker-threads=2",
+                        "--app.email.async.poll-interval-ms=50",
+                        "--app.email.async.lease-ms=1000",
+                        "--app.email.async.heartbeat-interval-ms=200",
+                        "--app.email.async.spool-dir=" + spoolDir);
+        nodes.add(context);
+        return context;
+    }
+
+    private void insertOrphan(JdbcTemplate jdbc, String organizationName) throws Exception {
+        String id = UUID.randomUUID().toString();
+        Path jobDir = Files.createDirectories(spoolDir.resolve(id));
+        Files.write(jobDir.resolve("0"), CSV);
+        LocalDateTime now = LocalDateTime.now();
+        jdbc.update("INSERT INTO email_outbox (id, recipient, organization_name, responsible_contact, subject, "
+                + "reference_period, data_description, lgpd_compliance, status, attempts, next_attempt_at, "
+                + "created_at, updated_at, locked_by, lease_until, version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, 'PROCESSING', 1, ?, ?, ?, 'crashed-node', ?, 1)",
+                id, "destino@exemplo.com", organizationName, "contato@exemplo.com", "Dados", "2025", "Órfão",
+                Timestamp.valueOf(now), Timestamp.valueOf(now), Timestamp.valueOf(now),
+                Timestamp.valueOf(now.plusSeconds(1)));
+        jdbc.update("INSERT INTO email_outbox_file (outbox_id, position, file_name, content_type, size_bytes, "
+                + "stored_name) VALUES (?, 0, 'dados.csv', 'text/csv', ?, '0')", id, CSV.length);
+    }
+
+    private static long count(JdbcTemplate jdbc, String sql) {
+        Long value = jdbc.queryForObject(sql, Long.class);
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.join.Mcqueen.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor SMTP mínimo para testes: aceita qualquer remetente e destinatário,
+ * descarta o conteúdo e responde ao fim do DATA depois de uma latência
+ * artificial, rejeitando uma fração configurável das mensagens com 451.
+ * Não implementa AUTH nem STARTTLS; a aplicação deve apontar para ele com
+ * mail.smtp.auth=false e starttls desabilitado.
+ */
+class SmtpSink implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    SmtpSink(long latencyMillis, double failureRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "smtp-sink-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void configure(long latencyMillis, double failureRate) {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+    }
+
+    long getAccepted() {
+        return accepted.get();
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+
+    long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    void resetCounters() {
+        accepted.set(0);
+        rejected.set(0);
+        connectionCount.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                connections.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                // Falha pontual ao aceitar; continua atendendo
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1), 65536);
+                OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 smtp-sink");
+            boolean inData = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (inData) {
+                    if (line.equals(".")) {
+                        inData = false;
+                        reply(out, finishMessage());
+                    }
+                    continue;
+                }
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250-smtp-sink\r\n250-8BITMIME\r\n250 SIZE 0");
+                    case "DATA" -> {
+                        inData = true;
+                        reply(out, "354 Envie a mensagem terminando com <CRLF>.<CRLF>");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Tchau");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente
+        }
+    }
+
+    private String finishMessage() {
+        long latency = latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            rejected.incrementAndGet();
+            return "451 4.3.0 Falha simulada pelo smtp-sink";
+        }
+        accepted.incrementAndGet();
+        return "250 OK mensagem aceita";
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
@@ -0,0 +1,131 @@
+package com.join.Mcqueen.mail;
+
+import com.join.Mcqueen.domain.dtos.SmtpPoolStatsDTO;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmtpConnectionPoolTest {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final List<Transport> opened = new ArrayList<>();
+    private SmtpConnectionPool pool;
+
+    @AfterEach
+    void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws Exception {
+        pool = new SmtpConnectionPool(2, 60000, 100, 100, 60000);
+
+        pool.borrow(session, this::connect).close();
+        pool.borrow(session, this::connect).close();
+
+        assertThat(opened).hasSize(1);
+        SmtpPoolStatsDTO stats = pool.getStats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getOpen()).isEqualTo(1);
+        assertThat(stats.getIdle()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionIsRetiredAtTheMessageLimit() throws Exception {
+        pool = new SmtpConnectionPool(2, 60000, 2, 100, 60000);
+        MimeMessage message = new MimeMessage(session);
+        Address[] to = {new InternetAddress("destino@exemplo.com")};
+
+        Transport transport = pool.borrow(session, this::connect);
+        transport.sendMessage(message, to);
+        assertThat(transport.isConnected()).isTrue();
+        transport.sendMessage(message, to);
+        // O JavaMailSender consulta isConnected antes de cada mensagem e troca a conexão
+        assertThat(transport.isConnected()).isFalse();
+        transport.close();
+
+        verify(opened.get(0)).close();
+        pool.borrow(session, this::connect).close();
+        assertThat(opened).hasSize(2);
+        assertThat(pool.getStats().getOpen()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionThatFailsValidationIsDestroyedAndReplaced() throws Exception {
+        // Intervalo negativo: toda conexão ociosa é verificada antes do reuso
+        pool = new SmtpConnectionPool(2, 60000, 100, 100, -1);
+
+        pool.borrow(session, this::connect).close();
+        when(opened.get(0).isConnected()).thenReturn(false);
+        pool.borrow(session, this::connect).close();
+
+        // NOOP sem resposta: a exceção não pode vazar a conexão nem o contador de abertas
+        when(opened.get(1).isConnected()).thenThrow(new IllegalStateException("Read timed out"));
+        pool.borrow(session, this::connect).close();
+
+        assertThat(opened).hasSize(3);
+        verify(opened.get(0)).close();
+        verify(opened.get(1)).close();
+        SmtpPoolStatsDTO stats = pool.getStats();
+        assertThat(stats.getValidationFailures()).isEqualTo(2);
+        assertThat(stats.getOpen()).isEqualTo(1);
+        assertThat(stats.getIdle()).isEqualTo(1);
+        assertThat(stats.getActive()).isZero();
+    }
+
+    @Test
+    void idleConnectionsAreEvicted() throws Exception {
+        pool = new SmtpConnectionPool(2, 20, 100, 100, 60000);
+
+        pool.borrow(session, this::connect).close();
+        Thread.sleep(50);
+        ReflectionTestUtils.invokeMethod(pool, "evictIdle");
+
+        verify(opened.get(0)).close();
+        SmtpPoolStatsDTO stats = pool.getStats();
+        assertThat(stats.getEvictions()).isEqualTo(1);
+        assertThat(stats.getOpen()).isZero();
+        assertThat(stats.getIdle()).isZero();
+    }
+
+    @Test
+    void failedConnectReleasesThePermit() throws Exception {
+        pool = new SmtpConnectionPool(1, 60000, 100, 100, 60000);
+
+        assertThatThrownBy(() -> pool.borrow(session, () -> {
+            throw new MessagingException("Connection refused");
+        })).isInstanceOf(MessagingException.class);
+        assertThat(pool.getStats().getActive()).isZero();
+        assertThat(pool.getStats().getOpen()).isZero();
+
+        // Com uma única vaga, o próximo empréstimo só é atendido se a vaga foi devolvida
+        pool.borrow(session, this::connect).close();
+        assertThat(pool.getStats().getTimeouts()).isZero();
+    }
+
+    private Transport connect() {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(true);
+        opened.add(transport);
+        return transport;
+    }
+}
@@ -0,0 +1,89 @@
+package com.join.Mcqueen.mail;
+
+import com.join.Mcqueen.exceptions.SmtpUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.InternetAddress;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SmtpDeliveryPolicyTest {
+
+    @Test
+    void retriesTransientRepliesButNotPermanentOnes() throws Exception {
+        SmtpDeliveryPolicy policy = policy(5, 60000);
+
+        MailSendException mailboxBusy = rejected(451);
+        MailSendException noSuchUser = rejected(550);
+
+        AtomicInteger calls = new AtomicInteger();
+        List<Integer> attempts = new CopyOnWriteArrayList<>();
+        policy.send(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw mailboxBusy;
+            }
+        }, attempts::add);
+        assertThat(attempts).containsExactly(1, 2);
+
+        calls.set(0);
+        assertThatThrownBy(() -> policy.send(() -> {
+            calls.incrementAndGet();
+            throw noSuchUser;
+        }, attempt -> {
+        })).isInstanceOf(MailSendException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void opensAfterRepeatedFailuresAndRecoversThroughAProbe() throws Exception {
+        SmtpDeliveryPolicy policy = policy(2, 50);
+        Runnable down = () -> {
+            throw new MailSendException("Falha de conexão", new ConnectException("Connection refused"));
+        };
+
+        assertThatThrownBy(() -> policy.send(down, attempt -> {
+        })).isInstanceOf(MailSendException.class);
+        assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThatThrownBy(policy::checkAvailable).isInstanceOf(SmtpUnavailableException.class);
+        assertThatThrownBy(() -> policy.sendOnce(calls::incrementAndGet))
+                .isInstanceOf(SmtpUnavailableException.class);
+        assertThat(calls).hasValue(0);
+
+        Thread.sleep(60);
+        policy.checkAvailable();
+        policy.sendOnce(calls::incrementAndGet);
+        assertThat(calls).hasValue(1);
+        assertThat(policy.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static MailSendException rejected(int replyCode) throws Exception {
+        SMTPAddressFailedException cause = new SMTPAddressFailedException(
+                new InternetAddress("destino@exemplo.com"), "RCPT TO", replyCode, replyCode + " recusado");
+        return new MailSendException(Map.of(new Object(), cause));
+    }
+
+    private static SmtpDeliveryPolicy policy(int failureThreshold, long openDurationMillis) {
+        SmtpDeliveryPolicy policy = new SmtpDeliveryPolicy(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(policy, "maxAttempts", 3);
+        ReflectionTestUtils.setField(policy, "initialBackoffMillis", 1L);
+        ReflectionTestUtils.setField(policy, "multiplier", 2.0);
+        ReflectionTestUtils.setField(policy, "maxBackoffMillis", 5L);
+        ReflectionTestUtils.setField(policy, "breakerEnabled", true);
+        ReflectionTestUtils.setField(policy, "failureThreshold", failureThreshold);
+        ReflectionTestUtils.setField(policy, "openDurationMillis", openDurationMillis);
+        policy.init();
+        return policy;
+    }
+}
@@ -0,0 +1,142 @@
+package com.join.Mcqueen.mail;
+
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SmtpHealthIndicatorTest {
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger noops = new AtomicInteger();
+    private final SmtpDeliveryPolicy policy = mock(SmtpDeliveryPolicy.class);
+    private ServerSocket server;
+    private SmtpConnectionPool pool;
+    private JavaMailSenderImpl sender;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::serve, "smtp-health-test");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        // Pool com espera longa: a sonda não pode depender de uma conexão livre
+        pool = new SmtpConnectionPool(1, 60000, 100, 10_000, 60000);
+        sender = new PooledJavaMailSender(pool);
+        sender.setHost("127.0.0.1");
+        sender.setPort(server.getLocalPort());
+        when(policy.circuitState()).thenReturn(CircuitBreaker.State.CLOSED);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        pool.close();
+        server.close();
+    }
+
+    @Test
+    void probeUsesItsOwnConnectionWhileThePoolIsExhausted() throws Exception {
+        Transport borrowed = pool.borrow(Session.getInstance(new Properties()), () -> mock(Transport.class));
+        SmtpHealthIndicator indicator = indicator();
+
+        long started = System.nanoTime();
+        Health health = indicator.health();
+
+        assertThat(System.nanoTime() - started).isLessThan(5_000_000_000L);
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("poolActive", 1).containsEntry("circuitBreaker", "CLOSED");
+        assertThat(connections.get()).isEqualTo(1);
+        assertThat(noops.get()).isEqualTo(1);
+
+        // Dentro de cache-ms o resultado é reaproveitado
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(connections.get()).isEqualTo(1);
+        borrowed.close();
+    }
+
+    @Test
+    void openCircuitIsReportedWithoutTouchingTheNetwork() {
+        when(policy.circuitState()).thenReturn(CircuitBreaker.State.OPEN);
+
+        Health health = indicator().health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(health.getDetails()).containsEntry("error", "Disjuntor SMTP aberto");
+        assertThat(connections.get()).isZero();
+    }
+
+    @Test
+    void unreachableServerIsDown() throws IOException {
+        server.close();
+
+        Health health = indicator().health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(health.getDetails()).containsKey("error");
+    }
+
+    @SuppressWarnings("unchecked")
+    private SmtpHealthIndicator indicator() {
+        ObjectProvider<JavaMailSenderImpl> senderProvider = mock(ObjectProvider.class);
+        when(senderProvider.getIfAvailable()).thenReturn(sender);
+        ObjectProvider<SmtpConnectionPool> poolProvider = mock(ObjectProvider.class);
+        when(poolProvider.getIfAvailable()).thenReturn(pool);
+        SmtpHealthIndicator indicator = new SmtpHealthIndicator(senderProvider, poolProvider, policy);
+        ReflectionTestUtils.setField(indicator, "timeoutMillis", 2000L);
+        ReflectionTestUtils.setField(indicator, "cacheMillis", 60000L);
+        return indicator;
+    }
+
+    private void serve() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept();
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    OutputStream out = socket.getOutputStream()) {
+                connections.incrementAndGet();
+                reply(out, "220 teste");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line;
+                    if (command.equals("QUIT")) {
+                        reply(out, "221 Tchau");
+                        break;
+                    }
+                    if (command.equals("NOOP")) {
+                        noops.incrementAndGet();
+                    }
+                    reply(out, "250 OK");
+                }
+            } catch (IOException e) {
+                // Servidor encerrado pelo teste
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
@@ -0,0 +1,123 @@
+package com.join.Mcqueen.ratelimit;
+
+import com.join.Mcqueen.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SendAdmissionControlTest {
+
+    @Test
+    void rejectsAboveTheOrganizationRateWithoutChargingOtherLimits() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SendAdmissionControl control = control(registry, 2);
+
+        control.admit("Órgão A", "a@exemplo.com").close();
+        control.admit("órgão a ", null).close();
+        assertThatThrownBy(() -> control.admit("ÓRGÃO A", "b@exemplo.com"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAfterSeconds()).isPositive());
+
+        // A recusa devolveu a ficha global consumida; outro órgão segue admitido
+        assertThat(registry.get("mcqueen.ratelimit.global.tokens").gauge().value()).isCloseTo(98, within(0.1));
+        control.admit("Órgão B", "b@exemplo.com").close();
+        assertThat(registry.get("mcqueen.ratelimit.rejections").tag("limit", "organization").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void limitsConcurrentSendsPerOrganization() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SendAdmissionControl control = control(registry, 100);
+
+        SendAdmissionControl.Permit first = control.admit("Órgão A", null);
+        SendAdmissionControl.Permit second = control.admit(List.of(
+                new SendAdmissionControl.Target("Órgão A", "a@exemplo.com"),
+                new SendAdmissionControl.Target("Órgão A", "b@exemplo.com")));
+        assertThatThrownBy(() -> control.admit("Órgão A", null))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("envios em andamento");
+        assertThat(registry.get("mcqueen.ratelimit.inflight").gauge().value()).isEqualTo(2);
+
+        first.close();
+        control.admit("Órgão A", null).close();
+        second.close();
+        assertThat(registry.get("mcqueen.ratelimit.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void evictionDoesNotHandOutAFreshBucketDuringConsumption() throws Exception {
+        SendAdmissionControl control = new SendAdmissionControl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(control, "enabled", true);
+        ReflectionTestUtils.setField(control, "globalRatePerSecond", 0.001);
+        ReflectionTestUtils.setField(control, "globalBurst", 100_000);
+        ReflectionTestUtils.setField(control, "organizationRatePerMinute", 0.06);
+        ReflectionTestUtils.setField(control, "organizationBurst", 1);
+        ReflectionTestUtils.setField(control, "organizationMaxConcurrent", 8);
+        ReflectionTestUtils.setField(control, "concurrencyRetryAfterSeconds", 5L);
+        control.init();
+
+        // Cada órgão admite um único envio, mesmo com a limpeza dos baldes rodando ao mesmo tempo
+        int organizations = 2000;
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread evictor = new Thread(() -> {
+            while (running.get()) {
+                control.evictIdleBuckets();
+            }
+        });
+        evictor.start();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < organizations; i++) {
+                        try {
+                            control.admit("Órgão " + i, null).close();
+                            admitted.incrementAndGet();
+                        } catch (RateLimitExceededException e) {
+                            // Balde do órgão vazio
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            evictor.join();
+            executor.shutdownNow();
+        }
+        assertThat(admitted).hasValue(organizations);
+    }
+
+    private static SendAdmissionControl control(SimpleMeterRegistry registry, int organizationBurst) {
+        SendAdmissionControl control = new SendAdmissionControl(registry);
+        ReflectionTestUtils.setField(control, "enabled", true);
+        ReflectionTestUtils.setField(control, "globalRatePerSecond", 0.001);
+        ReflectionTestUtils.setField(control, "globalBurst", 100);
+        ReflectionTestUtils.setField(control, "organizationRatePerMinute", 0.06);
+        ReflectionTestUtils.setField(control, "organizationBurst", organizationBurst);
+        ReflectionTestUtils.setField(control, "organizationMaxConcurrent", 2);
+        ReflectionTestUtils.setField(control, "concurrencyRetryAfterSeconds", 5L);
+        ReflectionTestUtils.setField(control, "recipientRatePerMinute", 0.06);
+        ReflectionTestUtils.setField(control, "recipientBurst", 10);
+        control.init();
+        return control;
+    }
+}
@@ -0,0 +1,164 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.models.EmailAttachment;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.hasFileHash;
+import static com.join.Mcqueen.repositories.EmailAuditSpecifications.hasFileName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Busca por hash e por nome de anexo: resultados e plano do H2 (a consulta deve
+ * partir dos índices de email_attachment)
+ */
+@DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.join.Mcqueen.repositories.EmailAttachmentSearchTest$RecordingInspector")
+class EmailAttachmentSearchTest {
+
+    private static final String HASH_A = "a".repeat(64);
+    private static final String HASH_B = "b".repeat(64);
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("sendDate"), Sort.Order.desc("id"));
+
+    @Autowired
+    private EmailAuditRepository emailAuditRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Long> withHashA = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 30; i++) {
+            boolean shared = i % 10 == 0;
+            EmailAudit audit = audit("Órgão " + i, now.minusMinutes(i),
+                    attachment(0, shared ? "comum.csv" : "dados-" + i + ".csv", shared ? HASH_A : HASH_B));
+            emailAuditRepository.save(audit);
+            if (shared) {
+                withHashA.add(audit.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void findsAuditsByAttachmentHashAndName() {
+        List<Long> byHash = ids(emailAuditRepository.findSummaries(hasFileHash(HASH_A.toUpperCase()), NEWEST_FIRST,
+                100));
+        assertThat(byHash).containsExactlyElementsOf(withHashA);
+
+        List<Long> byName = ids(emailAuditRepository.findSummaries(hasFileName(" comum.csv "), NEWEST_FIRST, 100));
+        assertThat(byName).containsExactlyElementsOf(withHashA);
+
+        assertThat(emailAuditRepository.findSummaries(hasFileName("inexistente.csv"), NEWEST_FIRST, 100)).isEmpty();
+    }
+
+    @Test
+    void attachmentLookupStartsFromTheAttachmentIndexes() {
+        // Os envios são lidos pela chave primária a partir dos ids encontrados no índice do
+        // anexo, e não percorridos por send_date testando cada um com um EXISTS
+        emailAuditRepository.findSummaries(hasFileHash(HASH_A), NEWEST_FIRST, 100);
+        assertThat(plan(lastSelect()))
+                .containsPattern("PRIMARY_KEY_\\w*: ID IN\\(")
+                .contains("IDX_EMAIL_ATTACHMENT_HASH: CONTENT_HASH = ?1 */")
+                .doesNotContain("EXISTS");
+
+        emailAuditRepository.findSummaries(hasFileName("comum.csv"), NEWEST_FIRST, 100);
+        assertThat(plan(lastSelect()))
+                .containsPattern("PRIMARY_KEY_\\w*: ID IN\\(")
+                .contains("IDX_EMAIL_ATTACHMENT_FILE_NAME: FILE_NAME = ?1 */")
+                .doesNotContain("EXISTS");
+    }
+
+    /**
+     * Plano do H2 para o SQL gerado pelo Hibernate (parâmetros nulos: o plano não depende dos valores)
+     */
+    private String plan(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                    explain.setObject(i, null);
+                }
+                try (ResultSet result = explain.executeQuery()) {
+                    result.next();
+                    return result.getString(1);
+                }
+            }
+        });
+    }
+
+    private static String lastSelect() {
+        List<String> statements = RecordingInspector.STATEMENTS;
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            if (statements.get(i).contains("email_attachment")) {
+                return statements.get(i);
+            }
+        }
+        throw new AssertionError("Consulta com email_attachment não executada");
+    }
+
+    private static List<Long> ids(List<EmailAuditSummaryDTO> summaries) {
+        return summaries.stream().map(EmailAuditSummaryDTO::getId).toList();
+    }
+
+    private static EmailAudit audit(String organization, LocalDateTime sendDate, EmailAttachment attachment) {
+        EmailAudit audit = EmailAudit.builder()
+                .recipient("destino@exemplo.com")
+                .emailSubject("Assunto")
+                .organizationName(organization)
+                .responsibleContact("contato@exemplo.com")
+                .subject("Dados")
+                .referencePeriod("2025")
+                .fileCount(1)
+                .fileNames(attachment.getFileName())
+                .sendStatus(SendStatus.SUCCESS)
+                .sendDate(sendDate)
+                .attachments(List.of(attachment))
+                .build();
+        attachment.setEmailAudit(audit);
+        return audit;
+    }
+
+    private static EmailAttachment attachment(int position, String fileName, String hash) {
+        return EmailAttachment.builder()
+                .position(position)
+                .fileName(fileName)
+                .sizeBytes(100L)
+                .contentHash(hash)
+                .build();
+    }
+
+    /**
+     * Guarda o SQL executado pelo Hibernate
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.join.Mcqueen.repositories;
+
+import com.join.Mcqueen.domain.models.EmailOutbox;
+import com.join.Mcqueen.domain.models.OutboxStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reivindicação da outbox: a releitura pelo token devolve só as linhas que o
+ * UPDATE pegou, e não as que a instância já tinha de uma reivindicação anterior
+ */
+@DataJpaTest(showSql = false)
+class EmailOutboxClaimTest {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Test
+    void claimReadsBackOnlyTheRowsItUpdated() {
+        LocalDateTime now = LocalDateTime.now();
+        // Em processamento por node-1: o lease tinha vencido na busca dos candidatos, mas o
+        // heartbeat o renovou antes do UPDATE
+        String running = save(job(now).lockedBy("node-1").leaseUntil(now.plusMinutes(1)));
+        String orphan = save(job(now).lockedBy("crashed-node").leaseUntil(now.minusSeconds(1)));
+
+        String token = UUID.randomUUID().toString();
+        int updated = emailOutboxRepository.claim(List.of(running, orphan), "node-1", token, now.plusMinutes(1),
+                OutboxStatus.PENDING, OutboxStatus.PROCESSING, now);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(emailOutboxRepository.findClaimedIds(List.of(running, orphan), token, OutboxStatus.PROCESSING))
+                .containsExactly(orphan);
+    }
+
+    private String save(EmailOutbox.EmailOutboxBuilder builder) {
+        return emailOutboxRepository.saveAndFlush(builder.build()).getId();
+    }
+
+    private static EmailOutbox.EmailOutboxBuilder job(LocalDateTime now) {
+        return EmailOutbox.builder()
+                .id(UUID.randomUUID().toString())
+                .recipient("destino@exemplo.com")
+                .organizationName("Órgão")
+                .responsibleContact("contato@exemplo.com")
+                .subject("Dados")
+                .referencePeriod("2025")
+                .status(OutboxStatus.PROCESSING)
+                .attempts(1)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now);
+    }
+}
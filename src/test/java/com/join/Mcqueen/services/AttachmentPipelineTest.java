@@ -0,0 +1,202 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.PreparedAttachment;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.storage.AttachmentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AttachmentPipelineTest {
+
+    private static final int THRESHOLD = 1024;
+
+    @TempDir
+    Path workDir;
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private AttachmentPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        pipeline = new AttachmentPipeline(executor, mock(AttachmentStore.class));
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "thresholdBytes", (long) THRESHOLD);
+        ReflectionTestUtils.setField(pipeline, "format", "gzip");
+        ReflectionTestUtils.setField(pipeline, "workDir", workDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void filesAboveTheThresholdAreGzippedAndPreencoded() throws Exception {
+        byte[] large = csv(500);
+        byte[] small = "id,valor\n1,10\n".getBytes(StandardCharsets.UTF_8);
+        MultipartFile smallFile = file("pequeno.csv", small);
+
+        List<PreparedAttachment> prepared = pipeline.prepare(List.of(file("dados.csv", large), smallFile),
+                Arrays.asList(null, null));
+
+        PreparedAttachment compressed = prepared.get(0);
+        assertThat(compressed.getFileName()).isEqualTo("dados.csv.gz");
+        assertThat(compressed.getOriginalFileName()).isEqualTo("dados.csv");
+        assertThat(compressed.getContentType()).isEqualTo("application/gzip");
+        assertThat(compressed.isCompressed()).isTrue();
+        assertThat(compressed.getOriginalBytes()).isEqualTo(large.length);
+        byte[] gzip = decode(compressed.getEncodedFile());
+        assertThat(compressed.getStoredBytes()).isEqualTo(gzip.length).isLessThan(large.length);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(large);
+        }
+        // Base64 MIME: linhas de até 76 caracteres separadas por CRLF
+        String encoded = Files.readString(compressed.getEncodedFile(), StandardCharsets.US_ASCII);
+        assertThat(encoded.split("\r\n")).allSatisfy(line -> assertThat(line.length()).isLessThanOrEqualTo(76));
+
+        // Abaixo do limite o upload é repassado sem arquivo temporário
+        PreparedAttachment passthrough = prepared.get(1);
+        assertThat(passthrough.getSource()).isSameAs(smallFile);
+        assertThat(passthrough.getEncodedFile()).isNull();
+        assertThat(passthrough.getFileName()).isEqualTo("pequeno.csv");
+        assertThat(passthrough.getStoredBytes()).isEqualTo(small.length);
+
+        pipeline.release(prepared);
+        assertThat(compressed.getEncodedFile()).doesNotExist();
+    }
+
+    @Test
+    void zipFormatKeepsTheOriginalNameInsideTheArchive() throws Exception {
+        ReflectionTestUtils.setField(pipeline, "format", "zip");
+        byte[] large = csv(500);
+
+        PreparedAttachment zipped = pipeline.prepare(List.of(file("dados.csv", large)), Arrays.asList((String) null))
+                .get(0);
+
+        assertThat(zipped.getFileName()).isEqualTo("dados.zip");
+        assertThat(zipped.getContentType()).isEqualTo("application/zip");
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(decode(zipped.getEncodedFile())))) {
+            ZipEntry entry = in.getNextEntry();
+            assertThat(entry.getName()).isEqualTo("dados.csv");
+            assertThat(in.readAllBytes()).isEqualTo(large);
+            assertThat(in.getNextEntry()).isNull();
+        }
+        pipeline.release(List.of(zipped));
+    }
+
+    @Test
+    void storedZipKeepsTheNameOfEachUpload() throws Exception {
+        AttachmentStore store = new AttachmentStore(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "dir", workDir.resolve("store").toString());
+        pipeline = new AttachmentPipeline(executor, store);
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "thresholdBytes", (long) THRESHOLD);
+        ReflectionTestUtils.setField(pipeline, "format", "zip");
+        ReflectionTestUtils.setField(pipeline, "workDir", workDir.toString());
+        byte[] large = csv(500);
+        String hash = "cd".repeat(32);
+
+        // Mesmo conteúdo reenviado com outro nome: o zip guardado não pode trazer o nome anterior
+        PreparedAttachment first = pipeline.prepare(List.of(file("janeiro.csv", large)), List.of(hash)).get(0);
+        PreparedAttachment renamed = pipeline.prepare(List.of(file("fevereiro.csv", large)), List.of(hash)).get(0);
+        PreparedAttachment again = pipeline.prepare(List.of(file("janeiro.csv", large)), List.of(hash)).get(0);
+
+        assertThat(zipEntryName(first.getEncodedFile())).isEqualTo("janeiro.csv");
+        assertThat(zipEntryName(renamed.getEncodedFile())).isEqualTo("fevereiro.csv");
+        assertThat(renamed.getEncodedFile()).isNotEqualTo(first.getEncodedFile());
+        assertThat(again.getEncodedFile()).isEqualTo(first.getEncodedFile());
+        assertThat(again.getStoreEntry().hit()).isTrue();
+        pipeline.release(List.of(first, renamed, again));
+    }
+
+    @Test
+    void prepareEncodedEncodesSmallFilesWithoutCompressing() throws Exception {
+        byte[] small = "nome;cidade\nJosé;Recife\n".getBytes(StandardCharsets.UTF_8);
+
+        PreparedAttachment encoded = pipeline.prepareEncoded(List.of(file("pequeno.csv", small)),
+                Arrays.asList((String) null)).get(0);
+
+        assertThat(encoded.isCompressed()).isFalse();
+        assertThat(encoded.getFileName()).isEqualTo("pequeno.csv");
+        assertThat(encoded.getContentType()).isNull();
+        assertThat(encoded.getSource()).isNull();
+        assertThat(encoded.getStoredBytes()).isEqualTo(small.length);
+        assertThat(decode(encoded.getEncodedFile())).isEqualTo(small);
+        pipeline.release(List.of(encoded));
+    }
+
+    @Test
+    void failureRemovesTheFilesAlreadyEncoded() throws Exception {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            files.add(file("dados-" + i + ".csv", csv(500)));
+        }
+        files.add(new MockMultipartFile("files", "quebrado.csv", "text/csv", csv(500)) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("upload interrompido");
+            }
+        });
+
+        assertThatThrownBy(() -> pipeline.prepareEncoded(files, Arrays.asList(null, null, null, null)))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessageContaining("quebrado.csv")
+                .hasMessageContaining("upload interrompido");
+        try (var remaining = Files.list(workDir)) {
+            assertThat(remaining).isEmpty();
+        }
+    }
+
+    private static MultipartFile file(String name, byte[] content) {
+        return new MockMultipartFile("files", name, "text/csv", content);
+    }
+
+    private static byte[] csv(int rows) {
+        StringBuilder csv = new StringBuilder("id,descricao,valor\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(i).append(",item ").append(i % 7).append(',').append(i * 10).append('\n');
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        assertThat(bytes.length).isGreaterThan(THRESHOLD);
+        return bytes;
+    }
+
+    private static String zipEntryName(Path encoded) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(decode(encoded)))) {
+            return in.getNextEntry().getName();
+        }
+    }
+
+    private static byte[] decode(Path encoded) throws IOException {
+        return Base64.getMimeDecoder().decode(Files.readAllBytes(encoded));
+    }
+}
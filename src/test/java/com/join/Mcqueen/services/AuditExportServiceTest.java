@@ -0,0 +1,94 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.models.EmailAttachment;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAttachmentRepository;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditExportServiceTest {
+
+    @Test
+    void csvQuotesValuesWithSeparatorsAndDetachesEachRow() {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 4, 1, 0, 0);
+        EmailAudit audit = EmailAudit.builder()
+                .recipient("destino@exemplo.com")
+                .organizationName("Secretaria, \"Órgão\"")
+                .dataDescription("linha 1\nlinha 2")
+                .sendStatus(SendStatus.SUCCESS)
+                .sendDate(LocalDateTime.of(2026, 3, 10, 9, 30))
+                .build();
+        audit.setId(3L);
+        when(repository.streamChronological(start, end)).thenReturn(Stream.of(audit));
+        EmailAttachmentRepository attachmentRepository = mock(EmailAttachmentRepository.class);
+        when(attachmentRepository.findByAuditIds(List.of(3L))).thenReturn(List.of(EmailAttachment.builder()
+                .emailAudit(audit)
+                .position(0)
+                .fileName("dados.csv")
+                .sizeBytes(120L)
+                .build()));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        EntityManager entityManager = mock(EntityManager.class);
+        AuditExportService service = new AuditExportService(repository,
+                new AuditAttachmentLoader(attachmentRepository, entityManager), transactionManager,
+                new ObjectMapper().findAndRegisterModules());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = service.export(AuditExportService.Format.CSV, start, end, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(count).isEqualTo(1);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,send_date,send_status,").endsWith(",data_description,attachments");
+        assertThat(lines[1]).startsWith("3,2026-03-10T09:30,SUCCESS,,")
+                .contains(",\"Secretaria, \"\"Órgão\"\"\",")
+                .contains(",\"linha 1\nlinha 2\",")
+                .endsWith(",\"[{\"\"id\"\":null,\"\"position\"\":0,\"\"fileName\"\":\"\"dados.csv\"\",\"\"contentType\"\":null,"
+                        + "\"\"sizeBytes\"\":120,\"\"storedBytes\"\":null,\"\"contentHash\"\":null,\"\"rowCount\"\":null}]\"");
+        verify(entityManager).detach(audit);
+    }
+
+    @Test
+    void csvNeutralizesValuesThatSpreadsheetsReadAsFormulas() throws Exception {
+        StringWriter writer = new StringWriter();
+        for (Object value : new Object[]{"=HYPERLINK(\"http://x\",\"abrir\")", "+5511999999999", "-2+3", "@SUM(A1)",
+                "\t=1", "Secretaria = Saúde", "a-b", -12L, ""}) {
+            AuditExportService.writeCsvValue(writer, value);
+            writer.write('|');
+        }
+
+        assertThat(writer.toString().split("\\|", -1)).containsExactly(
+                "\"'=HYPERLINK(\"\"http://x\"\",\"\"abrir\"\")\"",
+                "\"'+5511999999999\"",
+                "\"'-2+3\"",
+                "\"'@SUM(A1)\"",
+                "\"'\t=1\"",
+                "Secretaria = Saúde",
+                "a-b",
+                "-12",
+                "",
+                "");
+    }
+}
@@ -0,0 +1,149 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.models.EmailAttachment;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAttachmentRepository;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditRetentionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void expiredMonthsAreArchivedBeforeBeingDeleted() throws Exception {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        LocalDateTime january = LocalDateTime.of(2026, 1, 15, 10, 0);
+        LocalDateTime limit = LocalDateTime.of(2026, 5, 1, 0, 0);
+        when(repository.findOldestSendDateBefore(limit)).thenReturn(january, (LocalDateTime) null);
+        EmailAudit first = audit(7L, january);
+        when(repository.streamChronological(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0)))
+                .thenReturn(Stream.of(first, audit(9L, january.plusDays(3))));
+        // Os anexos saem da tabela junto com o registro (ON DELETE CASCADE): precisam estar no arquivo
+        EmailAttachmentRepository attachmentRepository = mock(EmailAttachmentRepository.class);
+        when(attachmentRepository.findByAuditIds(List.of(7L, 9L))).thenReturn(List.of(EmailAttachment.builder()
+                .id(70L)
+                .emailAudit(first)
+                .position(0)
+                .fileName("dados.csv")
+                .contentHash("a".repeat(64))
+                .build()));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("sem banco no teste"));
+
+        EmailStatsService emailStatsService = mock(EmailStatsService.class);
+        AuditRetentionService service = new AuditRetentionService(repository,
+                new AuditAttachmentLoader(attachmentRepository, mock(EntityManager.class)),
+                transactionManager, new ObjectMapper().findAndRegisterModules(), dataSource,
+                new SimpleMeterRegistry(), emailStatsService);
+        ReflectionTestUtils.setField(service, "retentionMonths", 3);
+        ReflectionTestUtils.setField(service, "archiveDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "deleteBatchSize", 1);
+        service.init();
+
+        List<Path> archives = service.archiveExpired(YearMonth.of(2026, 7));
+
+        assertThat(archives).containsExactly(tempDir.resolve("email_audit-2026-01-7.ndjson.gz"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archives.get(0))), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().filter(line -> !line.isBlank()).toList();
+            assertThat(lines).hasSize(2);
+            assertThat(lines.get(0)).contains("\"id\":7").contains("\"sendStatus\":\"SUCCESS\"")
+                    .contains("\"attachments\":[{\"id\":70,\"position\":0,\"fileName\":\"dados.csv\"");
+            assertThat(lines.get(1)).contains("\"id\":9").contains("\"attachments\":[]");
+        }
+        verify(repository).deleteAllByIdInBatch(List.of(7L));
+        verify(repository).deleteAllByIdInBatch(List.of(9L));
+        verify(emailStatsService).refresh();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void crashWhileDeletingKeepsTheMonthAndRewritesTheSameArchive() throws Exception {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        LocalDateTime january = LocalDateTime.of(2026, 1, 15, 10, 0);
+        LocalDateTime limit = LocalDateTime.of(2026, 5, 1, 0, 0);
+        when(repository.findOldestSendDateBefore(limit)).thenReturn(january, january, (LocalDateTime) null);
+        when(repository.streamChronological(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0)))
+                .thenAnswer(invocation -> Stream.of(audit(7L, january), audit(9L, january.plusDays(3))));
+        // Segundo lote falha na primeira execução, depois do primeiro já ter sido removido
+        doNothing().doThrow(new IllegalStateException("queda no meio da remoção")).doNothing()
+                .when(repository).deleteAllByIdInBatch(any());
+        EmailAttachmentRepository attachmentRepository = mock(EmailAttachmentRepository.class);
+        when(attachmentRepository.findByAuditIds(any())).thenReturn(List.of());
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("sem banco no teste"));
+
+        AuditRetentionService service = new AuditRetentionService(repository,
+                new AuditAttachmentLoader(attachmentRepository, mock(EntityManager.class)),
+                transactionManager, new ObjectMapper().findAndRegisterModules(), dataSource,
+                new SimpleMeterRegistry(), mock(EmailStatsService.class));
+        ReflectionTestUtils.setField(service, "retentionMonths", 3);
+        ReflectionTestUtils.setField(service, "archiveDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "deleteBatchSize", 1);
+        service.init();
+
+        assertThatThrownBy(() -> service.archiveExpired(YearMonth.of(2026, 7)))
+                .isInstanceOf(IllegalStateException.class);
+        // Só a leitura do mês foi confirmada; a remoção do primeiro lote foi desfeita junto
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+
+        List<Path> archives = service.archiveExpired(YearMonth.of(2026, 7));
+
+        assertThat(archives).containsExactly(tempDir.resolve("email_audit-2026-01-7.ndjson.gz"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    private static EmailAudit audit(Long id, LocalDateTime sendDate) {
+        EmailAudit audit = EmailAudit.builder()
+                .recipient("destino@exemplo.com")
+                .organizationName("Órgão")
+                .sendStatus(SendStatus.SUCCESS)
+                .sendDate(sendDate)
+                .build();
+        audit.setId(id);
+        return audit;
+    }
+}
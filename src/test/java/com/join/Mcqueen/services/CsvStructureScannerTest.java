@@ -0,0 +1,205 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.CsvFileStatsDTO;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvStructureScannerTest {
+
+    // Tamanho do bloco lido por scanBytes
+    private static final int CHUNK = 64 * 1024;
+
+    @Test
+    void quotedNewlineAcrossChunkBoundaryStaysInTheRecord() throws Exception {
+        StringBuilder csv = new StringBuilder("id,texto\n");
+        for (int i = 0; csv.length() < CHUNK - 100; i++) {
+            csv.append(i).append(",valor ").append(i).append('\n');
+        }
+        long fillerRows = csv.chars().filter(c -> c == '\n').count();
+        int quoteAt = csv.length() + 3;
+        csv.append("99,\"");
+        csv.append("a".repeat(CHUNK - 1 - csv.length())).append("\r\n\r\nfim\"\n");
+        csv.append("100,último\n");
+        assertThat(quoteAt).isLessThan(CHUNK);
+        // O \r fecha o primeiro bloco e o \n abre o segundo, ainda dentro das aspas
+        assertThat(csv.indexOf("\r\n", quoteAt)).isEqualTo(CHUNK - 1);
+        assertThat(csv.indexOf("fim")).isGreaterThan(CHUNK);
+
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        CsvFileStatsDTO stats = scan(bytes);
+        assertThat(stats.getRowCount()).isEqualTo(fillerRows + 2);
+        assertThat(stats.getColumnCount()).isEqualTo(2);
+        assertThat(stats.getEncoding()).isEqualTo("UTF-8");
+
+        // Mesmo resultado quando o stream entrega poucos bytes por leitura
+        CsvFileStatsDTO trickled = CsvStructureScanner.scan("dados.csv", new TrickleInputStream(bytes, 7),
+                bytes.length, () -> false);
+        assertThat(trickled.getRowCount()).isEqualTo(fillerRows + 2);
+    }
+
+    @Test
+    void quotedDelimitersAndEscapedQuotesDoNotSplitFields() throws Exception {
+        CsvFileStatsDTO stats = scan("nome,obs\n\"Silva, João\",\"disse \"\"olá\"\"\"\n\"\",\n");
+
+        assertThat(stats.getRowCount()).isEqualTo(3);
+        assertThat(stats.getColumnCount()).isEqualTo(2);
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedAtTheRecordStart() {
+        assertThatThrownBy(() -> scan("a,b\n1,\"aberto\n2,3\n"))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessageContaining("linha 2")
+                .hasMessageContaining("campo entre aspas não foi fechado");
+    }
+
+    @Test
+    void textAfterClosingQuoteIsRejected() {
+        assertThatThrownBy(() -> scan("a,b\n\"x\"y,1\n"))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessageContaining("linha 2")
+                .hasMessageContaining("caractere inesperado após aspas de fechamento");
+    }
+
+    @Test
+    void mismatchedColumnCountReportsPhysicalLine() {
+        // O registro 2 ocupa as linhas 2 e 3, então o registro inválido começa na linha 4
+        assertThatThrownBy(() -> scan("a,b\n\"x\ny\",1\nz\n"))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessage("Arquivo dados.csv não é um CSV válido (linha 4): esperadas 2 colunas, encontradas 1");
+    }
+
+    @Test
+    void blankLinesAndMissingTrailingNewlineAreAccepted() throws Exception {
+        CsvFileStatsDTO stats = scan("a;b\r\n\r\n1;2\r\n3;4");
+
+        assertThat(stats.getRowCount()).isEqualTo(3);
+        assertThat(stats.getColumnCount()).isEqualTo(2);
+    }
+
+    @Test
+    void emptyFileHasNoRecords() {
+        assertThatThrownBy(() -> scan(""))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessage("Arquivo dados.csv não contém registros CSV");
+        assertThatThrownBy(() -> scan(utf16(StandardCharsets.UTF_16LE, "")))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessage("Arquivo dados.csv não contém registros CSV");
+    }
+
+    @Test
+    void delimiterIsSniffedFromTheFirstRecordOutsideQuotes() throws Exception {
+        assertThat(CsvStructureScanner.sniffDelimiter("a;b;c\n1,5;2,5;3,5\n")).isEqualTo(';');
+        assertThat(CsvStructureScanner.sniffDelimiter("\"a;b;c\",d,e\n")).isEqualTo(',');
+        assertThat(CsvStructureScanner.sniffDelimiter("a\tb|c\td\n")).isEqualTo('\t');
+        assertThat(CsvStructureScanner.sniffDelimiter("\"multi\nlinha;x;y\",a|b|c|d\n")).isEqualTo('|');
+        assertThat(CsvStructureScanner.sniffDelimiter("sem delimitador\n")).isEqualTo(',');
+
+        CsvFileStatsDTO semicolon = scan("valor;descrição\n1,50;\"a, b\"\n2,75;c\n");
+        assertThat(semicolon.getDelimiter()).isEqualTo(";");
+        assertThat(semicolon.getColumnCount()).isEqualTo(2);
+
+        CsvFileStatsDTO tab = scan("a\tb\n1\t2\n");
+        assertThat(tab.getDelimiter()).isEqualTo("\\t");
+    }
+
+    @Test
+    void encodingIsDetectedFromBomAndContent() throws Exception {
+        assertThat(scan("a,b\n1,2\n").getEncoding()).isEqualTo("US-ASCII");
+        assertThat(scan("nome,cidade\nJosé,São Paulo\n").getEncoding()).isEqualTo("UTF-8");
+        assertThat(scan("nome,cidade\nJosé,São Paulo\n".getBytes(Charset.forName("windows-1252"))).getEncoding())
+                .isEqualTo("windows-1252");
+
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] body = "nome;cidade\nJosé;São Paulo\n".getBytes(StandardCharsets.UTF_8);
+        byte[] withBom = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, withBom, 0, bom.length);
+        System.arraycopy(body, 0, withBom, bom.length, body.length);
+        CsvFileStatsDTO utf8Bom = scan(withBom);
+        assertThat(utf8Bom.getEncoding()).isEqualTo("UTF-8 (BOM)");
+        assertThat(utf8Bom.getDelimiter()).isEqualTo(";");
+        assertThat(utf8Bom.getRowCount()).isEqualTo(2);
+    }
+
+    @Test
+    void utf16InputIsDecodedBeforeScanning() throws Exception {
+        String csv = "nome;cidade\n\"Silva; José\";São Paulo\n\"Ana\nMaria\";Recife\n";
+
+        CsvFileStatsDTO little = scan(utf16(StandardCharsets.UTF_16LE, csv));
+        assertThat(little.getEncoding()).isEqualTo("UTF-16LE");
+        assertThat(little.getDelimiter()).isEqualTo(";");
+        assertThat(little.getRowCount()).isEqualTo(3);
+        assertThat(little.getColumnCount()).isEqualTo(2);
+
+        CsvFileStatsDTO big = scan(utf16(StandardCharsets.UTF_16BE, csv));
+        assertThat(big.getEncoding()).isEqualTo("UTF-16BE");
+        assertThat(big.getRowCount()).isEqualTo(3);
+
+        assertThatThrownBy(() -> scan(utf16(StandardCharsets.UTF_16LE, "a;b\n1\n")))
+                .isInstanceOf(FileProcessingException.class)
+                .hasMessageContaining("esperadas 2 colunas, encontradas 1");
+    }
+
+    @Test
+    void cancellationStopsTheScan() {
+        byte[] bytes = "a,b\n1,2\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> CsvStructureScanner.scan("dados.csv", new ByteArrayInputStream(bytes),
+                bytes.length, () -> true))
+                .isInstanceOf(CancellationException.class);
+    }
+
+    private static CsvFileStatsDTO scan(String csv) throws IOException {
+        return scan(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CsvFileStatsDTO scan(byte[] bytes) throws IOException {
+        CsvFileStatsDTO stats = CsvStructureScanner.scan("dados.csv", new ByteArrayInputStream(bytes), bytes.length,
+                () -> false);
+        assertThat(stats.getSizeBytes()).isEqualTo(bytes.length);
+        return stats;
+    }
+
+    private static byte[] utf16(Charset charset, String csv) {
+        byte[] bom = charset == StandardCharsets.UTF_16LE ? new byte[]{(byte) 0xFF, (byte) 0xFE}
+                : new byte[]{(byte) 0xFE, (byte) 0xFF};
+        byte[] body = csv.getBytes(charset);
+        byte[] bytes = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(body, 0, bytes, bom.length, body.length);
+        return bytes;
+    }
+
+    /**
+     * Entrega no máximo maxRead bytes por leitura, como um upload chegando aos poucos
+     */
+    private static final class TrickleInputStream extends FilterInputStream {
+
+        private final int maxRead;
+
+        TrickleInputStream(byte[] bytes, int maxRead) {
+            super(new ByteArrayInputStream(bytes));
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+    }
+}
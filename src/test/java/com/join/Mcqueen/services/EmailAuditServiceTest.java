@@ -0,0 +1,219 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.dtos.CursorPageDTO;
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.dtos.EmailSearchFilterDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAttachmentRepository;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Paginação por cursor do histórico e filtros da busca sobre o banco (H2 com as
+ * migrações Flyway)
+ */
+@DataJpaTest(showSql = false)
+class EmailAuditServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 10, 9, 0);
+
+    @Autowired
+    private EmailAuditRepository emailAuditRepository;
+
+    @Autowired
+    private EmailAttachmentRepository emailAttachmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private EmailAuditService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new EmailAuditService(emailAuditRepository, emailAttachmentRepository,
+                new AuditAttachmentLoader(emailAttachmentRepository, entityManager), transactionManager,
+                new ObjectMapper());
+        ReflectionTestUtils.setField(service, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(service, "maxPageSize", 500);
+    }
+
+    @Test
+    void cursorPagesThroughRowsSharingASendDateWithoutGapsOrRepeats() {
+        // 23 envios em 5 instantes: a maioria das páginas termina no meio de um grupo com o mesmo send_date
+        List<EmailAudit> audits = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            audits.add(save(audit("destino" + i + "@exemplo.com", "Órgão", SendStatus.SUCCESS,
+                    BASE.minusMinutes(i % 5))));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> expected = audits.stream()
+                .sorted(Comparator.comparing(EmailAudit::getSendDate).thenComparing(EmailAudit::getId).reversed())
+                .map(EmailAudit::getId)
+                .toList();
+
+        for (int size : new int[]{1, 4, 5, 23, 50}) {
+            assertThat(pageThrough(size)).as("páginas de %d", size).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void rowsWrittenWhilePagingDoNotShiftLaterPages() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(save(audit("destino@exemplo.com", "Órgão", SendStatus.SUCCESS, BASE)).getId());
+        }
+        entityManager.flush();
+
+        CursorPageDTO<EmailAuditSummaryDTO> first = service.getEmailHistory(null, null, null, 4);
+        // Um envio novo, com o mesmo send_date e id maior, entra antes do cursor e não na próxima página
+        save(audit("novo@exemplo.com", "Órgão", SendStatus.SUCCESS, BASE));
+        entityManager.flush();
+        CursorPageDTO<EmailAuditSummaryDTO> second = service.getEmailHistory(null, null, first.getNextCursor(), 4);
+
+        List<Long> seen = new ArrayList<>(ids(first));
+        seen.addAll(ids(second));
+        Collections.reverse(ids);
+        assertThat(seen).containsExactlyElementsOf(ids);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        for (int i = 0; i < 4; i++) {
+            save(audit("destino@exemplo.com", "Órgão", SendStatus.SUCCESS, BASE.minusMinutes(i)));
+        }
+        entityManager.flush();
+
+        CursorPageDTO<EmailAuditSummaryDTO> page = service.getEmailHistory(null, null, null, 4);
+        assertThat(page.getSize()).isEqualTo(4);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void invalidCursorAndPageSizeAreRejected() {
+        assertThatThrownBy(() -> service.getEmailHistory(null, null, "não-é-um-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginação inválido");
+        assertThatThrownBy(() -> service.getEmailHistory(null, null, "c2VtLXNlcGFyYWRvcg", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginação inválido");
+        assertThatThrownBy(() -> service.getEmailHistory(null, null, null, 501))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getEmailHistory(null, null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void searchCombinesRecipientOrganizationStatusAndPeriod() {
+        Long ana = save(audit("Ana.Silva@exemplo.com", "Secretaria de Saúde", SendStatus.SUCCESS, BASE)).getId();
+        Long anaSouza = save(audit("ana.souza@exemplo.com", "Secretaria de Educação", SendStatus.ERROR,
+                BASE.minusDays(1))).getId();
+        Long anaUnderscore = save(audit("ana_x@exemplo.com", "Secretaria de Saúde", SendStatus.SUCCESS,
+                BASE.minusDays(2))).getId();
+        Long anab = save(audit("anab@exemplo.com", "Procuradoria", SendStatus.SUCCESS, BASE.minusDays(3))).getId();
+        Long bruno = save(audit("bruno@exemplo.com", "secretaria de saúde", SendStatus.SUCCESS,
+                BASE.minusHours(1))).getId();
+        entityManager.flush();
+
+        // Prefixo sem diferenciar maiúsculas e sem os espaços nas pontas
+        assertThat(search(EmailSearchFilterDTO.builder().recipient(" ANA ").build()))
+                .containsExactly(ana, anaSouza, anaUnderscore, anab);
+        // _ é literal, não o curinga do LIKE
+        assertThat(search(EmailSearchFilterDTO.builder().recipient("ana_").build())).containsExactly(anaUnderscore);
+        assertThat(search(EmailSearchFilterDTO.builder().recipient("ana").status("success").build()))
+                .containsExactly(ana, anaUnderscore, anab);
+        assertThat(search(EmailSearchFilterDTO.builder().recipient("ana").status("ERROR").build()))
+                .containsExactly(anaSouza);
+
+        // Período inclusivo nas duas pontas
+        EmailSearchFilterDTO.EmailSearchFilterDTOBuilder period = EmailSearchFilterDTO.builder()
+                .recipient("ana").startDate(BASE.minusDays(2)).endDate(BASE.minusDays(1));
+        assertThat(search(period.build())).containsExactly(anaSouza, anaUnderscore);
+        assertThat(search(period.status("SUCCESS").build())).containsExactly(anaUnderscore);
+        assertThat(search(EmailSearchFilterDTO.builder().startDate(BASE.minusHours(1)).build()))
+                .containsExactly(ana, bruno);
+        assertThat(search(EmailSearchFilterDTO.builder().endDate(BASE.minusDays(3)).build())).containsExactly(anab);
+
+        assertThat(search(EmailSearchFilterDTO.builder().organization("Secretaria de Saúde").status("SUCCESS")
+                .build())).containsExactly(ana, bruno, anaUnderscore);
+        assertThat(search(EmailSearchFilterDTO.builder().organization("secretaria").recipient("bruno")
+                .status("ERROR").build())).isEmpty();
+
+        // Filtros combinados com o cursor: as páginas cobrem o mesmo resultado
+        EmailSearchFilterDTO secretarias = EmailSearchFilterDTO.builder().organization("secretaria").build();
+        CursorPageDTO<EmailAuditSummaryDTO> first = service.searchEmails(secretarias, null, 2);
+        CursorPageDTO<EmailAuditSummaryDTO> second = service.searchEmails(secretarias, first.getNextCursor(), 2);
+        assertThat(ids(first)).containsExactly(ana, bruno);
+        assertThat(ids(second)).containsExactly(anaSouza, anaUnderscore);
+        assertThat(second.isHasMore()).isFalse();
+
+        assertThatThrownBy(() -> search(EmailSearchFilterDTO.builder().status("ENVIADO").build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Status de envio inválido");
+    }
+
+    private List<Long> search(EmailSearchFilterDTO filter) {
+        return ids(service.searchEmails(filter, null, 50));
+    }
+
+    private List<Long> pageThrough(int size) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<EmailAuditSummaryDTO> page = service.getEmailHistory(null, null, cursor, size);
+            assertThat(page.getSize()).isLessThanOrEqualTo(size);
+            assertThat(page.isHasMore()).isEqualTo(page.getNextCursor() != null);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+            assertThat(++pages).isLessThanOrEqualTo(100);
+        } while (cursor != null);
+        return seen;
+    }
+
+    private EmailAudit save(EmailAudit audit) {
+        return emailAuditRepository.save(audit);
+    }
+
+    private static List<Long> ids(CursorPageDTO<EmailAuditSummaryDTO> page) {
+        return page.getItems().stream().map(EmailAuditSummaryDTO::getId).toList();
+    }
+
+    private static EmailAudit audit(String recipient, String organization, SendStatus status,
+            LocalDateTime sendDate) {
+        return EmailAudit.builder()
+                .recipient(recipient)
+                .emailSubject("Assunto")
+                .organizationName(organization)
+                .responsibleContact("contato@exemplo.com")
+                .subject("Dados")
+                .referencePeriod("2025")
+                .fileCount(0)
+                .sendStatus(status)
+                .sendDate(sendDate)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a vazão de inserts da auditoria: um save com commit por registro
+ * (caminho anterior) contra a gravação em lotes do EmailAuditWriter.
+ * Executar com: mvn test -Dgroups=benchmark -Dtest.excludedGroups=
+ */
+@Tag("benchmark")
+@SpringBootTest
+class EmailAuditWriterBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int RECORDS = 20_000;
+
+    @Autowired
+    private EmailAuditRepository emailAuditRepository;
+
+    @Autowired
+    private EmailAuditWriter emailAuditWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void batchedWriteBehindOutperformsOneCommitPerRecord() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Aquecimento dos dois caminhos
+        for (int i = 0; i < WARMUP; i++) {
+            EmailAudit audit = audit(i);
+            transaction.executeWithoutResult(status -> emailAuditRepository.save(audit));
+            emailAuditWriter.submit(audit(i));
+        }
+        assertThat(emailAuditWriter.awaitFlush(Duration.ofMinutes(1))).isTrue();
+        emailAuditRepository.deleteAllInBatch();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            EmailAudit audit = audit(i);
+            transaction.executeWithoutResult(status -> emailAuditRepository.save(audit));
+        }
+        double syncPerSecond = RECORDS / seconds(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            emailAuditWriter.submit(audit(i));
+        }
+        assertThat(emailAuditWriter.awaitFlush(Duration.ofMinutes(1))).isTrue();
+        double batchedPerSecond = RECORDS / seconds(System.nanoTime() - start);
+
+        System.out.printf("Auditoria - commit por registro: %.0f inserts/s; write-behind em lotes: %.0f inserts/s (%.1fx)%n",
+                syncPerSecond, batchedPerSecond, batchedPerSecond / syncPerSecond);
+
+        assertThat(emailAuditWriter.getFailedCount()).isZero();
+        assertThat(emailAuditRepository.count()).isEqualTo(2L * RECORDS);
+        assertThat(batchedPerSecond).isGreaterThan(syncPerSecond);
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    private static EmailAudit audit(int i) {
+        return EmailAudit.builder()
+                .recipient("destino" + i + "@exemplo.com")
+                .emailSubject("Formulário de teste")
+                .organizationName("Órgão " + (i % 20))
+                .responsibleContact("responsavel@exemplo.com")
+                .subject("Teste")
+                .referencePeriod("2025")
+                .dataDescription("Registro de benchmark")
+                .fileCount(1)
+                .fileNames("dados.csv")
+                .sendStatus(SendStatus.SUCCESS)
+                .sendDate(LocalDateTime.now())
+                .lgpdCompliance(true)
+                .build();
+    }
+}
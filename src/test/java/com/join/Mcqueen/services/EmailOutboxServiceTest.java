@@ -0,0 +1,148 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.EmailOutbox;
+import com.join.Mcqueen.domain.models.OutboxStatus;
+import com.join.Mcqueen.exceptions.EmailSendingException;
+import com.join.Mcqueen.exceptions.FileProcessingException;
+import com.join.Mcqueen.repositories.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxServiceTest {
+
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final EmailOutboxService service = new EmailOutboxService(repository, emailService);
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(service, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryDelaySeconds", 30L);
+        ReflectionTestUtils.setField(service, "leaseMillis", 60000L);
+    }
+
+    @Test
+    void jobIsNotSentWhenTheLeaseExpiredBeforeTheSend() {
+        when(repository.findById("job-1")).thenReturn(Optional.of(job()));
+        when(repository.renewLease(eq("job-1"), eq("node-1"), any(), eq(OutboxStatus.PROCESSING), any()))
+                .thenReturn(0);
+
+        service.process("job-1", "node-1");
+
+        verifyNoInteractions(emailService);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void jobIsSentWhenTheLeaseIsRenewed() throws Exception {
+        EmailOutbox job = job();
+        when(repository.findById("job-1")).thenReturn(Optional.of(job));
+        when(repository.renewLease(eq("job-1"), eq("node-1"), any(), eq(OutboxStatus.PROCESSING), any()))
+                .thenReturn(1);
+
+        service.process("job-1", "node-1");
+
+        verify(emailService).sendFormEmail(any(), anyList(), eq("destino@exemplo.com"));
+        verify(repository).save(job);
+        assertThat(job.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getLeaseUntil()).isNull();
+    }
+
+    @Test
+    void permanentFailuresFailTheJobWithoutRetrying() throws Exception {
+        for (RuntimeException error : List.of(
+                new FileProcessingException("Arquivo vazio detectado"),
+                new EmailSendingException("Falha ao enviar email: autenticação",
+                        new MailAuthenticationException("535 credenciais inválidas")))) {
+            EmailOutbox job = job();
+            when(repository.findById("job-1")).thenReturn(Optional.of(job));
+            when(repository.renewLease(eq("job-1"), eq("node-1"), any(), eq(OutboxStatus.PROCESSING), any()))
+                    .thenReturn(1);
+            when(emailService.sendFormEmail(any(), anyList(), eq("destino@exemplo.com"))).thenThrow(error);
+
+            service.process("job-1", "node-1");
+
+            assertThat(job.getStatus()).as(error.getMessage()).isEqualTo(OutboxStatus.FAILED);
+            assertThat(job.getAttempts()).isEqualTo(1);
+            assertThat(job.getLastError()).isEqualTo(error.getMessage());
+        }
+    }
+
+    @Test
+    void transientFailureIsRetriedLater() throws Exception {
+        EmailOutbox job = job();
+        when(repository.findById("job-1")).thenReturn(Optional.of(job));
+        when(repository.renewLease(eq("job-1"), eq("node-1"), any(), eq(OutboxStatus.PROCESSING), any()))
+                .thenReturn(1);
+        when(emailService.sendFormEmail(any(), anyList(), eq("destino@exemplo.com"))).thenThrow(
+                new EmailSendingException("Falha ao enviar email: timeout",
+                        new MailSendException("timeout", new SocketTimeoutException("Read timed out"))));
+
+        service.process("job-1", "node-1");
+
+        assertThat(job.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getNextAttemptAt()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void jobClaimedByAnotherInstanceIsIgnored() {
+        EmailOutbox job = job();
+        job.setLockedBy("node-2");
+        when(repository.findById("job-1")).thenReturn(Optional.of(job));
+
+        service.process("job-1", "node-1");
+
+        verify(repository, never()).renewLease(any(), any(), any(), any(), any());
+        verifyNoInteractions(emailService);
+    }
+
+    private static EmailOutbox job() {
+        LocalDateTime now = LocalDateTime.now();
+        return EmailOutbox.builder()
+                .id("job-1")
+                .recipient("destino@exemplo.com")
+                .organizationName("Órgão")
+                .responsibleContact("contato@exemplo.com")
+                .subject("Dados")
+                .referencePeriod("2025")
+                .dataDescription("Descrição")
+                .lgpdCompliance(true)
+                .files(new ArrayList<>())
+                .status(OutboxStatus.PROCESSING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .lockedBy("node-1")
+                .leaseUntil(now.plusSeconds(60))
+                .version(1L)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.dtos.EmailStatsDTO;
+import com.join.Mcqueen.domain.models.SendErrorCode;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailStatsServiceTest {
+
+    @Test
+    void refreshReplacesLocalCountsWithTheDatabaseTotals() {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        when(repository.countByStatusAndErrorCode()).thenReturn(List.of(
+                new Object[]{SendStatus.SUCCESS, null, 10L},
+                new Object[]{SendStatus.ERROR, SendErrorCode.SMTP_AUTH, 2L}));
+        EmailStatsService service = new EmailStatsService(repository);
+        service.seed();
+
+        service.record(SendStatus.SUCCESS, null);
+        service.record(SendStatus.ERROR, SendErrorCode.SMTP_CONNECTION);
+        EmailStatsDTO local = service.getStats();
+        assertThat(local.getTotal()).isEqualTo(14);
+        assertThat(local.getByErrorCode()).containsEntry("SMTP_CONNECTION", 1L);
+
+        // Outra instância enviou mais 5 e a retenção removeu os erros de autenticação
+        when(repository.countByStatusAndErrorCode()).thenReturn(List.of(
+                new Object[]{SendStatus.SUCCESS, null, 16L},
+                new Object[]{SendStatus.ERROR, SendErrorCode.SMTP_CONNECTION, 1L}));
+        service.refresh();
+
+        EmailStatsDTO refreshed = service.getStats();
+        assertThat(refreshed.getTotal()).isEqualTo(17);
+        assertThat(refreshed.getByStatus()).containsEntry("SUCCESS", 16L).containsEntry("ERROR", 1L);
+        assertThat(refreshed.getByErrorCode()).containsEntry("SMTP_AUTH", 0L).containsEntry("SMTP_CONNECTION", 1L);
+        assertThat(refreshed.getSince()).isAfterOrEqualTo(local.getSince());
+    }
+
+    @Test
+    void failedRefreshKeepsTheCurrentCounts() {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        when(repository.countByStatusAndErrorCode()).thenReturn(List.<Object[]>of(
+                new Object[]{SendStatus.SUCCESS, null, 3L}));
+        EmailStatsService service = new EmailStatsService(repository);
+        service.seed();
+        service.record(SendStatus.SUCCESS, null);
+
+        when(repository.countByStatusAndErrorCode()).thenThrow(new IllegalStateException("banco indisponível"));
+        service.refresh();
+
+        assertThat(service.getStats().getTotal()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,129 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.dtos.EmailResponseDTO;
+import com.join.Mcqueen.domain.models.IdempotencyRecord;
+import com.join.Mcqueen.exceptions.IdempotencyConflictException;
+import com.join.Mcqueen.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String FINGERPRINT = IdempotencyService.fingerprint(List.of("form", "a.csv:10"));
+
+    @Test
+    void duplicatesWaitForTheOriginalAndReuseItsResponse() throws Exception {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById("k1")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(call -> call.getArgument(0));
+        IdempotencyService service = service(repository);
+
+        AtomicInteger sends = new AtomicInteger();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Result<EmailResponseDTO>> original = CompletableFuture.supplyAsync(
+                () -> service.execute("k1", FINGERPRINT, EmailResponseDTO.class, () -> {
+                    sends.incrementAndGet();
+                    sending.countDown();
+                    await(release);
+                    return EmailResponseDTO.builder().status("SUCCESS").recipient("a@exemplo.com").build();
+                }));
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Repetição concorrente: aguarda o original sem enviar de novo
+        CompletableFuture<IdempotencyService.Result<EmailResponseDTO>> concurrent = CompletableFuture.supplyAsync(
+                () -> service.execute("k1", FINGERPRINT, EmailResponseDTO.class, () -> {
+                    sends.incrementAndGet();
+                    return null;
+                }));
+        Thread.sleep(100);
+        assertThat(concurrent).isNotDone();
+        release.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        IdempotencyService.Result<EmailResponseDTO> replay = concurrent.get(5, TimeUnit.SECONDS);
+        assertThat(replay.replayed()).isTrue();
+        assertThat(replay.value().getRecipient()).isEqualTo("a@exemplo.com");
+
+        // Repetição posterior com outro conteúdo é recusada
+        assertThatThrownBy(() -> service.execute("k1", "outro", EmailResponseDTO.class, () -> null))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(sends).hasValue(1);
+    }
+
+    @Test
+    void contentHashIsComputedOnlyWhenTheKeyIsNew() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById("k3")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(call -> call.getArgument(0));
+        IdempotencyService service = service(repository);
+        AtomicInteger hashes = new AtomicInteger();
+        Supplier<String> contentHash = () -> {
+            hashes.incrementAndGet();
+            return "ab".repeat(32);
+        };
+
+        service.execute("k3", FINGERPRINT, contentHash, EmailResponseDTO.class,
+                () -> EmailResponseDTO.builder().status("SUCCESS").build());
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getContentHash()).isEqualTo("ab".repeat(32));
+
+        // A repetição é reconhecida pelo fingerprint, sem reler os arquivos
+        IdempotencyService.Result<EmailResponseDTO> replay = service.execute("k3", FINGERPRINT, contentHash,
+                EmailResponseDTO.class, () -> null);
+        assertThat(replay.replayed()).isTrue();
+        assertThat(hashes).hasValue(1);
+    }
+
+    @Test
+    void failuresAreNotRemembered() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById("k2")).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(call -> call.getArgument(0));
+        IdempotencyService service = service(repository);
+
+        assertThatThrownBy(() -> service.execute("k2", FINGERPRINT, EmailResponseDTO.class, () -> {
+            throw new IllegalStateException("SMTP indisponível");
+        })).hasMessage("SMTP indisponível");
+
+        IdempotencyService.Result<EmailResponseDTO> retry = service.execute("k2", FINGERPRINT,
+                EmailResponseDTO.class, () -> EmailResponseDTO.builder().status("SUCCESS").build());
+        assertThat(retry.replayed()).isFalse();
+    }
+
+    private static IdempotencyService service(IdempotencyRecordRepository repository) {
+        IdempotencyService service = new IdempotencyService(repository, new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+        ReflectionTestUtils.setField(service, "waitTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(service, "pollIntervalMillis", 10L);
+        ReflectionTestUtils.setField(service, "inProgressTimeoutMillis", 60000L);
+        return service;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.join.Mcqueen.services;
+
+import com.join.Mcqueen.domain.models.EmailData;
+import com.join.Mcqueen.storage.SpooledMultipartFile;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MimeMessageAssemblerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void attachmentsLargerThanHeapAreStreamedFromDisk() throws Exception {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        // Maior que a heap inteira: qualquer cópia para byte[] terminaria em OutOfMemoryError
+        long attachmentSize = maxHeap + 64L * 1024 * 1024;
+        Path csv = writeCsv(tempDir.resolve("grande.csv"), attachmentSize);
+
+        EmailData emailData = EmailData.builder()
+                .recipient("destinatario@exemplo.com")
+                .emailSubject("Teste de anexo grande")
+                .message("<p>corpo</p>")
+                .files(List.of(new SpooledMultipartFile(csv, "grande.csv", "text/csv")))
+                .build();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            MimeMessage message = new MimeMessageAssembler(new JavaMailSenderImpl()).assemble(emailData);
+            message.saveChanges();
+            message.writeTo(out);
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+
+        // O anexo inteiro passou pela mensagem serializada
+        assertThat(out.count).isGreaterThan(attachmentSize);
+        assertThat(peak.get()).isLessThan(maxHeap);
+    }
+
+    private static Path writeCsv(Path path, long size) throws IOException {
+        byte[] row = "2024-01-01;Secretaria da Saude;12345;Descricao do registro exportado\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            for (long written = 0; written < size; written += row.length) {
+                out.write(row);
+            }
+        }
+        return path;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
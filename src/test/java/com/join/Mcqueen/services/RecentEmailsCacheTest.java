@@ -0,0 +1,124 @@
+package com.join.Mcqueen.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.join.Mcqueen.domain.dtos.EmailAuditSummaryDTO;
+import com.join.Mcqueen.domain.models.EmailAudit;
+import com.join.Mcqueen.domain.models.SendStatus;
+import com.join.Mcqueen.repositories.EmailAuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecentEmailsCacheTest {
+
+    @Test
+    void concurrentMissesShareASingleQuery() throws Exception {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findRecentSummaries(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(EmailAuditSummaryDTO.from(audit(1L, LocalDateTime.now().minusHours(1))));
+        });
+        RecentEmailsCache cache = cache(repository);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RecentEmailsCache.Snapshot>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(cache::get));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<RecentEmailsCache.Snapshot> result : results) {
+                assertThat(new String(result.get(5, TimeUnit.SECONDS).body(), StandardCharsets.UTF_8))
+                        .contains("\"id\":1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(repository, times(1)).findRecentSummaries(any());
+    }
+
+    @Test
+    void etagChangesOnlyWhenTheWindowChanges() {
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        EmailAuditSummaryDTO expiring = EmailAuditSummaryDTO.from(
+                audit(1L, LocalDateTime.now().minusHours(24).plusSeconds(1)));
+        when(repository.findRecentSummaries(any())).thenReturn(List.of(expiring));
+        RecentEmailsCache cache = cache(repository);
+
+        RecentEmailsCache.Snapshot first = cache.get();
+        assertThat(cache.get()).isSameAs(first);
+
+        EmailAudit written = audit(2L, LocalDateTime.now());
+        cache.onWritten(List.of(written));
+        RecentEmailsCache.Snapshot second = cache.get();
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+        assertThat(new String(second.body(), StandardCharsets.UTF_8)).startsWith("[{\"id\":2")
+                .doesNotContain("dataDescription");
+
+        // O mesmo registro vindo do banco não altera a janela
+        cache.onWritten(List.of(audit(2L, written.getSendDate())));
+        assertThat(cache.get().etag()).isEqualTo(second.etag());
+
+        expiring.setSendDate(LocalDateTime.now().minusDays(2));
+        RecentEmailsCache.Snapshot third = cache.get();
+        assertThat(third.etag()).isNotEqualTo(second.etag());
+        assertThat(new String(third.body(), StandardCharsets.UTF_8)).doesNotContain("\"id\":1,");
+        verify(repository, times(1)).findRecentSummaries(any());
+    }
+
+    @Test
+    void etagIsTheSameOnEveryInstanceWithTheSameWindow() {
+        LocalDateTime sendDate = LocalDateTime.now().minusHours(1);
+        EmailAuditRepository repository = mock(EmailAuditRepository.class);
+        when(repository.findRecentSummaries(any())).thenReturn(List.of(EmailAuditSummaryDTO.from(audit(1L, sendDate))));
+
+        // Uma instância carrega tudo do banco, a outra recebe o segundo registro da própria gravação
+        RecentEmailsCache node1 = cache(repository);
+        RecentEmailsCache node2 = cache(repository);
+        node2.get();
+        node2.onWritten(List.of(audit(2L, sendDate.plusMinutes(5))));
+        node1.onWritten(List.of(audit(2L, sendDate.plusMinutes(5))));
+
+        assertThat(node1.get().etag()).isEqualTo(node2.get().etag()).matches("\"[0-9a-f]{32}\"");
+    }
+
+    private static RecentEmailsCache cache(EmailAuditRepository repository) {
+        RecentEmailsCache cache = new RecentEmailsCache(repository, new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "windowHours", 24);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "refreshIntervalMillis", 60000L);
+        cache.init();
+        return cache;
+    }
+
+    private static EmailAudit audit(Long id, LocalDateTime sendDate) {
+        EmailAudit audit = EmailAudit.builder()
+                .recipient("destino@exemplo.com")
+                .sendStatus(SendStatus.SUCCESS)
+                .dataDescription("Descrição longa")
+                .sendDate(sendDate)
+                .build();
+        audit.setId(id);
+        return audit;
+    }
+}
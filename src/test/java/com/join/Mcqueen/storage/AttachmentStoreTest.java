@@ -0,0 +1,64 @@
+package com.join.Mcqueen.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentStoreTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void decodedLengthMatchesContentSize() throws Exception {
+        // Cobre todos os restos de linha (76 caracteres = 57 bytes) e de padding
+        for (int size = 0; size <= 3 * 57 + 3; size++) {
+            Path encoded = tempDir.resolve("conteudo-" + size + ".b64");
+            Files.write(encoded, Base64.getMimeEncoder().encode(new byte[size]));
+
+            assertThat(AttachmentStore.decodedLength(encoded)).as("tamanho %d", size).isEqualTo(size);
+        }
+    }
+
+    @Test
+    void contentIsStoredOnceAndKeptWhileInUse() throws Exception {
+        AttachmentStore store = new AttachmentStore(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "dir", tempDir.toString());
+        ReflectionTestUtils.setField(store, "maxAgeHours", 168L);
+        ReflectionTestUtils.setField(store, "maxBytes", 0L);
+
+        AtomicInteger writes = new AtomicInteger();
+        AttachmentStore.Writer writer = target -> {
+            writes.incrementAndGet();
+            Files.writeString(target, "YWJj");
+        };
+
+        AttachmentStore.Entry first = store.acquire(HASH, "raw", writer);
+        AttachmentStore.Entry second = store.acquire(HASH, "raw", writer);
+
+        assertThat(writes).hasValue(1);
+        assertThat(first.hit()).isFalse();
+        assertThat(second.hit()).isTrue();
+        assertThat(second.path()).isEqualTo(first.path());
+
+        // Acima do limite de espaço, mas ainda referenciado por um envio
+        store.release(first);
+        store.collectGarbage();
+        assertThat(second.path()).exists();
+
+        store.release(second);
+        store.collectGarbage();
+        assertThat(second.path()).doesNotExist();
+    }
+}
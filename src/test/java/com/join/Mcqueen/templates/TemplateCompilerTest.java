@@ -0,0 +1,56 @@
+package com.join.Mcqueen.templates;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateCompilerTest {
+
+    private static final Set<String> VARIABLES = Set.of("nome", "descricao", "lgpd");
+
+    @Test
+    void htmlTemplatesEscapeValuesAndConvertLineBreaks() {
+        CompiledTemplate template = TemplateCompiler.compile("teste.html",
+                "<p>{{nome}}</p><p>{{descricao|nl2br}}</p>", true, VARIABLES);
+
+        String html = template.render(Map.of("nome", "<script>alert('x')</script> & \"cia\"",
+                "descricao", "linha 1\r\nlinha <2>")::get);
+
+        assertThat(html).isEqualTo("<p>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;cia&quot;</p>"
+                + "<p>linha 1<br>linha &lt;2&gt;</p>");
+    }
+
+    @Test
+    void textTemplatesKeepValuesAndDropStandaloneSectionLines() {
+        CompiledTemplate template = TemplateCompiler.compile("teste.txt", """
+                Órgão: {{nome}}
+                {{#lgpd}}
+                LGPD: confirmada
+                {{/lgpd}}
+                {{^lgpd}}
+                LGPD: não confirmada
+                {{/lgpd}}
+                Fim
+                """, false, VARIABLES);
+
+        assertThat(template.render(Map.<String, Object>of("nome", "A & B", "lgpd", true)::get))
+                .isEqualTo("Órgão: A & B\nLGPD: confirmada\nFim\n");
+        assertThat(template.render(Map.<String, Object>of("nome", "A & B", "lgpd", false)::get))
+                .isEqualTo("Órgão: A & B\nLGPD: não confirmada\nFim\n");
+    }
+
+    @Test
+    void invalidTemplatesAreRejectedWithLineNumber() {
+        assertThatThrownBy(() -> TemplateCompiler.compile("t.html", "ok\n{{nomee}}", true, VARIABLES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Template t.html, linha 2: variável desconhecida 'nomee'");
+        assertThatThrownBy(() -> TemplateCompiler.compile("t.html", "{{#lgpd}}sem fim", true, VARIABLES))
+                .hasMessage("Template t.html, linha 1: seção 'lgpd' não foi fechada");
+        assertThatThrownBy(() -> TemplateCompiler.compile("t.txt", "{{descricao|nl2br}}", false, VARIABLES))
+                .hasMessage("Template t.txt, linha 1: o filtro nl2br só se aplica a templates HTML");
+    }
+}
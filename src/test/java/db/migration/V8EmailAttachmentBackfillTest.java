@@ -0,0 +1,97 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cópia dos anexos dos registros anteriores a V7 para email_attachment: a partir
+ * de file_stats, de file_names e file_hashes quando não há estatísticas (ou elas
+ * são ilegíveis), e reinício da sequência acima dos ids copiados
+ */
+class V8EmailAttachmentBackfillTest {
+
+    private static final String HASH_A = "a".repeat(64);
+    private static final String HASH_B = "b".repeat(64);
+
+    @Test
+    void copiesLegacyAttachmentsIntoRows() throws Exception {
+        String url = "jdbc:h2:mem:backfill-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        migrate(url, "6");
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            insertAudit(connection, 1, "dados.csv", "[{\"fileName\":\"dados.csv\",\"sizeBytes\":120,"
+                    + "\"sha256\":\"" + HASH_A + "\",\"rowCount\":4}]", HASH_A);
+            insertAudit(connection, 2, "a.csv, b.csv", null, HASH_A + "," + HASH_B);
+            insertAudit(connection, 3, "c.csv", "{ilegível", null);
+            insertAudit(connection, 4, null, null, null);
+        }
+
+        migrate(url, "8");
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                Statement statement = connection.createStatement()) {
+            List<String> rows = new ArrayList<>();
+            try (ResultSet result = statement.executeQuery("SELECT email_audit_id, position, file_name, size_bytes, "
+                    + "content_hash, row_count FROM email_attachment ORDER BY email_audit_id, position")) {
+                while (result.next()) {
+                    rows.add(result.getLong(1) + "|" + result.getInt(2) + "|" + result.getString(3) + "|"
+                            + result.getObject(4) + "|" + result.getString(5) + "|" + result.getObject(6));
+                }
+            }
+            assertThat(rows).containsExactly(
+                    "1|0|dados.csv|120|" + HASH_A + "|4",
+                    "2|0|a.csv|null|" + HASH_A + "|null",
+                    "2|1|b.csv|null|" + HASH_B + "|null",
+                    "3|0|c.csv|null|null|null");
+
+            // O Hibernate usa os 50 ids que terminam no valor lido: todos acima dos copiados
+            long maxId;
+            try (ResultSet result = statement.executeQuery("SELECT MAX(id) FROM email_attachment")) {
+                result.next();
+                maxId = result.getLong(1);
+            }
+            try (ResultSet result = statement.executeQuery("SELECT NEXT VALUE FOR email_attachment_seq")) {
+                result.next();
+                assertThat(result.getLong(1) - 49).isGreaterThan(maxId);
+            }
+        }
+    }
+
+    private static void migrate(String url, String target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static void insertAudit(Connection connection, long id, String fileNames, String fileStats,
+            String fileHashes) throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO email_audit (id, recipient, "
+                + "recipient_normalized, email_subject, organization_name, organization_normalized, "
+                + "responsible_contact, subject, reference_period, file_names, file_stats, file_hashes, send_status, "
+                + "send_date) VALUES (?, 'destino@exemplo.com', 'destino@exemplo.com', 'Assunto', 'Órgão', 'órgão', "
+                + "'contato@exemplo.com', 'Dados', '2025', ?, ?, ?, 'SUCCESS', ?)")) {
+            insert.setLong(1, id);
+            insert.setString(2, fileNames);
+            insert.setString(3, fileStats);
+            insert.setString(4, fileHashes);
+            insert.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            insert.executeUpdate();
+        }
+    }
+}